@@ -0,0 +1,224 @@
+package ch.wenkst.sw_utils.communication.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BufferPool {
+	private static final Logger logger = LoggerFactory.getLogger(BufferPool.class);
+
+	public static final int[] DEFAULT_SIZE_CLASSES = new int[] {1024, 4096, 16384, 65536};
+	public static final int DEFAULT_MAX_POOLED_PER_CLASS = 256;
+
+	private static final BufferPool sharedPool = new BufferPool(DEFAULT_SIZE_CLASSES, DEFAULT_MAX_POOLED_PER_CLASS, true);
+	private static final BufferPool sharedHeapPool = new BufferPool(DEFAULT_SIZE_CLASSES, DEFAULT_MAX_POOLED_PER_CLASS, false);
+
+	private int[] sizeClasses;
+	private int maxPooledPerClass;
+	private boolean direct;
+	private List<Queue<ByteBuffer>> freeBuffers;
+	private AtomicInteger[] pooledCounts;
+	private volatile Set<ByteBuffer> borrowedBuffers = null;
+	private AtomicLong allocatedCount = new AtomicLong(0);
+
+
+	/**
+	 * pool of byte buffers that are grouped in size classes, a buffer is taken from the smallest size class
+	 * that can hold the requested capacity. Requests that are larger than the biggest size class are
+	 * allocated and not pooled. the borrowed buffers are only tracked if the tracking is enabled for
+	 * diagnostics, see setTrackBorrowedBuffers()
+	 * @param sizeClasses 			ascending capacities of the size classes in bytes
+	 * @param maxPooledPerClass 	maximal number of free buffers that are kept per size class
+	 * @param direct 				true to allocate direct (off-heap) buffers, false for heap buffers
+	 */
+	public BufferPool(int[] sizeClasses, int maxPooledPerClass, boolean direct) {
+		this.sizeClasses = sizeClasses.clone();
+		this.maxPooledPerClass = maxPooledPerClass;
+		this.direct = direct;
+
+		freeBuffers = new ArrayList<>(sizeClasses.length);
+		pooledCounts = new AtomicInteger[sizeClasses.length];
+		for (int i=0; i<sizeClasses.length; i++) {
+			freeBuffers.add(new ConcurrentLinkedQueue<>());
+			pooledCounts[i] = new AtomicInteger(0);
+		}
+	}
+
+
+	/**
+	 * returns the pool of direct buffers that is shared by the whole application
+	 * @return 		the shared buffer pool
+	 */
+	public static BufferPool shared() {
+		return sharedPool;
+	}
+
+
+	/**
+	 * returns the pool of heap buffers that is shared by the whole application, e.g. for the read buffers 
+	 * of the blocking connections
+	 * @return 		the shared pool of heap buffers
+	 */
+	public static BufferPool sharedHeap() {
+		return sharedHeapPool;
+	}
+
+
+	/**
+	 * borrows a cleared buffer with at least the passed capacity from the pool, the buffer needs to be
+	 * returned with release() once it is no longer used
+	 * @param minCapacity 	the minimal capacity of the buffer in bytes
+	 * @return 				a buffer with position 0 and limit set to its capacity
+	 */
+	public ByteBuffer acquire(int minCapacity) {
+		int classIndex = sizeClassIndex(minCapacity);
+		if (classIndex < 0) {
+			return allocate(minCapacity);
+		}
+
+		ByteBuffer buffer = freeBuffers.get(classIndex).poll();
+		if (buffer == null) {
+			buffer = allocate(sizeClasses[classIndex]);
+		} else {
+			pooledCounts[classIndex].decrementAndGet();
+			buffer.clear();
+		}
+
+		Set<ByteBuffer> trackedBuffers = borrowedBuffers;
+		if (trackedBuffers != null) {
+			synchronized (trackedBuffers) {
+				trackedBuffers.add(buffer);
+			}
+		}
+		return buffer;
+	}
+
+
+	/**
+	 * returns a borrowed buffer to the pool, the buffer must not be used by the caller afterwards and must
+	 * only be returned once. if the tracking is enabled buffers that were not borrowed from this pool or that 
+	 * were already returned are ignored
+	 * @param buffer 	the buffer to return
+	 */
+	public void release(ByteBuffer buffer) {
+		if (buffer == null) {
+			return;
+		}
+
+		int classIndex = exactSizeClassIndex(buffer.capacity());
+		if (classIndex < 0 || buffer.isDirect() != direct) {
+			return;
+		}
+
+		Set<ByteBuffer> trackedBuffers = borrowedBuffers;
+		if (trackedBuffers != null) {
+			synchronized (trackedBuffers) {
+				if (!trackedBuffers.remove(buffer)) {
+					logger.warn("buffer was not borrowed from the pool or was already released, it is not pooled");
+					return;
+				}
+			}
+		}
+
+		if (pooledCounts[classIndex].incrementAndGet() > maxPooledPerClass) {
+			pooledCounts[classIndex].decrementAndGet();
+			return;
+		}
+
+		buffer.clear();
+		freeBuffers.get(classIndex).offer(buffer);
+	}
+
+
+	/**
+	 * enables the tracking of the borrowed buffers to find double or foreign releases, the pool then keeps
+	 * a reference to every borrowed buffer until it is released. only meant for diagnostics, buffers that 
+	 * are borrowed while the tracking is disabled are not accepted by release() after it was enabled
+	 * @param track 	true to track the borrowed buffers
+	 */
+	public void setTrackBorrowedBuffers(boolean track) {
+		borrowedBuffers = track ? Collections.newSetFromMap(new IdentityHashMap<>()) : null;
+	}
+
+
+	/**
+	 * returns the number of borrowed buffers that were not yet released
+	 * @return 		number of borrowed buffers, -1 if the tracking is disabled
+	 */
+	public int getBorrowedCount() {
+		Set<ByteBuffer> trackedBuffers = borrowedBuffers;
+		if (trackedBuffers == null) {
+			return -1;
+		}
+		synchronized (trackedBuffers) {
+			return trackedBuffers.size();
+		}
+	}
+
+
+	private ByteBuffer allocate(int capacity) {
+		allocatedCount.incrementAndGet();
+		if (direct) {
+			return ByteBuffer.allocateDirect(capacity);
+		} else {
+			return ByteBuffer.allocate(capacity);
+		}
+	}
+
+
+	private int sizeClassIndex(int capacity) {
+		for (int i=0; i<sizeClasses.length; i++) {
+			if (capacity <= sizeClasses[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	private int exactSizeClassIndex(int capacity) {
+		for (int i=0; i<sizeClasses.length; i++) {
+			if (capacity == sizeClasses[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * returns the number of free buffers that are currently kept in the pool
+	 * @return 		number of pooled buffers
+	 */
+	public int getPooledCount() {
+		int pooledCount = 0;
+		for (AtomicInteger count : pooledCounts) {
+			pooledCount += count.get();
+		}
+		return pooledCount;
+	}
+
+
+	/**
+	 * returns the number of buffers that were allocated by the pool since its creation
+	 * @return 		number of allocated buffers
+	 */
+	public long getAllocatedCount() {
+		return allocatedCount.get();
+	}
+
+
+	public boolean isDirect() {
+		return direct;
+	}
+}
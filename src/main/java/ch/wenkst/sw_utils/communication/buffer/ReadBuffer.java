@@ -0,0 +1,72 @@
+package ch.wenkst.sw_utils.communication.buffer;
+
+import java.nio.ByteBuffer;
+
+public class ReadBuffer {
+	private BufferPool pool;
+	private ByteBuffer buffer;
+	private ByteBuffer view = null;
+
+
+	/**
+	 * read buffer of a blocking connection whose array is borrowed from a pool of heap buffers. the stream
+	 * sockets can only read into arrays, the callbacks get a reusable view of the received bytes so that
+	 * no array is allocated per read. the array is returned to the pool with release() and must not be
+	 * used afterwards
+	 * @param pool 			pool of heap buffers
+	 * @param capacity 		the minimal capacity of the array in bytes
+	 */
+	public ReadBuffer(BufferPool pool, int capacity) {
+		this.pool = pool;
+		this.buffer = pool.acquire(capacity);
+		if (!buffer.hasArray()) {
+			throw new IllegalArgumentException("the read buffer needs a pool of heap buffers");
+		}
+	}
+
+
+	/**
+	 * read buffer with its own array that is not returned to a pool
+	 * @param capacity 		the capacity of the array in bytes
+	 */
+	public ReadBuffer(int capacity) {
+		this.buffer = ByteBuffer.allocate(capacity);
+	}
+
+
+	/**
+	 * returns the array to read into
+	 * @return 		the array of the read buffer
+	 */
+	public byte[] array() {
+		return buffer.array();
+	}
+
+
+	/**
+	 * returns a reusable view of the first len bytes of the passed array, the view is only valid until the
+	 * next call. a connection can replace its input array, in this case a view of the new array is created
+	 * @param array 	the array that holds the received bytes
+	 * @param len 		number of valid bytes in the array
+	 * @return 			buffer wrapping the array
+	 */
+	public ByteBuffer view(byte[] array, int len) {
+		if (view == null || view.array() != array) {
+			view = ByteBuffer.wrap(array);
+		}
+		view.clear();
+		view.limit(len);
+		return view;
+	}
+
+
+	/**
+	 * returns the array to the pool, only the first call has an effect
+	 */
+	public synchronized void release() {
+		if (pool != null) {
+			pool.release(buffer);
+			pool = null;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+import java.nio.charset.StandardCharsets;
+
+public class DelimiterFramer extends MessageFramer {
+	private byte[] delimiter;
+	private int searchIndex = 0;
+	
+	
+	/**
+	 * frames that are terminated by a delimiter, the delimiter is not part of the delivered frame
+	 * @param delimiter 		the byte sequence that terminates a frame
+	 * @param maxFrameLength 	maximal frame length in bytes without the delimiter
+	 */
+	public DelimiterFramer(byte[] delimiter, int maxFrameLength) {
+		super(maxFrameLength);
+		if (delimiter.length == 0) {
+			throw new IllegalArgumentException("the delimiter must not be empty");
+		}
+		this.delimiter = delimiter.clone();
+	}
+	
+	
+	/**
+	 * creates a framer for frames that are terminated by a new line (\n)
+	 * @param maxFrameLength 	maximal line length in bytes
+	 * @return 					the framer
+	 */
+	public static DelimiterFramer lineFramer(int maxFrameLength) {
+		return new DelimiterFramer("\n".getBytes(StandardCharsets.US_ASCII), maxFrameLength);
+	}
+	
+	
+	@Override
+	protected byte[] nextFrame() throws FramingException {
+		int delimiterIndex = ringBuffer.indexOf(delimiter, searchIndex);
+		if (delimiterIndex < 0) {
+			checkPartialFrameLength();
+			searchIndex = Math.max(0, ringBuffer.readableBytes() - delimiter.length + 1);
+			return null;
+		}
+		
+		if (delimiterIndex > maxFrameLength) {
+			throw new FramingException("frame length " + delimiterIndex + " exceeds the maximum of " + maxFrameLength);
+		}
+		
+		searchIndex = 0;
+		byte[] frame = ringBuffer.read(delimiterIndex);
+		ringBuffer.skip(delimiter.length);
+		return frame;
+	}
+	
+	
+	private void checkPartialFrameLength() throws FramingException {
+		if (ringBuffer.readableBytes() > maxFrameLength + delimiter.length) {
+			throw new FramingException("no delimiter found in the first " + ringBuffer.readableBytes() + " bytes, max frame length is " + maxFrameLength);
+		}
+	}
+	
+	
+	@Override
+	public byte[] encode(byte[] payload) {
+		byte[] frame = new byte[payload.length + delimiter.length];
+		System.arraycopy(payload, 0, frame, 0, payload.length);
+		System.arraycopy(delimiter, 0, frame, payload.length, delimiter.length);
+		return frame;
+	}
+	
+	
+	@Override
+	public void reset() {
+		super.reset();
+		searchIndex = 0;
+	}
+}
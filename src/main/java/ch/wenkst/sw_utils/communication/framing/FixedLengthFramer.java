@@ -0,0 +1,33 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+public class FixedLengthFramer extends MessageFramer {
+	private int frameLength;
+	
+	
+	/**
+	 * frames that all have the same length
+	 * @param frameLength 	the length of every frame in bytes
+	 */
+	public FixedLengthFramer(int frameLength) {
+		super(frameLength);
+		this.frameLength = frameLength;
+	}
+	
+	
+	@Override
+	protected byte[] nextFrame() {
+		if (ringBuffer.readableBytes() < frameLength) {
+			return null;
+		}
+		return ringBuffer.read(frameLength);
+	}
+	
+	
+	@Override
+	public byte[] encode(byte[] payload) {
+		if (payload.length != frameLength) {
+			throw new IllegalArgumentException("payload has " + payload.length + " bytes, the frame length is " + frameLength);
+		}
+		return payload.clone();
+	}
+}
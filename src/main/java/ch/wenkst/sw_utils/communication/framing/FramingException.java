@@ -0,0 +1,9 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+public class FramingException extends Exception {
+	private static final long serialVersionUID = 1L;
+	
+	public FramingException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,52 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+public class LengthFieldFramer extends MessageFramer {
+	private int lengthFieldLength;
+	
+	
+	/**
+	 * frames that are prefixed with a big endian length field that contains the length of the payload
+	 * @param lengthFieldLength 	number of bytes of the length field, 1, 2 or 4
+	 * @param maxFrameLength 		maximal payload length in bytes
+	 */
+	public LengthFieldFramer(int lengthFieldLength, int maxFrameLength) {
+		super(maxFrameLength);
+		if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4) {
+			throw new IllegalArgumentException("length field must have 1, 2 or 4 bytes, not " + lengthFieldLength);
+		}
+		this.lengthFieldLength = lengthFieldLength;
+	}
+	
+	
+	@Override
+	protected byte[] nextFrame() throws FramingException {
+		if (ringBuffer.readableBytes() < lengthFieldLength) {
+			return null;
+		}
+		
+		long frameLength = ringBuffer.getUnsigned(0, lengthFieldLength);
+		if (frameLength > maxFrameLength) {
+			throw new FramingException("frame length " + frameLength + " exceeds the maximum of " + maxFrameLength);
+		}
+		
+		if (ringBuffer.readableBytes() < lengthFieldLength + frameLength) {
+			return null;
+		}
+		
+		ringBuffer.skip(lengthFieldLength);
+		return ringBuffer.read((int) frameLength);
+	}
+	
+	
+	@Override
+	public byte[] encode(byte[] payload) {
+		byte[] frame = new byte[lengthFieldLength + payload.length];
+		long length = payload.length;
+		for (int i=lengthFieldLength-1; i>=0; i--) {
+			frame[i] = (byte) (length & 0xFF);
+			length = length >> 8;
+		}
+		System.arraycopy(payload, 0, frame, lengthFieldLength, payload.length);
+		return frame;
+	}
+}
@@ -0,0 +1,96 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public abstract class MessageFramer {
+	protected RingBuffer ringBuffer;
+	protected int maxFrameLength;
+	
+	
+	/**
+	 * splits a byte stream into frames, the received bytes are collected in a growable ring buffer until 
+	 * one or more frames are complete
+	 * @param maxFrameLength 	maximal length of a frame in bytes, longer frames are rejected
+	 */
+	public MessageFramer(int maxFrameLength) {
+		this.maxFrameLength = maxFrameLength;
+		this.ringBuffer = new RingBuffer(Math.min(maxFrameLength, 8192));
+	}
+	
+	
+	/**
+	 * adds the received bytes and returns all frames that are complete
+	 * @param data 		array holding the received bytes
+	 * @param offset 	offset of the first received byte
+	 * @param length 	number of received bytes
+	 * @return 			the complete frames in the order they were received, empty if no frame is complete
+	 * @throws FramingException 	if the stream contains a frame that violates the framing
+	 */
+	public List<byte[]> decode(byte[] data, int offset, int length) throws FramingException {
+		ringBuffer.write(data, offset, length);
+		return completeFrames();
+	}
+	
+	
+	/**
+	 * adds the received bytes and returns all frames that are complete
+	 * @param data 		buffer holding the received bytes between its position and limit
+	 * @return 			the complete frames in the order they were received, empty if no frame is complete
+	 * @throws FramingException 	if the stream contains a frame that violates the framing
+	 */
+	public List<byte[]> decode(ByteBuffer data) throws FramingException {
+		ringBuffer.write(data);
+		return completeFrames();
+	}
+	
+	
+	private List<byte[]> completeFrames() throws FramingException {
+		byte[] frame = nextFrame();
+		if (frame == null) {
+			return Collections.emptyList();
+		}
+		
+		List<byte[]> frames = new ArrayList<>();
+		while (frame != null) {
+			frames.add(frame);
+			frame = nextFrame();
+		}
+		return frames;
+	}
+	
+	
+	/**
+	 * removes the next complete frame from the ring buffer
+	 * @return 		the payload of the next frame or null if no complete frame was received
+	 * @throws FramingException 	if the next frame violates the framing
+	 */
+	protected abstract byte[] nextFrame() throws FramingException;
+	
+	
+	/**
+	 * adds the framing to the passed payload so that it can be sent to a peer that uses the same framing
+	 * @param payload 	the payload of the frame
+	 * @return 			the bytes to send
+	 */
+	public abstract byte[] encode(byte[] payload);
+	
+	
+	/**
+	 * discards all bytes that do not yet belong to a complete frame
+	 */
+	public void reset() {
+		ringBuffer.clear();
+	}
+	
+	
+	/**
+	 * returns the number of received bytes that do not yet belong to a complete frame
+	 * @return 		number of buffered bytes
+	 */
+	public int getBufferedBytes() {
+		return ringBuffer.readableBytes();
+	}
+}
@@ -0,0 +1,191 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+import java.nio.ByteBuffer;
+
+public class RingBuffer {
+	private byte[] buffer;
+	private int mask;
+	private int readPos = 0;
+	private int size = 0;
+
+
+	/**
+	 * growable circular byte buffer, the capacity is doubled if more bytes are written than fit into the
+	 * buffer. bytes are only copied when written and when they are read out
+	 * @param initialCapacity 		initial capacity in bytes, rounded up to the next power of two
+	 */
+	public RingBuffer(int initialCapacity) {
+		int capacity = powerOfTwoCapacity(Math.max(16, initialCapacity));
+		buffer = new byte[capacity];
+		mask = capacity - 1;
+	}
+
+
+	private static int powerOfTwoCapacity(int minCapacity) {
+		int capacity = Integer.highestOneBit(minCapacity);
+		if (capacity < minCapacity) {
+			capacity = capacity << 1;
+		}
+		return capacity;
+	}
+
+
+	/**
+	 * appends the passed bytes to the buffer
+	 * @param src 		array holding the bytes
+	 * @param offset 	offset of the first byte to write
+	 * @param length 	number of bytes to write
+	 */
+	public void write(byte[] src, int offset, int length) {
+		ensureCapacity(size + length);
+		int writePos = (readPos + size) & mask;
+		int firstPart = Math.min(length, buffer.length - writePos);
+		System.arraycopy(src, offset, buffer, writePos, firstPart);
+		System.arraycopy(src, offset + firstPart, buffer, 0, length - firstPart);
+		size += length;
+	}
+
+
+	/**
+	 * appends the remaining bytes of the passed buffer, the position of the source is moved to its limit
+	 * @param src 		buffer holding the bytes between its position and limit
+	 */
+	public void write(ByteBuffer src) {
+		int length = src.remaining();
+		ensureCapacity(size + length);
+		int writePos = (readPos + size) & mask;
+		int firstPart = Math.min(length, buffer.length - writePos);
+		src.get(buffer, writePos, firstPart);
+		src.get(buffer, 0, length - firstPart);
+		size += length;
+	}
+
+
+	/**
+	 * returns the byte at the passed index relative to the first readable byte without consuming it
+	 * @param index 	index relative to the read position
+	 * @return 			the byte at the index
+	 */
+	public byte getByte(int index) {
+		return buffer[(readPos + index) & mask];
+	}
+
+
+	/**
+	 * returns an unsigned big endian number of up to 4 bytes without consuming it
+	 * @param index 	index of the first byte relative to the read position
+	 * @param length 	number of bytes of the number
+	 * @return 			the unsigned number
+	 */
+	public long getUnsigned(int index, int length) {
+		long value = 0;
+		for (int i=0; i<length; i++) {
+			value = (value << 8) | (getByte(index + i) & 0xFF);
+		}
+		return value;
+	}
+
+
+	/**
+	 * reads and consumes the passed number of bytes
+	 * @param length 	number of bytes to read
+	 * @return 			array containing the bytes
+	 */
+	public byte[] read(int length) {
+		byte[] dst = new byte[length];
+		read(dst, 0, length);
+		return dst;
+	}
+
+
+	/**
+	 * reads and consumes bytes into the passed array
+	 * @param dst 		destination array
+	 * @param offset 	offset in the destination array
+	 * @param length 	number of bytes to read
+	 */
+	public void read(byte[] dst, int offset, int length) {
+		copyTo(dst, offset, length);
+		skip(length);
+	}
+
+
+	private void copyTo(byte[] dst, int offset, int length) {
+		int firstPart = Math.min(length, buffer.length - readPos);
+		System.arraycopy(buffer, readPos, dst, offset, firstPart);
+		System.arraycopy(buffer, 0, dst, offset + firstPart, length - firstPart);
+	}
+
+
+	/**
+	 * consumes the passed number of bytes without reading them
+	 * @param length 	number of bytes to skip
+	 */
+	public void skip(int length) {
+		if (length > size) {
+			throw new IndexOutOfBoundsException("cannot skip " + length + " bytes, only " + size + " readable");
+		}
+
+		size -= length;
+		readPos = size == 0 ? 0 : (readPos + length) & mask;
+	}
+
+
+	/**
+	 * searches the passed pattern in the readable bytes
+	 * @param pattern 		the byte sequence to search
+	 * @param fromIndex 	index relative to the read position where the search starts
+	 * @return 				index of the first byte of the pattern relative to the read position, -1 if not found
+	 */
+	public int indexOf(byte[] pattern, int fromIndex) {
+		int lastStart = size - pattern.length;
+		for (int i=Math.max(0, fromIndex); i<=lastStart; i++) {
+			if (matchesAt(pattern, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	private boolean matchesAt(byte[] pattern, int index) {
+		for (int j=0; j<pattern.length; j++) {
+			if (getByte(index + j) != pattern[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	private void ensureCapacity(int requiredCapacity) {
+		if (requiredCapacity <= buffer.length) {
+			return;
+		}
+
+		byte[] newBuffer = new byte[powerOfTwoCapacity(requiredCapacity)];
+		copyTo(newBuffer, 0, size);
+		buffer = newBuffer;
+		mask = newBuffer.length - 1;
+		readPos = 0;
+	}
+
+
+	/**
+	 * discards all readable bytes
+	 */
+	public void clear() {
+		readPos = 0;
+		size = 0;
+	}
+
+
+	public int readableBytes() {
+		return size;
+	}
+
+
+	public int capacity() {
+		return buffer.length;
+	}
+}
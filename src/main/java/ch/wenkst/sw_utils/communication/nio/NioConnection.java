@@ -0,0 +1,234 @@
+package ch.wenkst.sw_utils.communication.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public abstract class NioConnection {
+	private static final Logger logger = LoggerFactory.getLogger(NioConnection.class);
+
+	protected SocketChannel channel;
+	private NioEventLoop eventLoop = null;
+	private SelectionKey selectionKey = null;
+	private Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+	private boolean closing = false;
+	private long closeDeadline = 0;
+	private volatile boolean closed = false;
+	protected int closeTimeout = 5000;
+
+
+	/**
+	 * connection that is served by a nio event loop, all callbacks are executed on the thread of the event loop
+	 * @param channel 	the non-blocking socket channel of the connection
+	 */
+	public NioConnection(SocketChannel channel) {
+		this.channel = channel;
+	}
+
+
+	/**
+	 * called on the event loop thread once the channel is registered with the selector
+	 */
+	protected abstract void onOpen();
+
+
+	/**
+	 * called on the event loop thread when data was read from the channel, the buffer is only valid
+	 * during the call and is reused for the next read
+	 * @param data 		buffer that holds the received bytes between its position and limit
+	 */
+	protected abstract void onData(ByteBuffer data);
+
+
+	/**
+	 * called on the event loop thread after the channel was closed
+	 */
+	protected abstract void onClose();
+
+
+	void setEventLoop(NioEventLoop eventLoop) {
+		this.eventLoop = eventLoop;
+	}
+
+
+	void attach(SelectionKey key) {
+		if (closed) {
+			key.cancel();
+			return;
+		}
+
+		synchronized (pendingWrites) {
+			selectionKey = key;
+			if (!pendingWrites.isEmpty()) {
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+		onOpen();
+	}
+
+
+	/**
+	 * sends the passed data to the remote side, the data is written immediately if possible, the rest
+	 * is queued and written as soon as the channel is writable. can be called from any thread
+	 * @param data 		the data to send, the buffer must not be modified afterwards
+	 */
+	public void send(ByteBuffer data) {
+		if (closed) {
+			logger.error("connection is already closed, message is discarded");
+			return;
+		}
+
+		synchronized (pendingWrites) {
+			try {
+				if (pendingWrites.isEmpty() && selectionKey != null) {
+					channel.write(data);
+				}
+
+				if (data.hasRemaining()) {
+					pendingWrites.add(data);
+					enableWriteInterest();
+				}
+
+			} catch (IOException e) {
+				logger.error("error writing to the channel - close the connection: ", e);
+				close();
+			}
+		}
+	}
+
+
+	private void enableWriteInterest() {
+		if (selectionKey != null && selectionKey.isValid()) {
+			selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			selectionKey.selector().wakeup();
+		}
+	}
+
+
+	/**
+	 * writes the queued data to the channel, called by the event loop when the channel is writable
+	 * @throws IOException
+	 */
+	void flushPendingWrites() throws IOException {
+		synchronized (pendingWrites) {
+			while (!pendingWrites.isEmpty()) {
+				ByteBuffer data = pendingWrites.peek();
+				channel.write(data);
+				if (data.hasRemaining()) {
+					return;
+				}
+				pendingWrites.poll();
+			}
+
+			if (!closing) {
+				selectionKey.interestOps(SelectionKey.OP_READ);
+				return;
+			}
+		}
+		closeNow();
+	}
+
+
+	/**
+	 * closes the connection after the queued data was written, can be called from any thread
+	 */
+	public void close() {
+		if (eventLoop == null || eventLoop.inEventLoop()) {
+			closeGracefully();
+		} else {
+			eventLoop.execute(this::closeGracefully);
+		}
+	}
+
+
+	/**
+	 * closes the channel once the queued data is written, no more data is read in the meantime. the channel 
+	 * is closed at once if the event loop is stopping and at the latest after the close timeout. only called 
+	 * on the event loop thread
+	 */
+	void closeGracefully() {
+		synchronized (pendingWrites) {
+			if (closing) {
+				return;
+			}
+			
+			boolean loopStopping = eventLoop != null && !eventLoop.isRunning();
+			if (!closed && !loopStopping && !pendingWrites.isEmpty() && selectionKey != null && selectionKey.isValid()) {
+				closing = true;
+				closeDeadline = System.currentTimeMillis() + closeTimeout;
+				selectionKey.interestOps(SelectionKey.OP_WRITE);
+				eventLoop.addClosingConnection(this);
+				return;
+			}
+		}
+		closeNow();
+	}
+	
+	
+	/**
+	 * closes the channel if the queued data could not be written within the close timeout, e.g. because the 
+	 * remote side stopped reading. only called on the event loop thread
+	 * @param currentTime 	the current unix time in ms
+	 * @return 				true if the connection is closed
+	 */
+	boolean closeIfDrainExpired(long currentTime) {
+		if (!closed && currentTime >= closeDeadline) {
+			logger.info("queued data was not written within " + closeTimeout + " ms - close the connection");
+			closeNow();
+		}
+		return closed;
+	}
+
+
+	/**
+	 * closes the channel and informs the implementation, only called on the event loop thread
+	 */
+	void closeNow() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		if (selectionKey != null) {
+			selectionKey.cancel();
+		}
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.error("error closing the channel: ", e);
+		}
+
+		onClose();
+	}
+
+
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	
+	/**
+	 * sets the time that close() waits for the queued data to be written before the channel is closed anyway
+	 * @param closeTimeout 		the timeout in ms
+	 */
+	public void setCloseTimeout(int closeTimeout) {
+		this.closeTimeout = closeTimeout;
+	}
+
+
+	public SocketChannel getChannel() {
+		return channel;
+	}
+
+
+	public NioEventLoop getEventLoop() {
+		return eventLoop;
+	}
+}
@@ -0,0 +1,227 @@
+package ch.wenkst.sw_utils.communication.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.communication.buffer.BufferPool;
+import ch.wenkst.sw_utils.threads.BaseThread;
+
+public class NioEventLoop extends BaseThread {
+	private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
+
+	protected String loopName;
+	protected int selectTimeout = 1000;
+	protected int readBufferSize = 16384;
+	protected BufferPool bufferPool = BufferPool.shared();
+
+	private Selector selector;
+	private Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+	private List<NioConnection> closingConnections = new ArrayList<>();
+	private ByteBuffer readBuffer;
+	private volatile Thread loopThread = null;
+
+
+	/**
+	 * event loop that serves many non-blocking socket channels with one thread, all callbacks of the
+	 * registered connections are executed on this thread
+	 * @param loopName 		the name to identify the event loop
+	 * @throws IOException 	if the selector could not be opened
+	 */
+	public NioEventLoop(String loopName) throws IOException {
+		this.loopName = loopName;
+		this.selector = Selector.open();
+		setName(loopName);
+	}
+
+
+	/**
+	 * registers the passed connection with this event loop, the channel of the connection needs to be
+	 * in non-blocking mode. can be called from any thread
+	 * @param connection 	the connection to serve
+	 */
+	public void register(NioConnection connection) {
+		connection.setEventLoop(this);
+		execute(() -> registerChannel(connection));
+	}
+
+
+	private void registerChannel(NioConnection connection) {
+		try {
+			SocketChannel channel = connection.getChannel();
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+			connection.attach(key);
+
+		} catch (Exception e) {
+			logger.error(loopName + ": failed to register the channel: ", e);
+			connection.closeNow();
+		}
+	}
+
+
+	/**
+	 * executes the passed task on the event loop thread
+	 * @param task 		task to execute
+	 */
+	public void execute(Runnable task) {
+		pendingTasks.add(task);
+		selector.wakeup();
+	}
+
+
+	/**
+	 * returns true if the caller is running on the event loop thread
+	 * @return 		true if called from the event loop thread
+	 */
+	public boolean inEventLoop() {
+		return Thread.currentThread() == loopThread;
+	}
+
+
+	@Override
+	public void startWork() {
+		loopThread = Thread.currentThread();
+		readBuffer = bufferPool.acquire(readBufferSize);
+		logger.debug(loopName + ": event loop started");
+	}
+
+
+	@Override
+	public void doWork() {
+		try {
+			selector.select(selectTimeout);
+			runPendingTasks();
+			processSelectedKeys();
+			closeExpiredConnections();
+
+		} catch (Exception e) {
+			logger.error(loopName + ": error in the event loop: ", e);
+		}
+	}
+
+
+	private void runPendingTasks() {
+		Runnable task;
+		while ((task = pendingTasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (Exception e) {
+				logger.error(loopName + ": error executing an event loop task: ", e);
+			}
+		}
+	}
+
+
+	private void processSelectedKeys() {
+		Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+		while (iterator.hasNext()) {
+			SelectionKey key = iterator.next();
+			iterator.remove();
+			processKey(key);
+		}
+	}
+
+
+	private void processKey(SelectionKey key) {
+		NioConnection connection = (NioConnection) key.attachment();
+		try {
+			if (key.isValid() && key.isWritable()) {
+				connection.flushPendingWrites();
+			}
+
+			if (key.isValid() && key.isReadable()) {
+				readFromChannel(connection);
+			}
+
+		} catch (Exception e) {
+			logger.error(loopName + ": error processing the connection - close it: ", e);
+			connection.closeNow();
+		}
+	}
+
+
+	/**
+	 * adds a connection that waits until its queued data is written before it is closed, only called on
+	 * the event loop thread
+	 * @param connection 	the closing connection
+	 */
+	void addClosingConnection(NioConnection connection) {
+		closingConnections.add(connection);
+	}
+
+
+	/**
+	 * closes the connections whose queued data was not written within their close timeout
+	 */
+	private void closeExpiredConnections() {
+		if (closingConnections.isEmpty()) {
+			return;
+		}
+
+		long currentTime = System.currentTimeMillis();
+		closingConnections.removeIf(connection -> connection.closeIfDrainExpired(currentTime));
+	}
+
+
+	private void readFromChannel(NioConnection connection) throws IOException {
+		readBuffer.clear();
+		int len = connection.getChannel().read(readBuffer);
+		if (len > 0) {
+			readBuffer.flip();
+			connection.onData(readBuffer);
+
+		} else if (len < 0) {
+			logger.info(loopName + ": found socket closed - close the connection");
+			connection.closeNow();
+		}
+	}
+
+
+	@Override
+	public void terminateWork() {
+		runPendingTasks();
+
+		List<NioConnection> connections = new ArrayList<>();
+		for (SelectionKey key : selector.keys()) {
+			connections.add((NioConnection) key.attachment());
+		}
+		for (NioConnection connection : connections) {
+			connection.closeNow();
+		}
+		closingConnections.clear();
+
+		try {
+			selector.close();
+		} catch (IOException e) {
+			logger.error(loopName + ": error closing the selector: ", e);
+		}
+		
+		bufferPool.release(readBuffer);
+		readBuffer = null;
+		logger.debug(loopName + ": event loop stopped");
+	}
+
+
+	/**
+	 * stops the event loop, all registered connections are closed
+	 */
+	public void stopEventLoop() {
+		stopWorker();
+		selector.wakeup();
+	}
+
+
+	public String getLoopName() {
+		return loopName;
+	}
+}
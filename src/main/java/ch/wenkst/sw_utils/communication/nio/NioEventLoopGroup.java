@@ -0,0 +1,75 @@
+package ch.wenkst.sw_utils.communication.nio;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class NioEventLoopGroup {
+	private static final Logger logger = LoggerFactory.getLogger(NioEventLoopGroup.class);
+
+	private NioEventLoop[] eventLoops;
+	private AtomicInteger nextIndex = new AtomicInteger(0);
+
+
+	/**
+	 * a fixed number of event loops, new connections are distributed round robin to the loops
+	 * @param groupName 		the name of the group, the loops are named groupName-loop-i
+	 * @param loopCount 		number of event loops (threads)
+	 * @throws IOException 		if a selector could not be opened
+	 */
+	public NioEventLoopGroup(String groupName, int loopCount) throws IOException {
+		eventLoops = new NioEventLoop[Math.max(1, loopCount)];
+		for (int i=0; i<eventLoops.length; i++) {
+			eventLoops[i] = new NioEventLoop(groupName + "-loop-" + i);
+		}
+	}
+
+
+	/**
+	 * starts all event loops of the group
+	 */
+	public void start() {
+		for (NioEventLoop eventLoop : eventLoops) {
+			eventLoop.start();
+		}
+	}
+
+
+	/**
+	 * returns the event loop that should serve the next connection
+	 * @return 		the next event loop
+	 */
+	public NioEventLoop next() {
+		int index = Math.floorMod(nextIndex.getAndIncrement(), eventLoops.length);
+		return eventLoops[index];
+	}
+
+
+	/**
+	 * stops all event loops, all connections they serve are closed
+	 */
+	public void stop() {
+		for (NioEventLoop eventLoop : eventLoops) {
+			eventLoop.stopEventLoop();
+		}
+	}
+
+
+	/**
+	 * waits until all event loops are terminated
+	 * @throws InterruptedException
+	 */
+	public void join() throws InterruptedException {
+		for (NioEventLoop eventLoop : eventLoops) {
+			eventLoop.joinWorker();
+		}
+		logger.debug("all event loops of the group terminated");
+	}
+
+
+	public int getLoopCount() {
+		return eventLoops.length;
+	}
+}
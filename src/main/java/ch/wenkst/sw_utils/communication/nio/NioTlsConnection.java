@@ -0,0 +1,316 @@
+package ch.wenkst.sw_utils.communication.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLEngineResult.Status;
+import javax.net.ssl.SSLSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public abstract class NioTlsConnection extends NioConnection {
+	private static final Logger logger = LoggerFactory.getLogger(NioTlsConnection.class);
+	private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+	private SSLEngine engine;
+	private ByteBuffer netIn;
+	private ByteBuffer appIn;
+	private Object wrapLock = new Object();
+	private Queue<ByteBuffer> pendingAppData = new ArrayDeque<>();
+	private volatile boolean handshakeFinished = false;
+	private boolean closeNotifySent = false;
+
+
+	/**
+	 * tls connection that is served by a nio event loop, the handshake and the encryption of the records are
+	 * done by the ssl engine on the thread of the event loop. the data passed to send() is encrypted, data
+	 * that is sent before the handshake finished is queued
+	 * @param channel 	the non-blocking socket channel of the connection
+	 * @param engine 	the configured ssl engine of the connection
+	 */
+	public NioTlsConnection(SocketChannel channel, SSLEngine engine) {
+		super(channel);
+		this.engine = engine;
+
+		SSLSession session = engine.getSession();
+		netIn = ByteBuffer.allocate(session.getPacketBufferSize());
+		appIn = ByteBuffer.allocate(session.getApplicationBufferSize());
+	}
+
+
+	/**
+	 * called on the event loop thread once the tls handshake finished
+	 */
+	protected abstract void onHandshakeFinished();
+
+
+	/**
+	 * called on the event loop thread when application data was decrypted, the buffer is only valid
+	 * during the call and is reused for the next records
+	 * @param data 		buffer that holds the decrypted bytes between its position and limit
+	 */
+	protected abstract void onApplicationData(ByteBuffer data);
+
+
+	@Override
+	protected void onOpen() {
+		try {
+			engine.beginHandshake();
+			processHandshake(engine.getHandshakeStatus());
+
+		} catch (Exception e) {
+			logger.error("error starting the tls handshake - close the connection: ", e);
+			closeNow();
+		}
+	}
+
+
+	@Override
+	protected void onData(ByteBuffer data) {
+		try {
+			appendNetData(data);
+			unwrapNetData();
+
+		} catch (Exception e) {
+			logger.error("error in the tls connection - close it: ", e);
+			closeNow();
+		}
+	}
+
+
+	private void appendNetData(ByteBuffer data) {
+		if (netIn.remaining() < data.remaining()) {
+			netIn = enlarge(netIn, netIn.position() + data.remaining());
+		}
+		netIn.put(data);
+	}
+
+
+	/**
+	 * decrypts all complete records in the received bytes and drives the handshake
+	 * @throws IOException
+	 */
+	private void unwrapNetData() throws IOException {
+		netIn.flip();
+		try {
+			while (netIn.hasRemaining() && !isClosed()) {
+				SSLEngineResult result = engine.unwrap(netIn, appIn);
+				if (result.getStatus() == Status.BUFFER_OVERFLOW) {
+					appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+					continue;
+				}
+				if (result.getStatus() == Status.BUFFER_UNDERFLOW) {
+					return;
+				}
+
+				deliverApplicationData();
+				if (result.getStatus() == Status.CLOSED) {
+					logger.debug("tls close notify received - close the connection");
+					closeNow();
+					return;
+				}
+
+				processHandshake(result.getHandshakeStatus());
+				if (result.bytesConsumed() == 0 && result.bytesProduced() == 0 && engine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING) {
+					return;
+				}
+			}
+
+		} finally {
+			netIn.compact();
+		}
+	}
+
+
+	private void deliverApplicationData() {
+		appIn.flip();
+		if (appIn.hasRemaining()) {
+			onApplicationData(appIn);
+		}
+		appIn.clear();
+	}
+
+
+	/**
+	 * executes the handshake steps that do not need data from the remote side
+	 * @param status 		the current handshake status
+	 * @throws IOException
+	 */
+	private void processHandshake(HandshakeStatus status) throws IOException {
+		while (!isClosed()) {
+			switch (status) {
+				case NEED_TASK:
+					runDelegatedTasks();
+					status = engine.getHandshakeStatus();
+					break;
+
+				case NEED_WRAP:
+					SSLEngineResult result = wrapAndSend(EMPTY_BUFFER);
+					if (result.getStatus() == Status.CLOSED) {
+						closeNow();
+						return;
+					}
+					status = result.getHandshakeStatus();
+					break;
+
+				case FINISHED:
+					finishHandshake();
+					return;
+
+				default:
+					return;
+			}
+		}
+	}
+
+
+	/**
+	 * runs the expensive handshake tasks like the certificate validation on the event loop thread
+	 */
+	private void runDelegatedTasks() {
+		Runnable task;
+		while ((task = engine.getDelegatedTask()) != null) {
+			task.run();
+		}
+	}
+
+
+	private void finishHandshake() {
+		synchronized (wrapLock) {
+			if (handshakeFinished) {
+				return;
+			}
+			handshakeFinished = true;
+			logger.debug("tls handshake finished, protocol: " + engine.getSession().getProtocol());
+
+			ByteBuffer data;
+			while ((data = pendingAppData.poll()) != null) {
+				send(data);
+			}
+		}
+		onHandshakeFinished();
+	}
+
+
+	/**
+	 * encrypts the passed bytes to one record and sends it
+	 * @param src 		the bytes to encrypt between the position and the limit
+	 * @return 			the result of the ssl engine
+	 * @throws IOException
+	 */
+	private SSLEngineResult wrapAndSend(ByteBuffer src) throws IOException {
+		synchronized (wrapLock) {
+			ByteBuffer netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+			while (true) {
+				SSLEngineResult result = engine.wrap(src, netOut);
+				if (result.getStatus() == Status.BUFFER_OVERFLOW) {
+					netOut = enlarge(netOut, engine.getSession().getPacketBufferSize());
+					continue;
+				}
+
+				netOut.flip();
+				if (netOut.hasRemaining()) {
+					super.send(netOut);
+				}
+				return result;
+			}
+		}
+	}
+
+
+	/**
+	 * encrypts and sends the passed data, the data is queued if the handshake did not yet finish.
+	 * can be called from any thread
+	 * @param data 		the data to send, the buffer must not be modified afterwards
+	 */
+	@Override
+	public void send(ByteBuffer data) {
+		if (isClosed()) {
+			logger.error("connection is already closed, message is discarded");
+			return;
+		}
+
+		synchronized (wrapLock) {
+			if (!handshakeFinished) {
+				pendingAppData.add(data);
+				return;
+			}
+
+			try {
+				while (data.hasRemaining()) {
+					if (wrapAndSend(data).getStatus() == Status.CLOSED) {
+						logger.error("tls engine is closed, message is discarded");
+						return;
+					}
+				}
+
+			} catch (IOException e) {
+				logger.error("error encrypting the message - close the connection: ", e);
+				close();
+			}
+		}
+	}
+
+
+	/**
+	 * queues the tls close notify behind the pending records, the channel is closed once all of them are written
+	 */
+	@Override
+	void closeGracefully() {
+		sendCloseNotify();
+		super.closeGracefully();
+	}
+
+
+	/**
+	 * tries to send the tls close notify before the channel is closed immediately
+	 */
+	@Override
+	void closeNow() {
+		sendCloseNotify();
+		super.closeNow();
+	}
+
+
+	private void sendCloseNotify() {
+		if (!isClosed() && !closeNotifySent) {
+			closeNotifySent = true;
+			try {
+				engine.closeOutbound();
+				wrapAndSend(EMPTY_BUFFER);
+
+			} catch (Exception e) {
+				logger.debug("failed to send the tls close notify: " + e.getMessage());
+			}
+		}
+	}
+
+
+	private static ByteBuffer enlarge(ByteBuffer buffer, int minCapacity) {
+		ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(minCapacity, buffer.capacity() * 2));
+		buffer.flip();
+		newBuffer.put(buffer);
+		return newBuffer;
+	}
+
+
+	public boolean isHandshakeFinished() {
+		return handshakeFinished;
+	}
+
+
+	/**
+	 * returns the tls session of the connection, e.g. to read the certificates of the client
+	 * @return 		the ssl session
+	 */
+	public SSLSession getSslSession() {
+		return engine.getSession();
+	}
+}
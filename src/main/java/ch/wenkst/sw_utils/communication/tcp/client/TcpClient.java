@@ -2,11 +2,15 @@ package ch.wenkst.sw_utils.communication.tcp.client;
 
 import java.net.Socket;
 import java.net.SocketTimeoutException;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.wenkst.sw_utils.communication.buffer.ReadBuffer;
+import ch.wenkst.sw_utils.communication.framing.FramingException;
+import ch.wenkst.sw_utils.communication.framing.MessageFramer;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 
@@ -19,7 +23,9 @@ public abstract class TcpClient extends BaseThread {
 
 	protected Socket socket;
 	protected int socketTimeout = 2000;
-	protected byte[] inputBuffer = new byte[10000];
+	private ReadBuffer readBuffer = new ReadBuffer(10000);
+	protected byte[] inputBuffer = readBuffer.array();
+	protected MessageFramer framer = null;
 
 	
 	public TcpClient() {		
@@ -49,8 +55,7 @@ public abstract class TcpClient extends BaseThread {
 			int len = socket.getInputStream().read(inputBuffer);
 
 			if (len > 0) {
-				byte[] message = Arrays.copyOf(inputBuffer, len);
-				processMessage(message);
+				dispatchInput(len);
 
 			} else if (len < 0) {
 				logger.info(clientName + ": found tcp client socket closed - terminate session");
@@ -72,6 +77,49 @@ public abstract class TcpClient extends BaseThread {
 	protected abstract void processMessage(byte[] message);
 	
 	
+	/**
+	 * processes a message from the server without copying it, the buffer is only valid during the call
+	 * and is overwritten by the next read. the default implementation calls processMessage(byte[])
+	 * @param message 	buffer that holds the message between its position and limit
+	 * @param len 		the length of the message in bytes
+	 */
+	protected void processMessage(ByteBuffer message, int len) {
+		byte[] messageBytes = new byte[len];
+		message.get(messageBytes);
+		processMessage(messageBytes);
+	}
+	
+	
+	/**
+	 * processes a batch of complete frames that were received with one read, only called if a framer is set.
+	 * the default implementation calls processMessage(byte[]) for every frame in the received order
+	 * @param frames 	the complete frames
+	 */
+	protected void processFrames(List<byte[]> frames) {
+		for (byte[] frame : frames) {
+			processMessage(frame);
+		}
+	}
+	
+	
+	/**
+	 * passes the bytes in the input buffer to the framer if one is set or directly to processMessage()
+	 * @param len 		number of received bytes in the input buffer
+	 * @throws FramingException
+	 */
+	private void dispatchInput(int len) throws FramingException {
+		if (framer == null) {
+			processMessage(readBuffer.view(inputBuffer, len), len);
+			return;
+		}
+		
+		List<byte[]> frames = framer.decode(inputBuffer, 0, len);
+		if (!frames.isEmpty()) {
+			processFrames(frames);
+		}
+	}
+	
+	
 	
 	/**
 	 * creates the client socket of the proxy
@@ -137,6 +185,16 @@ public abstract class TcpClient extends BaseThread {
 	}
 
 
+	/**
+	 * sets a framer that reassembles the received bytes to complete frames before they are processed,
+	 * needs to be set before the client is started
+	 * @param framer 	the framer, null to process the bytes of every read directly
+	 */
+	public void setFramer(MessageFramer framer) {
+		this.framer = framer;
+	}
+	
+	
 	public Socket getSocket() {
 		return socket;
 	}
@@ -0,0 +1,160 @@
+package ch.wenkst.sw_utils.communication.tcp.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.nio.NioEventLoop;
+import ch.wenkst.sw_utils.communication.nio.NioEventLoopGroup;
+
+public abstract class NioTcpServer extends TcpServer {
+	private static final Logger logger = LoggerFactory.getLogger(NioTcpServer.class);
+
+	protected int eventLoopCount = Runtime.getRuntime().availableProcessors();
+	private ServerSocketChannel serverChannel = null;
+	private Selector acceptSelector = null;
+	private NioEventLoopGroup eventLoopGroup = null;
+
+
+	/**
+	 * non-blocking tcp server, the sessions are not run in their own thread but are served by a small
+	 * number of event loops. The sessions created in onNewConnection() are the same TcpSession implementations
+	 * as for the blocking TcpServer, calling start() on the session registers it with an event loop
+	 */
+	public NioTcpServer() {
+		super();
+	}
+
+
+	/**
+	 * initializes the non-blocking tcp server
+	 * @param port 				port on which the tcp server listens
+	 * @param serverName 		the name to identify the server
+	 * @param eventLoopCount 	the number of event loop threads that serve the sessions
+	 */
+	public void init(int port, String serverName, int eventLoopCount) {
+		init(port, serverName);
+		this.eventLoopCount = eventLoopCount;
+	}
+
+
+	@Override
+	public void doWork() {
+		try {
+			setHealthy(true);
+			acceptSelector.select(acceptTimeout);
+
+			Iterator<SelectionKey> iterator = acceptSelector.selectedKeys().iterator();
+			while (iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+				acceptConnections();
+			}
+
+		} catch (Exception e) {
+			logger.error(serverName + ": error in socket accept: ", e);
+			Utils.sleep(1000);
+		}
+	}
+
+
+	private void acceptConnections() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			logger.debug(serverName + ": server socket accept");
+			channel.configureBlocking(false);
+
+			ISession tcpSession = onNewConnection(this, channel.socket());
+			if (tcpSession != null) {
+				addToSessions(tcpSession);
+			} else {
+				channel.close();
+			}
+		}
+	}
+
+
+	/**
+	 * opens the non-blocking server channel and starts the event loops
+	 */
+	@Override
+	protected void openServer() {
+		logger.info(serverName + ": open a non-blocking tcp server on port " + port + " with " + eventLoopCount + " event loops");
+
+		try {
+			eventLoopGroup = new NioEventLoopGroup(serverName, eventLoopCount);
+			eventLoopGroup.start();
+
+			acceptSelector = Selector.open();
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.configureBlocking(false);
+			serverChannel.bind(new InetSocketAddress(port));
+			serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+			logger.info(serverName + ": server socket channel listening on port " + port);
+
+		} catch (Exception e) {
+			logger.error(serverName + ": failed to open server socket channel: ", e);
+		}
+	}
+
+
+	/**
+	 * closes the server channel, all sessions and stops the event loops
+	 */
+	@Override
+	protected void closeServer() {
+		try {
+			logger.info(serverName + " close the non-blocking tcp server, port: " + port);
+			serverChannel.close();
+			acceptSelector.close();
+
+		} catch (Exception e) {
+			logger.error(serverName + ": error closing the tcp-server channel: ", e);
+		}
+
+		logger.info(serverName + ": close all server sessions");
+		for (ISession session : sessionSnapshot()) {
+			session.stopSession();
+		}
+
+		if (eventLoopGroup != null) {
+			eventLoopGroup.stop();
+		}
+	}
+
+
+	private synchronized List<ISession> sessionSnapshot() {
+		return new ArrayList<>(sessions);
+	}
+
+
+	/**
+	 * returns the event loop that serves the next session
+	 * @return 		event loop for the next session
+	 */
+	NioEventLoop nextEventLoop() {
+		return eventLoopGroup.next();
+	}
+
+
+	/**
+	 * waits until all event loops of the server are terminated
+	 * @throws InterruptedException
+	 */
+	public void joinEventLoops() throws InterruptedException {
+		if (eventLoopGroup != null) {
+			eventLoopGroup.join();
+		}
+	}
+}
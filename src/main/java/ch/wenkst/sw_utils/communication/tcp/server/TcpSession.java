@@ -3,13 +3,20 @@ package ch.wenkst.sw_utils.communication.tcp.server;
 import java.io.IOException;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.buffer.BufferPool;
+import ch.wenkst.sw_utils.communication.buffer.ReadBuffer;
+import ch.wenkst.sw_utils.communication.framing.FramingException;
+import ch.wenkst.sw_utils.communication.framing.MessageFramer;
+import ch.wenkst.sw_utils.communication.nio.NioConnection;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 public abstract class TcpSession extends BaseThread  implements ISession {
@@ -21,7 +28,11 @@ public abstract class TcpSession extends BaseThread  implements ISession {
 	
 	protected Socket socket = null;
 	protected int socketTimeout = 2000;
-	protected byte[] inputBuffer = new byte[10000];
+	private ReadBuffer readBuffer = null;
+	protected byte[] inputBuffer = null;
+	protected MessageFramer framer = null;
+	private volatile NioConnection connection = null;
+	private final Object startLock = new Object();
 		
 	
 	/**
@@ -48,13 +59,33 @@ public abstract class TcpSession extends BaseThread  implements ISession {
 	}
 	
 	
+	/**
+	 * starts the session, if the owner is a non-blocking server the session is registered with one of its 
+	 * event loops instead of running in its own thread
+	 */
+	@Override
+	public void start() {
+		synchronized (startLock) {
+			SocketChannel channel = socket.getChannel();
+			if (owner instanceof NioTcpServer && channel != null) {
+				if (connection != null) {
+					throw new IllegalThreadStateException("session " + getName() + " was already started");
+				}
+				connection = new SessionConnection(channel);
+				((NioTcpServer) owner).nextEventLoop().register(connection);
+			} else {
+				super.start();
+			}
+		}
+	}
+	
+	
 	@Override
 	public void doWork() {
 		try {
-			int len = socket.getInputStream().read(inputBuffer);
+			int len = socket.getInputStream().read(inputBuffer());
 			if (len > 0) {
-				byte[] message = Arrays.copyOf(inputBuffer, len);
-				processMessage(message);
+				dispatchInput(len);
 
 			} else if (len < 0) {
 				logger.info(sessionName + ": found socket closed - terminate session");
@@ -70,15 +101,100 @@ public abstract class TcpSession extends BaseThread  implements ISession {
 	}
 	
 	
+	/**
+	 * returns the array to read into, the array is borrowed from the pool on the first blocking read so that
+	 * the sessions that are served by an event loop do not hold a read buffer
+	 * @return 		the input buffer
+	 */
+	private byte[] inputBuffer() {
+		if (inputBuffer == null) {
+			readBuffer = new ReadBuffer(BufferPool.sharedHeap(), 10000);
+			inputBuffer = readBuffer.array();
+		}
+		return inputBuffer;
+	}
+	
+	
 	/**
 	 * processes an incoming message form the server
 	 */
 	protected abstract void processMessage(byte[] message);
 	
 	
+	/**
+	 * processes an incoming message without copying it, the buffer is only valid during the call. the default
+	 * implementation calls processMessage(byte[]) with a copy of the bytes
+	 * @param message 	buffer that holds the message between its position and limit
+	 * @param len 		the length of the message in bytes
+	 */
+	protected void processMessage(ByteBuffer message, int len) {
+		byte[] messageBytes = new byte[len];
+		message.get(messageBytes);
+		processMessage(messageBytes);
+	}
+	
+	
+	/**
+	 * processes a batch of complete frames that were received with one read, only called if a framer is set.
+	 * the default implementation calls processMessage(byte[]) for every frame in the received order
+	 * @param frames 	the complete frames
+	 */
+	protected void processFrames(List<byte[]> frames) {
+		for (byte[] frame : frames) {
+			processMessage(frame);
+		}
+	}
+	
+	
+	/**
+	 * passes the bytes in the input buffer to the framer if one is set or directly to processMessage()
+	 * @param len 		number of received bytes in the input buffer
+	 * @throws FramingException
+	 */
+	private void dispatchInput(int len) throws FramingException {
+		if (framer == null) {
+			processMessage(readBuffer != null ? readBuffer.view(inputBuffer, len) : ByteBuffer.wrap(inputBuffer, 0, len), len);
+			return;
+		}
+		
+		List<byte[]> frames = framer.decode(inputBuffer, 0, len);
+		if (!frames.isEmpty()) {
+			processFrames(frames);
+		}
+	}
+	
+	
+	/**
+	 * passes the bytes read by the event loop to the framer if one is set or directly to processMessage()
+	 * @param data 		buffer holding the received bytes
+	 */
+	private void dispatchData(ByteBuffer data) {
+		if (framer == null) {
+			processMessage(data, data.remaining());
+			return;
+		}
+		
+		try {
+			List<byte[]> frames = framer.decode(data);
+			if (!frames.isEmpty()) {
+				processFrames(frames);
+			}
+			
+		} catch (FramingException e) {
+			logger.error(sessionName + ": invalid frame received - terminate session: ", e);
+			stopWorker();
+		}
+	}
+	
+	
 	@Override
 	public void terminateWork() {
 		close();
+		if (readBuffer != null) {
+			readBuffer.release();
+			readBuffer = null;
+			inputBuffer = null;
+		}
 		logger.info(sessionName + ": tcp session stopped");
 	}
 	
@@ -98,6 +214,11 @@ public abstract class TcpSession extends BaseThread  implements ISession {
 	 * @param message 	bytes to send
 	 */
 	public void sendMessage(byte[] message) {
+		if (connection != null) {
+			connection.send(ByteBuffer.wrap(message));
+			return;
+		}
+		
 		try {			
 			socket.getOutputStream().write(message);
 		
@@ -131,10 +252,61 @@ public abstract class TcpSession extends BaseThread  implements ISession {
 	@Override
 	public void stopSession() {
 		stopWorker();
+		if (connection != null) {
+			connection.close();
+		}
+	}
+	
+	
+	/**
+	 * returns true if the session is served by an event loop of a non-blocking server
+	 * @return 		true if the session is served by an event loop
+	 */
+	public boolean isEventLoopSession() {
+		return connection != null;
 	}
 
 
+	/**
+	 * sets a framer that reassembles the received bytes to complete frames before they are processed,
+	 * needs to be set before the session is started
+	 * @param framer 	the framer, null to process the bytes of every read directly
+	 */
+	public void setFramer(MessageFramer framer) {
+		this.framer = framer;
+	}
+	
+	
 	public long getCreationTime() {
 		return creationTime;
 	}
+	
+	
+	/**
+	 * connects the session to the event loop of a non-blocking server
+	 */
+	private class SessionConnection extends NioConnection {
+		public SessionConnection(SocketChannel channel) {
+			super(channel);
+		}
+
+		@Override
+		protected void onOpen() {
+			startWork();
+		}
+
+		@Override
+		protected void onData(ByteBuffer data) {
+			dispatchData(data);
+			
+			if (!isRunning()) {
+				close();
+			}
+		}
+
+		@Override
+		protected void onClose() {
+			terminateWork();
+		}
+	}
 }
@@ -2,14 +2,19 @@ package ch.wenkst.sw_utils.communication.tls.client;
 
 import java.net.SocketTimeoutException;
 import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.wenkst.sw_utils.crypto.tls.SSLContextGenerator;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 public abstract class TlsClient extends BaseThread {
@@ -23,6 +28,10 @@ public abstract class TlsClient extends BaseThread {
 	protected SSLSocket socket;
 	protected int socketTimeout = 2000;
 	protected byte[] inputBuffer = new byte[10000];
+	protected boolean sessionReuse = true;
+	private boolean sessionResumed = false;
+	private AtomicLong fullHandshakeCount = new AtomicLong(0);
+	private AtomicLong resumedHandshakeCount = new AtomicLong(0);
 
 	
 
@@ -102,13 +111,19 @@ public abstract class TlsClient extends BaseThread {
 			logger.debug(clientName + ": open a tls client socket, host: " + host + ", " + port);
 			
 			socket = null;
+			if (!sessionReuse) {
+				invalidateCachedSessions();
+			}
+			
 			SSLSocketFactory ssf = sslContext.getSocketFactory();
 			socket = (SSLSocket) ssf.createSocket(host, port);
 			socket.setSoTimeout(handshakeTimeout);
 			
 			logger.debug(clientName + ": start the handshake");
+			long handshakeStartTime = System.currentTimeMillis();
 			socket.startHandshake();
-			logger.debug(clientName + ": handshake finished");
+			recordHandshake(socket.getSession(), handshakeStartTime);
+			logger.debug(clientName + ": handshake finished, session resumed: " + sessionResumed);
 			socket.setSoTimeout(socketTimeout);
 			return true;
 
@@ -121,6 +136,31 @@ public abstract class TlsClient extends BaseThread {
 	
 	
 	
+	/**
+	 * removes the sessions to the server from the session cache of the ssl context
+	 */
+	private void invalidateCachedSessions() {
+		SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+		Enumeration<byte[]> sessionIds = sessionContext.getIds();
+		while (sessionIds.hasMoreElements()) {
+			SSLSession session = sessionContext.getSession(sessionIds.nextElement());
+			if (session != null && session.getPeerPort() == port && host.equals(session.getPeerHost())) {
+				session.invalidate();
+			}
+		}
+	}
+	
+	
+	private void recordHandshake(SSLSession session, long handshakeStartTime) {
+		sessionResumed = SSLContextGenerator.isResumedSession(session, handshakeStartTime);
+		if (sessionResumed) {
+			resumedHandshakeCount.incrementAndGet();
+		} else {
+			fullHandshakeCount.incrementAndGet();
+		}
+	}
+	
+	
 	/**
 	 * closes the tls client socket
 	 */
@@ -163,4 +203,42 @@ public abstract class TlsClient extends BaseThread {
 			logger.error(clientName + ": error writing to tls client socket: ", e);
 		}
 	}
+	
+	
+	/**
+	 * sets if the client tries to resume the session of the last connection when it connects again. the 
+	 * sessions are cached by the ssl context per host and port, a resumed handshake skips the certificate 
+	 * validation on both sides
+	 * @param sessionReuse 		false to force a full handshake on every connect
+	 */
+	public void setSessionReuse(boolean sessionReuse) {
+		this.sessionReuse = sessionReuse;
+	}
+	
+	
+	/**
+	 * returns true if the last connect resumed the session of a previous connection
+	 * @return 		true if the last handshake was resumed
+	 */
+	public boolean isSessionResumed() {
+		return sessionResumed;
+	}
+	
+	
+	/**
+	 * returns the number of handshakes that established a new session
+	 * @return 		number of full handshakes
+	 */
+	public long getFullHandshakeCount() {
+		return fullHandshakeCount.get();
+	}
+	
+	
+	/**
+	 * returns the number of handshakes that resumed a cached session
+	 * @return 		number of resumed handshakes
+	 */
+	public long getResumedHandshakeCount() {
+		return resumedHandshakeCount.get();
+	}
 }
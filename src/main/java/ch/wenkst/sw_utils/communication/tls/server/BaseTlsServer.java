@@ -0,0 +1,166 @@
+package ch.wenkst.sw_utils.communication.tls.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.crypto.tls.SSLContextGenerator;
+import ch.wenkst.sw_utils.threads.BaseThread;
+
+public abstract class BaseTlsServer extends BaseThread {
+	private static final Logger logger = LoggerFactory.getLogger(BaseTlsServer.class);
+	
+	protected int port;
+	protected String serverName;
+	protected boolean isHealthy = true;
+	
+	protected SSLContext sslContext;
+	protected boolean needClientAuth;
+	protected int acceptTimeout = 1000;
+	protected int readTimeout = 1000;
+	protected List<ISession> sessions;
+	private AtomicLong fullHandshakeCount = new AtomicLong(0);
+	private AtomicLong resumedHandshakeCount = new AtomicLong(0);
+	
+
+	/**
+	 * base of the tls servers that accept incoming tls client connections, it holds the sessions and the 
+	 * handshake counters. the TlsServer serves every session with its own ssl socket and the NioTlsServer 
+	 * serves the sessions with event loops
+	 */
+	public BaseTlsServer() {
+		sessions = new ArrayList<>();	
+	}
+	
+	
+	/**
+	 * initializes the ssl context configurator			
+	 * @param port 				the port on which the server is listening on
+	 * @param sslContext 		the ssl context
+	 * @param needClientAuth	true if the server should request the client certificate
+	 * @param serverName 		the name to identify the server
+	 */
+	public void init(int port, SSLContext sslContext, boolean needClientAuth, String serverName) {
+		this.port = port;
+		this.sslContext = sslContext;
+		this.needClientAuth = needClientAuth;
+		this.serverName = serverName;
+		
+		setName(serverName);
+	}
+
+
+
+	@Override
+	public void startWork() {
+		openServer();
+	}
+
+	
+	@Override
+	public void terminateWork() {
+		closeServer();
+	}
+	
+	
+	/**
+	 * opens the tls server
+	 * @return 		true if the server could be opened, false if an error occurred
+	 */
+	public abstract boolean openServer();
+	
+	
+	/**
+	 * closes the tls server and all its sessions
+	 */
+	protected abstract void closeServer();
+	
+
+	/**
+	 * stops the tls server
+	 */
+	public void stopServer() {		
+		logger.info(serverName + ": stop the tls server, port: " + port);
+		stopWorker();
+	}
+	
+	
+	/**
+	 * configures the cache of the sessions that the clients can resume, a resumed handshake does not validate
+	 * the client certificate again which makes reconnects considerably cheaper
+	 * @param cacheSize 		the maximal number of cached sessions, 0 for no limit
+	 * @param timeout 			the time in s after which a cached session can no longer be resumed, 0 for no limit
+	 */
+	public void setSessionCache(int cacheSize, int timeout) {
+		SSLContextGenerator.configureServerSessionCache(sslContext, cacheSize, timeout);
+	}
+	
+	
+	/**
+	 * counts a finished handshake of a session as resumed or full
+	 * @param session 				the tls session after the handshake
+	 * @param handshakeStartTime 	the unix time in ms at which the handshake started
+	 */
+	void recordHandshake(SSLSession session, long handshakeStartTime) {
+		if (SSLContextGenerator.isResumedSession(session, handshakeStartTime)) {
+			resumedHandshakeCount.incrementAndGet();
+		} else {
+			fullHandshakeCount.incrementAndGet();
+		}
+	}
+	
+	
+	/**
+	 * adds the passed session to the list of the server sessions
+	 * @param session	tls server session to add
+	 */
+	protected synchronized void addToSessions(ISession session) {
+		sessions.add(session);
+		logger.debug(serverName + ": server session added, session count: " + sessions.size());
+	}
+	
+	
+	/**
+	 * removes the passed session to the list of the server sessions
+	 * @param session 	tls server session to remove
+	 */
+	protected synchronized void removeFromSessions(ISession session) {
+		sessions.remove(session);
+		logger.debug(serverName + ": server session removed, remaining sessions: " + sessions.size());
+	}
+	
+
+	/**
+	 * returns the number of handshakes that established a new session
+	 * @return 		number of full handshakes
+	 */
+	public long getFullHandshakeCount() {
+		return fullHandshakeCount.get();
+	}
+	
+	
+	/**
+	 * returns the number of handshakes that resumed a cached session
+	 * @return 		number of resumed handshakes
+	 */
+	public long getResumedHandshakeCount() {
+		return resumedHandshakeCount.get();
+	}
+	
+
+	public boolean isHealthy() {
+		return isHealthy;
+	}
+
+
+	public void setHealthy(boolean isHealthy) {
+		this.isHealthy = isHealthy;
+	}	
+}
@@ -0,0 +1,246 @@
+package ch.wenkst.sw_utils.communication.tls.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.nio.NioEventLoop;
+import ch.wenkst.sw_utils.communication.nio.NioEventLoopGroup;
+
+public abstract class NioTlsServer extends BaseTlsServer {
+	private static final Logger logger = LoggerFactory.getLogger(NioTlsServer.class);
+
+	protected int eventLoopCount = Runtime.getRuntime().availableProcessors();
+	private ServerSocketChannel serverChannel = null;
+	private Selector acceptSelector = null;
+	private NioEventLoopGroup eventLoopGroup = null;
+	private long lastHandshakeCheck = 0;
+
+
+	/**
+	 * non-blocking tls server, the sessions do not run in their own thread and do not use blocking ssl sockets.
+	 * every connection gets an ssl engine and is served by one of a small number of event loops that do the
+	 * handshakes and the encryption. The sessions created in onNewConnection() are the same TlsSession
+	 * implementations as for the TlsServer, initialized with the channel and the engine
+	 */
+	public NioTlsServer() {
+		super();
+	}
+
+
+	/**
+	 * initializes the non-blocking tls server
+	 * @param port 				the port on which the server is listening on
+	 * @param sslContext 		the ssl context
+	 * @param needClientAuth	true if the server should request the client certificate
+	 * @param serverName 		the name to identify the server
+	 * @param eventLoopCount 	the number of event loop threads that serve the sessions
+	 */
+	public void init(int port, SSLContext sslContext, boolean needClientAuth, String serverName, int eventLoopCount) {
+		init(port, sslContext, needClientAuth, serverName);
+		this.eventLoopCount = eventLoopCount;
+	}
+
+
+	/**
+	 * gets called when a new client connected, the session needs to be initialized with the passed
+	 * channel and engine
+	 * @param owner 	the tls server that owns this session
+	 * @param channel 	the non-blocking channel to the client
+	 * @param engine 	the ssl engine of the connection in server mode
+	 * @return 			the tls server session
+	 */
+	protected abstract ISession onNewConnection(NioTlsServer owner, SocketChannel channel, SSLEngine engine);
+
+
+	@Override
+	public void doWork() {
+		try {
+			setHealthy(true);
+			acceptSelector.select(acceptTimeout);
+
+			Iterator<SelectionKey> iterator = acceptSelector.selectedKeys().iterator();
+			while (iterator.hasNext()) {
+				iterator.next();
+				iterator.remove();
+				acceptConnections();
+			}
+
+			closeExpiredHandshakes();
+
+		} catch (Exception e) {
+			logger.error(serverName + ": error in socket accept: ", e);
+			Utils.sleep(1000);
+		}
+	}
+
+
+	private void acceptConnections() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			logger.debug(serverName + ": server socket accept");
+			acceptConnection(channel);
+		}
+	}
+
+
+	/**
+	 * creates the session of an accepted connection, a connection that fails, e.g. because the client
+	 * already reset it, is closed without affecting the other connections of the accept batch
+	 * @param channel 		the accepted channel
+	 */
+	private void acceptConnection(SocketChannel channel) {
+		try {
+			channel.configureBlocking(false);
+			ISession tlsSession = onNewConnection(this, channel, createEngine(channel));
+			if (tlsSession != null) {
+				addToSessions(tlsSession);
+				return;
+			}
+
+		} catch (Exception e) {
+			logger.error(serverName + ": failed to create the session of an accepted connection - close it: ", e);
+		}
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.error(serverName + ": error closing the accepted channel: ", e);
+		}
+	}
+
+
+	/**
+	 * creates the ssl engine in server mode for the passed connection
+	 * @param channel 		the channel to the client
+	 * @return 				the ssl engine
+	 * @throws IOException
+	 */
+	protected SSLEngine createEngine(SocketChannel channel) throws IOException {
+		InetSocketAddress remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+		SSLEngine engine = sslContext.createSSLEngine(remoteAddress.getAddress().getHostAddress(), remoteAddress.getPort());
+		engine.setUseClientMode(false);
+		engine.setNeedClientAuth(needClientAuth);
+		return engine;
+	}
+
+
+	/**
+	 * closes the sessions whose handshake did not finish within the handshake timeout so that clients
+	 * that connect without completing the handshake cannot exhaust the server
+	 */
+	private void closeExpiredHandshakes() {
+		long currentTime = System.currentTimeMillis();
+		if (currentTime - lastHandshakeCheck < acceptTimeout) {
+			return;
+		}
+		lastHandshakeCheck = currentTime;
+
+		for (ISession session : sessionSnapshot()) {
+			if (session instanceof TlsSession && ((TlsSession) session).isHandshakeExpired()) {
+				logger.info(serverName + ": tls handshake timed out - close the session");
+				session.stopSession();
+			}
+		}
+	}
+
+
+	/**
+	 * opens the non-blocking server channel and starts the event loops
+	 * @return 		true if the server could be opened, false if an error occurred
+	 */
+	@Override
+	public boolean openServer() {
+		logger.info(serverName + ": open a non-blocking tls server on port " + port + " with " + eventLoopCount + " event loops");
+
+		try {
+			eventLoopGroup = new NioEventLoopGroup(serverName, eventLoopCount);
+			eventLoopGroup.start();
+
+			acceptSelector = Selector.open();
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.configureBlocking(false);
+			serverChannel.bind(new InetSocketAddress(port));
+			serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+			logger.info(serverName + ": server socket channel listening on port " + port);
+			return true;
+
+		} catch (Exception e) {
+			logger.error(serverName + ": failed to open server socket channel: ", e);
+			return false;
+		}
+	}
+
+
+	/**
+	 * closes the server channel, all sessions and stops the event loops
+	 */
+	@Override
+	protected void closeServer() {
+		try {
+			logger.info(serverName + " close the non-blocking tls server, port: " + port);
+			serverChannel.close();
+			acceptSelector.close();
+
+		} catch (Exception e) {
+			logger.error(serverName + ": error closing the tls-server channel: ", e);
+		}
+
+		logger.info(serverName + ": close all server sessions");
+		for (ISession session : sessionSnapshot()) {
+			session.stopSession();
+		}
+
+		if (eventLoopGroup != null) {
+			eventLoopGroup.stop();
+		}
+	}
+
+
+	private synchronized List<ISession> sessionSnapshot() {
+		return new ArrayList<>(sessions);
+	}
+
+
+	/**
+	 * returns the event loop that serves the next session
+	 * @return 		event loop for the next session
+	 */
+	NioEventLoop nextEventLoop() {
+		return eventLoopGroup.next();
+	}
+
+
+	/**
+	 * waits until all event loops of the server are terminated
+	 * @throws InterruptedException
+	 */
+	public void joinEventLoops() throws InterruptedException {
+		if (eventLoopGroup != null) {
+			eventLoopGroup.join();
+		}
+	}
+
+
+	/**
+	 * returns the number of sessions of the server
+	 * @return 		number of sessions
+	 */
+	public synchronized int getSessionCount() {
+		return sessions.size();
+	}
+}
@@ -1,28 +1,43 @@
 package ch.wenkst.sw_utils.communication.tls.server;
 
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.List;
 
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.buffer.BufferPool;
+import ch.wenkst.sw_utils.communication.buffer.ReadBuffer;
+import ch.wenkst.sw_utils.communication.framing.FramingException;
+import ch.wenkst.sw_utils.communication.framing.MessageFramer;
+import ch.wenkst.sw_utils.communication.nio.NioTlsConnection;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 public abstract class TlsSession extends BaseThread implements ISession {
 	private static final Logger logger = LoggerFactory.getLogger(TlsSession.class);
 	
-	protected TlsServer owner;
+	protected BaseTlsServer owner;
 	protected long creationTime;
 	protected String sessionName = "";
 	
 	protected SSLSocket socket = null;
 	protected int handshakeTimeout = 45000;
 	protected int socketTimeout = 2000;
-	protected byte[] inputBuffer = new byte[10000];
+	private ReadBuffer readBuffer = null;
+	protected byte[] inputBuffer = null;
+	protected MessageFramer framer = null;
+	private SocketChannel channel = null;
+	private SSLEngine engine = null;
+	private volatile NioTlsConnection connection = null;
+	private final Object startLock = new Object();
 		
 	
 	/**
@@ -48,12 +63,51 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	}
 	
 	
+	/**
+	 * server session for the non-blocking tls server, the handshake is done by the ssl engine on an event loop
+	 * @param owner 			the non-blocking tls server that owns this session
+	 * @param channel 			the non-blocking channel to the client
+	 * @param engine 			the ssl engine of the connection in server mode
+	 * @param sessionName 		the name of the tls session for identification
+	 */
+	public void init(BaseTlsServer owner, SocketChannel channel, SSLEngine engine, String sessionName) {
+		this.owner = owner;
+		this.channel = channel;
+		this.engine = engine;
+		this.sessionName = sessionName;
+		
+		setName(sessionName);
+	}
+	
+	
+	/**
+	 * starts the session, if the session was created with an ssl engine it is registered with one of the 
+	 * event loops of the non-blocking server instead of running in its own thread
+	 */
+	@Override
+	public void start() {
+		synchronized (startLock) {
+			if (owner instanceof NioTlsServer && engine != null) {
+				if (connection != null) {
+					throw new IllegalThreadStateException("session " + getName() + " was already started");
+				}
+				connection = new SessionConnection(channel, engine);
+				((NioTlsServer) owner).nextEventLoop().register(connection);
+			} else {
+				super.start();
+			}
+		}
+	}
+	
+	
 	@Override
 	public void startWork() {
 		try {
 			logger.debug(sessionName + ": start the handshake");
 			socket.setSoTimeout(handshakeTimeout);
+			long handshakeStartTime = System.currentTimeMillis();
 			socket.startHandshake();
+			owner.recordHandshake(socket.getSession(), handshakeStartTime);
 			logger.debug(sessionName + ": handshake finished");
 
 			socket.setSoTimeout(socketTimeout);
@@ -68,10 +122,9 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	@Override
 	public void doWork() {
 		try {
-			int len = socket.getInputStream().read(inputBuffer);
+			int len = socket.getInputStream().read(inputBuffer());
 			if (len > 0) {
-				byte[] message = Arrays.copyOf(inputBuffer, len);
-				processMessage(message);
+				dispatchInput(len);
 
 			} else if (len < 0) {
 				logger.info(sessionName + ": found socket closed - terminate session");
@@ -87,15 +140,100 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	}
 	
 	
+	/**
+	 * returns the array to read into, the array is borrowed from the pool on the first blocking read so that
+	 * the sessions that are served by an event loop do not hold a read buffer
+	 * @return 		the input buffer
+	 */
+	private byte[] inputBuffer() {
+		if (inputBuffer == null) {
+			readBuffer = new ReadBuffer(BufferPool.sharedHeap(), 10000);
+			inputBuffer = readBuffer.array();
+		}
+		return inputBuffer;
+	}
+	
+	
 	/**
 	 * processes an incoming message form the server
 	 */
 	protected abstract void processMessage(byte[] message);
 	
 	
+	/**
+	 * processes a decrypted message without copying it, the buffer is reused for the next read. the default
+	 * implementation calls processMessage(byte[]) with a copy of the bytes
+	 * @param message 	buffer that holds the message between its position and limit
+	 * @param len 		the length of the message in bytes
+	 */
+	protected void processMessage(ByteBuffer message, int len) {
+		byte[] messageBytes = new byte[len];
+		message.get(messageBytes);
+		processMessage(messageBytes);
+	}
+	
+	
+	/**
+	 * processes a batch of complete frames that were received with one read, only called if a framer is set.
+	 * the default implementation calls processMessage(byte[]) for every frame in the received order
+	 * @param frames 	the complete frames
+	 */
+	protected void processFrames(List<byte[]> frames) {
+		for (byte[] frame : frames) {
+			processMessage(frame);
+		}
+	}
+	
+	
+	/**
+	 * passes the bytes in the input buffer to the framer if one is set or directly to processMessage()
+	 * @param len 		number of received bytes in the input buffer
+	 * @throws FramingException
+	 */
+	private void dispatchInput(int len) throws FramingException {
+		if (framer == null) {
+			processMessage(readBuffer != null ? readBuffer.view(inputBuffer, len) : ByteBuffer.wrap(inputBuffer, 0, len), len);
+			return;
+		}
+		
+		List<byte[]> frames = framer.decode(inputBuffer, 0, len);
+		if (!frames.isEmpty()) {
+			processFrames(frames);
+		}
+	}
+	
+	
+	/**
+	 * passes the bytes decrypted by the event loop to the framer if one is set or directly to processMessage()
+	 * @param data 		buffer holding the decrypted bytes
+	 */
+	private void dispatchData(ByteBuffer data) {
+		if (framer == null) {
+			processMessage(data, data.remaining());
+			return;
+		}
+		
+		try {
+			List<byte[]> frames = framer.decode(data);
+			if (!frames.isEmpty()) {
+				processFrames(frames);
+			}
+			
+		} catch (FramingException e) {
+			logger.error(sessionName + ": invalid frame received - terminate session: ", e);
+			stopWorker();
+		}
+	}
+	
+	
 	@Override
 	public void terminateWork() {
 		close();
+		if (readBuffer != null) {
+			readBuffer.release();
+			readBuffer = null;
+			inputBuffer = null;
+		}
 		logger.info(sessionName + ": tls session stopped");
 	}
 	
@@ -115,6 +253,11 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	 * @param message 	bytes to send
 	 */
 	protected void sendMessage(byte[] message) {
+		if (connection != null) {
+			connection.send(ByteBuffer.wrap(message));
+			return;
+		}
+		
 		try {			
 			socket.getOutputStream().write(message);
 		
@@ -128,7 +271,9 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	protected void close() {
 		try {
 			logger.info(sessionName + ": close the server session");
-			socket.close();
+			if (socket != null) {
+				socket.close();
+			}
 
 		} catch (Exception e) {
 			logger.error(sessionName + ": error closing the socket: ", e);
@@ -142,10 +287,81 @@ public abstract class TlsSession extends BaseThread implements ISession {
 	@Override
 	public void stopSession() {
 		stopWorker();
+		if (connection != null) {
+			connection.close();
+		}
+	}
+	
+	
+	/**
+	 * returns true if the session is served by an event loop of a non-blocking server
+	 * @return 		true if the session is served by an event loop
+	 */
+	public boolean isEventLoopSession() {
+		return connection != null;
+	}
+	
+	
+	/**
+	 * returns true if the tls handshake of an event loop session did not finish within the handshake timeout
+	 * @return 		true if the handshake timed out
+	 */
+	public boolean isHandshakeExpired() {
+		return connection != null && !connection.isHandshakeFinished() && 
+				System.currentTimeMillis() - creationTime > handshakeTimeout;
+	}
+	
+	
+	/**
+	 * returns the tls session, e.g. to read the certificates of the client
+	 * @return 		the ssl session
+	 */
+	public SSLSession getSslSession() {
+		return connection != null ? connection.getSslSession() : socket.getSession();
 	}
 
 
+	/**
+	 * sets a framer that reassembles the received bytes to complete frames before they are processed,
+	 * needs to be set before the session is started
+	 * @param framer 	the framer, null to process the bytes of every read directly
+	 */
+	public void setFramer(MessageFramer framer) {
+		this.framer = framer;
+	}
+	
+	
 	public long getCreationTime() {
 		return creationTime;
 	}
+	
+	
+	/**
+	 * connects the session to the event loop of a non-blocking server
+	 */
+	private class SessionConnection extends NioTlsConnection {
+		public SessionConnection(SocketChannel channel, SSLEngine engine) {
+			super(channel, engine);
+		}
+
+		@Override
+		protected void onHandshakeFinished() {
+			owner.recordHandshake(getSslSession(), creationTime);
+			logger.debug(sessionName + ": handshake finished");
+		}
+
+		@Override
+		protected void onApplicationData(ByteBuffer data) {
+			dispatchData(data);
+			
+			if (!isRunning()) {
+				close();
+			}
+		}
+
+		@Override
+		protected void onClose() {
+			terminateWork();
+		}
+	}
 }
@@ -0,0 +1,107 @@
+package ch.wenkst.sw_utils.communication.udp;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class UdpEndpoint {
+	private static final Logger logger = LoggerFactory.getLogger(UdpEndpoint.class);
+	
+	public static final long DEFAULT_TTL = 60000;
+	
+	private String host;
+	private int port;
+	private long ttlNanos;
+	private volatile InetSocketAddress address;
+	private volatile long expiryTime;
+	
+	
+	/**
+	 * resolved address of a udp receiver, the host is resolved once and the address is reused until the
+	 * ttl expires. a failed refresh keeps the last resolved address
+	 * @param host 		the host name or ip of the receiver
+	 * @param port 		the port of the receiver
+	 * @param ttl 		time in ms after which the host is resolved again, -1 to never resolve it again
+	 * @throws UnknownHostException 	if the host cannot be resolved
+	 */
+	public UdpEndpoint(String host, int port, long ttl) throws UnknownHostException {
+		this.host = host;
+		this.port = port;
+		this.ttlNanos = ttl < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(ttl);
+		this.address = new InetSocketAddress(InetAddress.getByName(host), port);
+		this.expiryTime = System.nanoTime() + ttlNanos;
+	}
+	
+	
+	/**
+	 * resolved address of a udp receiver that is resolved again after the default ttl
+	 * @param host 		the host name or ip of the receiver
+	 * @param port 		the port of the receiver
+	 * @throws UnknownHostException 	if the host cannot be resolved
+	 */
+	public UdpEndpoint(String host, int port) throws UnknownHostException {
+		this(host, port, DEFAULT_TTL);
+	}
+	
+	
+	/**
+	 * endpoint of an already resolved address, e.g. the sender of a received datagram, it is never resolved again
+	 * @param address 	the address of the receiver
+	 */
+	public UdpEndpoint(InetSocketAddress address) {
+		this.host = address.getHostString();
+		this.port = address.getPort();
+		this.ttlNanos = -1;
+		this.address = address;
+	}
+	
+	
+	/**
+	 * returns the resolved address, the host is resolved again if the ttl is expired
+	 * @return 		the address of the receiver
+	 */
+	public InetSocketAddress getAddress() {
+		if (ttlNanos >= 0 && System.nanoTime() - expiryTime > 0) {
+			refresh();
+		}
+		return address;
+	}
+	
+	
+	private synchronized void refresh() {
+		if (System.nanoTime() - expiryTime <= 0) {
+			return;
+		}
+		
+		expiryTime = System.nanoTime() + ttlNanos;
+		try {
+			InetAddress inetAddress = InetAddress.getByName(host);
+			if (!inetAddress.equals(address.getAddress())) {
+				address = new InetSocketAddress(inetAddress, port);
+			}
+			
+		} catch (Exception e) {
+			logger.warn("failed to resolve the udp host " + host + ", keep the address " + address.getAddress() + ": " + e.getMessage());
+		}
+	}
+	
+	
+	public String getHost() {
+		return host;
+	}
+	
+	
+	public int getPort() {
+		return port;
+	}
+	
+	
+	@Override
+	public String toString() {
+		return host + ":" + port;
+	}
+}
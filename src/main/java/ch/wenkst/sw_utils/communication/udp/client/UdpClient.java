@@ -4,11 +4,14 @@ import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.Arrays;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.wenkst.sw_utils.communication.udp.UdpEndpoint;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 public abstract class UdpClient extends BaseThread {
@@ -20,6 +23,11 @@ public abstract class UdpClient extends BaseThread {
 
 	protected DatagramSocket socket = null;
 	protected InetAddress address = null;
+	private DatagramChannel channel = null;
+	private UdpEndpoint endpoint = null;
+	private ByteBuffer sendBuffer = ByteBuffer.allocateDirect(2048);
+	private Object sendLock = new Object();
+	protected long endpointTtl = UdpEndpoint.DEFAULT_TTL;
 	protected int socketTimeout = 2000;
 	protected byte[] inputBuffer = new byte[10000];
 	
@@ -79,8 +87,10 @@ public abstract class UdpClient extends BaseThread {
 		logger.info(clientName +  ": open a udp socket to host: " + host + ", " + port);
 		
 		try {
-			socket = new DatagramSocket();
-			address = InetAddress.getByName(host);
+			endpoint = new UdpEndpoint(host, port, endpointTtl);
+			address = endpoint.getAddress().getAddress();
+			channel = DatagramChannel.open();
+			socket = channel.socket();
 			socket.setSoTimeout(socketTimeout);
 			return true;
 
@@ -123,18 +133,47 @@ public abstract class UdpClient extends BaseThread {
 
 	
 	/**
-	 * sends the passed message to the server
+	 * sends the passed message to the server, the message is copied into a reusable direct buffer
 	 * @param message 	bytes to send to the server
 	 */
 	public void sendMessage(byte[] message) {
+		synchronized (sendLock) {
+			if (sendBuffer.capacity() < message.length) {
+				sendBuffer = ByteBuffer.allocateDirect(message.length);
+			}
+			
+			sendBuffer.clear();
+			sendBuffer.put(message);
+			sendBuffer.flip();
+			sendMessage(sendBuffer);
+		}
+	}
+	
+	
+	/**
+	 * sends the passed message to the server, the address of the server is resolved again after the 
+	 * ttl of the endpoint expired
+	 * @param message 	the message between the position and the limit of the buffer
+	 * @return 			true if the message was sent
+	 */
+	public boolean sendMessage(ByteBuffer message) {
 		try {
-			DatagramPacket packet = new DatagramPacket(message, message.length, address, port);
-			socket.send(packet);
+			return channel.send(message, endpoint.getAddress()) > 0;
 		
 		} catch (Exception e) {
 			logger.error(clientName + ": error writing to the udp socket: ", e);
+			return false;
 		}
 	}
+	
+	
+	/**
+	 * sets the time after which the host of the server is resolved again, needs to be called before connect
+	 * @param endpointTtl 		ttl in ms, -1 to never resolve the host again
+	 */
+	public void setEndpointTtl(long endpointTtl) {
+		this.endpointTtl = endpointTtl;
+	}
 
 
 	public DatagramSocket getSocket() {
@@ -0,0 +1,342 @@
+package ch.wenkst.sw_utils.communication.udp.server;
+
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.threads.BaseThread;
+
+public abstract class NioUdpServer extends UdpServer {
+	private static final Logger logger = LoggerFactory.getLogger(NioUdpServer.class);
+
+	public static final int DEFAULT_RING_CAPACITY = 1024;
+	public static final int DEFAULT_MAX_DATAGRAM_SIZE = 2048;
+
+	protected int workerCount = Runtime.getRuntime().availableProcessors();
+	protected int ringCapacity = DEFAULT_RING_CAPACITY;
+	protected int maxDatagramSize = DEFAULT_MAX_DATAGRAM_SIZE;
+	protected int shardCount = 1;
+
+	private UdpShard[] shards = new UdpShard[0];
+	private ShardReader[] shardReaders = new ShardReader[0];
+	private AtomicLong sendFailedCount = new AtomicLong(0);
+
+
+	/**
+	 * high-throughput udp server, a non-blocking datagram channel is drained into a bounded ring of direct
+	 * buffers and the received datagrams are processed by a pool of worker threads. the receive thread never
+	 * waits for a handler, if the ring is full the datagram is dropped and counted instead of letting the
+	 * kernel drop datagrams unnoticed. the datagrams of one client can be processed concurrently and out of order
+	 */
+	public NioUdpServer() {
+		super();
+	}
+
+
+	/**
+	 * initializes the non-blocking udp server
+	 * @param port 				port on which the udp server listens
+	 * @param serverName 		the name to identify the server
+	 * @param workerCount 		the number of threads that process the received datagrams
+	 * @param ringCapacity 		the maximal number of received datagrams per shard that wait to be processed
+	 * @param maxDatagramSize 	the maximal size of a datagram in bytes, longer datagrams are truncated
+	 */
+	public void init(int port, String serverName, int workerCount, int ringCapacity, int maxDatagramSize) {
+		init(port, serverName);
+		this.workerCount = Math.max(1, workerCount);
+		this.ringCapacity = Math.max(1, ringCapacity);
+		this.maxDatagramSize = maxDatagramSize;
+	}
+
+
+	/**
+	 * sets the number of sockets that are bound to the port with SO_REUSEPORT, every socket has its own
+	 * reader thread, ring and workers and the kernel spreads the flows of the clients across the sockets.
+	 * if the platform does not support SO_REUSEPORT a single socket is opened. needs to be called before
+	 * the server is started
+	 * @param shardCount 	the number of sockets
+	 */
+	public void setShardCount(int shardCount) {
+		this.shardCount = Math.max(1, shardCount);
+	}
+
+
+	@Override
+	public void doWork() {
+		try {
+			setHealthy(true);
+			shards[0].receive(readTimeout);
+
+		} catch (Exception e) {
+			logger.error(serverName + ": udp server channel error, terminate the server: ", e);
+			stopServer();
+		}
+	}
+
+
+	/**
+	 * processes one received datagram, called by the workers of the shards
+	 * @param message 		buffer that holds the datagram between its position and limit
+	 * @param sender 		the address of the sender
+	 */
+	void processDatagram(ByteBuffer message, InetSocketAddress sender) {
+		try {
+			processMessage(message, message.remaining(), sender.getAddress(), sender.getPort());
+
+		} catch (Exception e) {
+			logger.error(serverName + ": uncaught exception in the processing of a datagram: ", e);
+		}
+	}
+
+
+	/**
+	 * sends a message through the server channel, the message is dropped if the send buffer of the
+	 * socket is full
+	 * @param message 		the message between the position and the limit of the buffer
+	 * @param target 		the address of the receiver
+	 * @return 				true if the message was sent
+	 */
+	@Override
+	public boolean sendMessage(ByteBuffer message, InetSocketAddress target) {
+		try {
+			if (shards[0].send(message, target) > 0) {
+				return true;
+			}
+			sendFailedCount.incrementAndGet();
+
+		} catch (Exception e) {
+			sendFailedCount.incrementAndGet();
+			logger.error(serverName + ": error writing to the udp channel: ", e);
+		}
+		return false;
+	}
+
+
+	/**
+	 * sends multiple messages to the same receiver without allocating per message
+	 * @param messages 		the messages between the position and the limit of the buffers
+	 * @param target 		the address of the receiver
+	 * @return 				the number of messages that were sent
+	 */
+	public int sendMessages(ByteBuffer[] messages, InetSocketAddress target) {
+		int sentCount = 0;
+		for (ByteBuffer message : messages) {
+			if (sendMessage(message, target)) {
+				sentCount++;
+			}
+		}
+		return sentCount;
+	}
+
+
+	/**
+	 * opens the non-blocking datagram channels, allocates the rings and starts the workers. the first shard
+	 * is read by the server thread, every other shard by its own reader thread
+	 * @return 		true if the server could be opened, false if an error occurred
+	 */
+	@Override
+	protected boolean openServer() {
+		int socketCount = shardCount;
+		if (socketCount > 1 && !isReusePortSupported()) {
+			logger.warn(serverName + ": SO_REUSEPORT is not supported, open a single udp socket");
+			socketCount = 1;
+		}
+
+		logger.info(serverName + ": open a non-blocking udp server on port " + port + " with " + socketCount + " sockets and " + workerCount + " workers");
+		int workersPerShard = Math.max(1, (workerCount + socketCount - 1) / socketCount);
+		shards = new UdpShard[socketCount];
+		shardReaders = new ShardReader[socketCount - 1];
+
+		try {
+			for (int i=0; i<socketCount; i++) {
+				shards[i] = new UdpShard(this, serverName + "-shard-" + i, ringCapacity, maxDatagramSize, workersPerShard);
+				shards[i].open(port, socketCount > 1);
+			}
+
+			for (int i=0; i<shardReaders.length; i++) {
+				shardReaders[i] = new ShardReader(shards[i + 1], serverName + "-reader-" + (i + 1));
+				shardReaders[i].start();
+			}
+
+			logger.info(serverName + ": udp server channel listening on port " + port);
+			return true;
+
+		} catch (Exception e) {
+			logger.error(serverName + ": error opening the udp server channel: ", e);
+			return false;
+		}
+	}
+
+
+	/**
+	 * returns true if the datagram channels of the platform support SO_REUSEPORT
+	 * @return 		true if multiple sockets can be bound to the same port
+	 */
+	public static boolean isReusePortSupported() {
+		try (DatagramChannel channel = DatagramChannel.open()) {
+			return channel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+
+		} catch (Exception e) {
+			logger.error("error opening a datagram channel to check the SO_REUSEPORT support: ", e);
+			return false;
+		}
+	}
+
+
+	/**
+	 * closes the channels and stops the reader threads and workers, datagrams that were not yet processed
+	 * are discarded
+	 */
+	@Override
+	public void terminateWork() {
+		logger.info(serverName + " close the udp server channels, port: " + port);
+		for (ShardReader shardReader : shardReaders) {
+			if (shardReader != null) {
+				shardReader.stopReader();
+			}
+		}
+
+		for (UdpShard shard : shards) {
+			if (shard != null) {
+				shard.close();
+			}
+		}
+	}
+
+
+	/**
+	 * waits until all reader threads and workers of the server are terminated
+	 * @throws InterruptedException
+	 */
+	public void joinWorkers() throws InterruptedException {
+		for (ShardReader shardReader : shardReaders) {
+			if (shardReader != null) {
+				shardReader.joinWorker();
+			}
+		}
+
+		for (UdpShard shard : shards) {
+			if (shard != null) {
+				shard.joinWorkers();
+			}
+		}
+	}
+
+
+	/**
+	 * returns the number of datagrams that were read from the channels, including the dropped ones
+	 * @return 		number of received datagrams
+	 */
+	public long getReceivedCount() {
+		long receivedCount = 0;
+		for (UdpShard shard : shards) {
+			receivedCount += shard.getReceivedCount();
+		}
+		return receivedCount;
+	}
+
+
+	/**
+	 * returns the number of datagrams that were dropped because the ring was full
+	 * @return 		number of dropped datagrams
+	 */
+	public long getDroppedCount() {
+		long droppedCount = 0;
+		for (UdpShard shard : shards) {
+			droppedCount += shard.getDroppedCount();
+		}
+		return droppedCount;
+	}
+
+
+	/**
+	 * returns the number of receive batches in which a reader found the ring full
+	 * @return 		number of full ring events
+	 */
+	public long getQueueFullCount() {
+		long queueFullCount = 0;
+		for (UdpShard shard : shards) {
+			queueFullCount += shard.getQueueFullCount();
+		}
+		return queueFullCount;
+	}
+
+
+	/**
+	 * returns the number of messages that could not be sent
+	 * @return 		number of failed sends
+	 */
+	public long getSendFailedCount() {
+		return sendFailedCount.get();
+	}
+
+
+	/**
+	 * returns the number of received datagrams that wait to be processed
+	 * @return 		number of pending datagrams
+	 */
+	public int getPendingCount() {
+		int pendingCount = 0;
+		for (UdpShard shard : shards) {
+			pendingCount += shard.getPendingCount();
+		}
+		return pendingCount;
+	}
+
+
+	/**
+	 * returns the number of sockets the server opened
+	 * @return 		number of shards
+	 */
+	public int getOpenShardCount() {
+		return shards.length;
+	}
+
+
+	private class ShardReader extends BaseThread {
+		private UdpShard shard;
+
+
+		private ShardReader(UdpShard shard, String name) {
+			super(0);
+			setName(name);
+			this.shard = shard;
+		}
+
+
+		@Override
+		public void doWork() {
+			try {
+				shard.receive(readTimeout);
+
+			} catch (Exception e) {
+				if (isRunning()) {
+					logger.error(getName() + ": udp channel error, stop the reader: ", e);
+				}
+				stopWorker();
+			}
+		}
+
+
+		private void stopReader() {
+			stopWorker();
+		}
+
+
+		@Override
+		public void startWork() {
+
+		}
+
+
+		@Override
+		public void terminateWork() {
+
+		}
+	}
+}
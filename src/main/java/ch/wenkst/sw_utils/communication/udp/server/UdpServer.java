@@ -3,24 +3,38 @@ package ch.wenkst.sw_utils.communication.udp.server;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketTimeoutException;
-import java.util.Arrays;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.wenkst.sw_utils.communication.buffer.ReadBuffer;
+import ch.wenkst.sw_utils.communication.udp.UdpEndpoint;
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 public abstract class UdpServer extends BaseThread {
 	private static final Logger logger = LoggerFactory.getLogger(UdpServer.class);
+	private static final int MAX_CACHED_ENDPOINTS = 4096;
+	private static final ThreadLocal<ByteBuffer> sendBuffers = new ThreadLocal<>();
 	
 	protected int port;
 	protected String serverName;
 	private boolean isHealthy = true;
 	
 	protected DatagramSocket serverSocket = null;
+	private DatagramChannel channel = null;
+	protected long endpointTtl = UdpEndpoint.DEFAULT_TTL;
+	private Map<String, UdpEndpoint> endpoints = new ConcurrentHashMap<>();
 	protected int readTimeout = 1000;
-	protected byte[] inputBuffer = new byte[10000];
+	private ReadBuffer readBuffer = new ReadBuffer(10000);
+	protected byte[] inputBuffer = readBuffer.array();
+	private DatagramPacket receivePacket = null;
 	
 	
 	/**
@@ -40,12 +54,11 @@ public abstract class UdpServer extends BaseThread {
 	public void doWork() {
 		try {
 			isHealthy = true;
-			DatagramPacket packet = new DatagramPacket(inputBuffer, inputBuffer.length);
+			DatagramPacket packet = receivePacket();
 			serverSocket.receive(packet);
 			
 			int len = packet.getLength();
-			byte[] message = Arrays.copyOf(inputBuffer, len);
-			processMessage(message, packet.getAddress(), packet.getPort());
+			processMessage(readBuffer.view(inputBuffer, len), len, packet.getAddress(), packet.getPort());
 
 		} catch (SocketTimeoutException ex) {
 
@@ -56,18 +69,115 @@ public abstract class UdpServer extends BaseThread {
 	}
 	
 	
+	/**
+	 * returns the reusable packet to receive the next datagram into the input buffer
+	 * @return 		the receive packet
+	 */
+	private DatagramPacket receivePacket() {
+		if (receivePacket == null || receivePacket.getData() != inputBuffer) {
+			receivePacket = new DatagramPacket(inputBuffer, inputBuffer.length);
+		}
+		receivePacket.setLength(inputBuffer.length);
+		return receivePacket;
+	}
+	
+	
+	/**
+	 * sends a message to the passed host, the resolved address of the host is cached
+	 * @param message 		the message to send
+	 * @param host 			the host name or ip of the receiver
+	 * @param remotePort 	the port of the receiver
+	 */
 	public void sendMessage(byte[] message, String host, int remotePort) {
 		try {
-			InetAddress address= InetAddress.getByName(host);
-			DatagramPacket packet = new DatagramPacket(message, message.length, address, remotePort);
-			serverSocket.send(packet);
+			sendMessage(message, endpoint(host, remotePort));
+		
+		} catch (Exception e) {
+			logger.error(serverName + ": error resolving the udp receiver " + host + ": ", e);
+		}
+	}
+	
+	
+	/**
+	 * sends a message to the passed endpoint, the message is copied into a reusable direct buffer of the 
+	 * calling thread so that the send does not allocate
+	 * @param message 		the message to send
+	 * @param endpoint 		the receiver of the message
+	 * @return 				true if the message was sent
+	 */
+	public boolean sendMessage(byte[] message, UdpEndpoint endpoint) {
+		ByteBuffer sendBuffer = sendBuffer(message.length);
+		sendBuffer.put(message);
+		sendBuffer.flip();
+		return sendMessage(sendBuffer, endpoint.getAddress());
+	}
+	
+	
+	/**
+	 * sends a message through the server channel
+	 * @param message 		the message between the position and the limit of the buffer
+	 * @param target 		the address of the receiver
+	 * @return 				true if the message was sent
+	 */
+	public boolean sendMessage(ByteBuffer message, InetSocketAddress target) {
+		try {
+			return channel.send(message, target) > 0;
 		
 		} catch (Exception e) {
 			logger.error(serverName + ": error writing to the udp socket: ", e);
+			return false;
 		}
 	}
 	
 	
+	/**
+	 * returns the cleared send buffer of the calling thread with at least the passed capacity
+	 * @param minCapacity 		the minimal capacity in bytes
+	 * @return 					the send buffer
+	 */
+	private static ByteBuffer sendBuffer(int minCapacity) {
+		ByteBuffer sendBuffer = sendBuffers.get();
+		if (sendBuffer == null || sendBuffer.capacity() < minCapacity) {
+			sendBuffer = ByteBuffer.allocateDirect(Math.max(2048, minCapacity));
+			sendBuffers.set(sendBuffer);
+		}
+		sendBuffer.clear();
+		return sendBuffer;
+	}
+	
+	
+	/**
+	 * returns the cached endpoint of the passed receiver, the host is only resolved when the endpoint
+	 * is created and after the ttl of the endpoint expired
+	 * @param host 			the host name or ip of the receiver
+	 * @param remotePort 	the port of the receiver
+	 * @return 				the endpoint of the receiver
+	 * @throws UnknownHostException 	if the host cannot be resolved
+	 */
+	public UdpEndpoint endpoint(String host, int remotePort) throws UnknownHostException {
+		String key = host + ":" + remotePort;
+		UdpEndpoint endpoint = endpoints.get(key);
+		if (endpoint == null) {
+			if (endpoints.size() >= MAX_CACHED_ENDPOINTS) {
+				endpoints.clear();
+			}
+			endpoint = new UdpEndpoint(host, remotePort, endpointTtl);
+			endpoints.put(key, endpoint);
+		}
+		return endpoint;
+	}
+	
+	
+	/**
+	 * sets the time after which the hosts of the cached endpoints are resolved again
+	 * @param endpointTtl 		ttl in ms, -1 to never resolve a host again
+	 */
+	public void setEndpointTtl(long endpointTtl) {
+		this.endpointTtl = endpointTtl;
+		endpoints.clear();
+	}
+	
+	
 	/**
 	 * process a received udp message
 	 * @param message 		the udp message
@@ -77,6 +187,22 @@ public abstract class UdpServer extends BaseThread {
 	protected abstract void processMessage(byte[] message, InetAddress address, int remotePort);
 	
 	
+	/**
+	 * process a received udp message, the buffer is only valid during the call and is reused for the next 
+	 * datagram. override this method to process the messages without allocating a new array per datagram, 
+	 * the default implementation copies the bytes and calls processMessage(byte[], InetAddress, int)
+	 * @param message 		buffer that holds the udp message between its position and limit
+	 * @param len 			the length of the message in bytes
+	 * @param address 		the address of the connected client
+	 * @param remotePort 	the remote client port
+	 */
+	protected void processMessage(ByteBuffer message, int len, InetAddress address, int remotePort) {
+		byte[] messageBytes = new byte[len];
+		message.get(messageBytes);
+		processMessage(messageBytes, address, remotePort);
+	}
+	
+	
 	@Override
 	public void startWork() {
 		boolean isOpen = openServer();
@@ -107,7 +233,9 @@ public abstract class UdpServer extends BaseThread {
 		logger.info(serverName + ": open a udp server on port " + port);
 		
 		try {
-			serverSocket = new DatagramSocket(port);
+			channel = DatagramChannel.open();
+			channel.bind(new InetSocketAddress(port));
+			serverSocket = channel.socket();
 			serverSocket.setSoTimeout(readTimeout);
 			logger.info(serverName + ": udp server socket listening on port " + port);
 			return true;
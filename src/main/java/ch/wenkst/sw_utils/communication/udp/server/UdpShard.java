@@ -0,0 +1,294 @@
+package ch.wenkst.sw_utils.communication.udp.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.threads.BaseThread;
+
+class UdpShard {
+	private static final Logger logger = LoggerFactory.getLogger(UdpShard.class);
+
+	private static final int RECEIVE_BATCH_SIZE = 256;
+
+	private NioUdpServer server;
+	private String shardName;
+	private DatagramChannel channel = null;
+	private Selector selector = null;
+	private BlockingQueue<DatagramSlot> freeSlots;
+	private BlockingQueue<DatagramSlot> receivedSlots;
+	private ByteBuffer discardBuffer;
+	private UdpWorker[] workers;
+
+	private AtomicLong receivedCount = new AtomicLong(0);
+	private AtomicLong droppedCount = new AtomicLong(0);
+	private AtomicLong queueFullCount = new AtomicLong(0);
+
+
+	/**
+	 * one socket of the non-blocking udp server with its own ring and workers. the counters of a shard are
+	 * only written by the thread that receives from its channel
+	 * @param server 			the server that processes the datagrams
+	 * @param shardName 		the name of the shard, the workers are named shardName-worker-i
+	 * @param ringCapacity 		the maximal number of received datagrams that wait to be processed
+	 * @param maxDatagramSize 	the maximal size of a datagram in bytes, longer datagrams are truncated
+	 * @param workerCount 		the number of threads that process the datagrams of the shard
+	 */
+	UdpShard(NioUdpServer server, String shardName, int ringCapacity, int maxDatagramSize, int workerCount) {
+		this.server = server;
+		this.shardName = shardName;
+		createRing(ringCapacity, maxDatagramSize);
+		workers = new UdpWorker[workerCount];
+	}
+
+
+	/**
+	 * allocates the direct buffers of all slots in one block, the slots are never reallocated
+	 */
+	private void createRing(int ringCapacity, int maxDatagramSize) {
+		freeSlots = new ArrayBlockingQueue<>(ringCapacity);
+		receivedSlots = new ArrayBlockingQueue<>(ringCapacity);
+
+		ByteBuffer block = ByteBuffer.allocateDirect(ringCapacity * maxDatagramSize);
+		for (int i=0; i<ringCapacity; i++) {
+			block.limit((i + 1) * maxDatagramSize);
+			block.position(i * maxDatagramSize);
+			freeSlots.offer(new DatagramSlot(block.slice()));
+		}
+		discardBuffer = ByteBuffer.allocateDirect(maxDatagramSize);
+	}
+
+
+	/**
+	 * opens the non-blocking channel of the shard and starts its workers
+	 * @param port 				the port to bind
+	 * @param reusePort 		true to bind the port with SO_REUSEPORT so that other shards can bind it as well
+	 * @throws IOException
+	 */
+	void open(int port, boolean reusePort) throws IOException {
+		selector = Selector.open();
+		channel = DatagramChannel.open();
+		channel.configureBlocking(false);
+		if (reusePort) {
+			channel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+		}
+		channel.bind(new InetSocketAddress(port));
+		channel.register(selector, SelectionKey.OP_READ);
+
+		for (int i=0; i<workers.length; i++) {
+			workers[i] = new UdpWorker(shardName + "-worker-" + i, server.readTimeout);
+			workers[i].start();
+		}
+	}
+
+
+	/**
+	 * waits until datagrams are pending and drains them into free slots of the ring, at most one batch
+	 * is received per wakeup
+	 * @param timeout 		the maximal time to wait for datagrams in ms
+	 * @throws IOException
+	 */
+	void receive(long timeout) throws IOException {
+		if (selector.select(timeout) == 0) {
+			return;
+		}
+		selector.selectedKeys().clear();
+
+		boolean ringFull = false;
+		for (int i=0; i<RECEIVE_BATCH_SIZE; i++) {
+			DatagramSlot slot = freeSlots.poll();
+			if (slot == null) {
+				if (!ringFull) {
+					ringFull = true;
+					onRingFull();
+				}
+				if (!discardDatagram()) {
+					return;
+				}
+				continue;
+			}
+
+			slot.buffer.clear();
+			InetSocketAddress sender = (InetSocketAddress) channel.receive(slot.buffer);
+			if (sender == null) {
+				freeSlots.offer(slot);
+				return;
+			}
+
+			receivedCount.incrementAndGet();
+			slot.buffer.flip();
+			slot.sender = sender;
+			receivedSlots.offer(slot);
+		}
+	}
+
+
+	private void onRingFull() {
+		if (queueFullCount.getAndIncrement() % 1000 == 0) {
+			logger.warn(shardName + ": receive ring is full, datagrams are dropped");
+		}
+	}
+
+
+	/**
+	 * receives a datagram while the ring is full and drops it
+	 * @return 				true if a datagram was dropped, false if no datagram was pending
+	 * @throws IOException
+	 */
+	private boolean discardDatagram() throws IOException {
+		discardBuffer.clear();
+		if (channel.receive(discardBuffer) == null) {
+			return false;
+		}
+
+		receivedCount.incrementAndGet();
+		droppedCount.incrementAndGet();
+		return true;
+	}
+
+
+	/**
+	 * processes one received datagram on a worker thread and returns its slot to the ring
+	 * @param slot 		the slot holding the datagram
+	 */
+	private void processSlot(DatagramSlot slot) {
+		try {
+			server.processDatagram(slot.buffer, slot.sender);
+
+		} finally {
+			slot.sender = null;
+			freeSlots.offer(slot);
+		}
+	}
+
+
+	/**
+	 * sends a message through the channel of the shard
+	 * @param message 		the message between the position and the limit of the buffer
+	 * @param target 		the address of the receiver
+	 * @return 				the number of bytes sent, 0 if the send buffer of the socket is full
+	 * @throws IOException
+	 */
+	int send(ByteBuffer message, InetSocketAddress target) throws IOException {
+		return channel.send(message, target);
+	}
+
+
+	/**
+	 * closes the channel and stops the workers, datagrams that were not yet processed are discarded
+	 */
+	void close() {
+		try {
+			if (channel != null) {
+				channel.close();
+			}
+			if (selector != null) {
+				selector.close();
+			}
+
+		} catch (Exception e) {
+			logger.error(shardName + ": error closing the udp channel: ", e);
+		}
+
+		for (UdpWorker worker : workers) {
+			if (worker != null) {
+				worker.stopUdpWorker();
+			}
+		}
+	}
+
+
+	void joinWorkers() throws InterruptedException {
+		for (UdpWorker worker : workers) {
+			if (worker != null) {
+				worker.joinWorker();
+			}
+		}
+	}
+
+
+	long getReceivedCount() {
+		return receivedCount.get();
+	}
+
+
+	long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+
+	long getQueueFullCount() {
+		return queueFullCount.get();
+	}
+
+
+	int getPendingCount() {
+		return receivedSlots.size();
+	}
+
+
+	private static class DatagramSlot {
+		private ByteBuffer buffer;
+		private InetSocketAddress sender;
+
+
+		private DatagramSlot(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+	}
+
+
+	private class UdpWorker extends BaseThread {
+		private int pollTimeout;
+
+
+		private UdpWorker(String name, int pollTimeout) {
+			super(0);
+			setName(name);
+			this.pollTimeout = pollTimeout;
+		}
+
+
+		@Override
+		public void doWork() {
+			try {
+				DatagramSlot slot = receivedSlots.poll(pollTimeout, TimeUnit.MILLISECONDS);
+				if (slot != null) {
+					processSlot(slot);
+				}
+
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				stopWorker();
+			}
+		}
+
+
+		private void stopUdpWorker() {
+			stopWorker();
+		}
+
+
+		@Override
+		public void startWork() {
+
+		}
+
+
+		@Override
+		public void terminateWork() {
+
+		}
+	}
+}
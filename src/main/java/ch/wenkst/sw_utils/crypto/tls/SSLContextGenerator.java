@@ -17,6 +17,8 @@ import java.util.List;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 
 import ch.wenkst.sw_utils.crypto.CryptoProvider;
@@ -129,6 +131,67 @@ public class SSLContextGenerator {
 	}
 	
 	
+	/**
+	 * configures the cache of the sessions that the servers of the passed context can resume, a resumed 
+	 * handshake skips the certificate exchange and the validation of the client certificate
+	 * @param sslContext 		the initialized ssl context
+	 * @param cacheSize 		the maximal number of cached sessions, 0 for no limit
+	 * @param timeout 			the time in s after which a cached session can no longer be resumed, 0 for no limit
+	 */
+	public static void configureServerSessionCache(SSLContext sslContext, int cacheSize, int timeout) {
+		configureSessionCache(sslContext.getServerSessionContext(), cacheSize, timeout);
+	}
+	
+	
+	/**
+	 * configures the cache of the sessions that the clients of the passed context try to resume, the sessions 
+	 * are cached per host and port of the server
+	 * @param sslContext 		the initialized ssl context
+	 * @param cacheSize 		the maximal number of cached sessions, 0 for no limit
+	 * @param timeout 			the time in s after which a cached session is no longer used, 0 for no limit
+	 */
+	public static void configureClientSessionCache(SSLContext sslContext, int cacheSize, int timeout) {
+		configureSessionCache(sslContext.getClientSessionContext(), cacheSize, timeout);
+	}
+	
+	
+	private static void configureSessionCache(SSLSessionContext sessionContext, int cacheSize, int timeout) {
+		if (sessionContext == null) {
+			return;
+		}
+		sessionContext.setSessionCacheSize(cacheSize);
+		sessionContext.setSessionTimeout(timeout);
+	}
+	
+	
+	/**
+	 * enables the session resumption of the jsse providers. the default provider resumes sessions with the 
+	 * session id (tls 1.2) or a pre-shared key (tls 1.3), with session tickets the server does not need to 
+	 * keep the state of the sessions. the bouncy castle provider only resumes tls 1.2 sessions by their id 
+	 * and ignores the ticket setting. the providers read the properties when the first handshake is done, 
+	 * this method needs to be called before any tls connection is opened
+	 * @param sessionTickets 	true to use stateless session tickets with the default provider
+	 */
+	public static void enableSessionResumption(boolean sessionTickets) {
+		System.setProperty("jdk.tls.server.enableSessionTicketExtension", String.valueOf(sessionTickets));
+		System.setProperty("jdk.tls.client.enableSessionTicketExtension", String.valueOf(sessionTickets));
+		System.setProperty("org.bouncycastle.jsse.server.enableSessionResumption", "true");
+		System.setProperty("org.bouncycastle.jsse.client.enableSessionResumption", "true");
+	}
+	
+	
+	/**
+	 * returns true if the passed session was resumed by the handshake that started at the passed time, 
+	 * a resumed session keeps the creation time of the full handshake that established it
+	 * @param session 				the session after the handshake finished
+	 * @param handshakeStartTime 	the unix time in ms at which the handshake started
+	 * @return 						true if the session was resumed, false if a full handshake was done
+	 */
+	public static boolean isResumedSession(SSLSession session, long handshakeStartTime) {
+		return session.getCreationTime() < handshakeStartTime;
+	}
+	
+	
 	private static SSLContext sslContextInstance(String protocol) throws NoSuchAlgorithmException, NoSuchProviderException {
 		if (CryptoProvider.bcjsseProviderRegistered()) {
 			return SSLContext.getInstance(protocol, SecurityConstants.BCJSSE);
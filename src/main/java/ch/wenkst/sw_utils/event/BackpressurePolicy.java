@@ -0,0 +1,7 @@
+package ch.wenkst.sw_utils.event;
+
+public enum BackpressurePolicy {
+	BLOCK,			// the firing thread waits until the mailbox has space
+	DROP_OLDEST,	// the oldest pending event of the mailbox is dropped
+	REJECT			// the new event is not delivered to the listener
+}
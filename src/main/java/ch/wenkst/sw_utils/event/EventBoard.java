@@ -6,11 +6,14 @@ import java.util.concurrent.Executor;
 
 import ch.wenkst.sw_utils.event.managers.EventManager;
 import ch.wenkst.sw_utils.event.managers.EventManagerFactory;
+import ch.wenkst.sw_utils.event.managers.MailboxEventManager;
 
 public class EventBoard {
 	private EventOperationMode operationMode = EventOperationMode.SYNC;
-	private Map<String, EventManager> eventManagerMap = new ConcurrentHashMap<>();;
+	private Map<String, EventManager> eventManagerMap = new ConcurrentHashMap<>();
 	private Executor executor;
+	private int mailboxCapacity = MailboxEventManager.DEFAULT_MAILBOX_CAPACITY;
+	private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
 	
 	
 	/**
@@ -37,6 +40,21 @@ public class EventBoard {
 		
 		this.executor = executor;
 	}
+	
+	
+	/**
+	 * constructor for the mailbox event handling, different events and different listeners are handled asynchronously,
+	 * the same event is delivered to a listener in the order it was fired without blocking threads of the executor
+	 * @param executor 				an Executor that drains the mailboxes of the listeners
+	 * @param mailboxCapacity 		the maximal number of pending events per listener and event
+	 * @param backpressurePolicy 	defines what happens if the mailbox of a listener is full
+	 */
+	public EventBoard(Executor executor, int mailboxCapacity, BackpressurePolicy backpressurePolicy) {
+		operationMode = EventOperationMode.MAILBOX;
+		this.executor = executor;
+		this.mailboxCapacity = mailboxCapacity;
+		this.backpressurePolicy = backpressurePolicy;
+	}
 
 
 	/**
@@ -47,13 +65,18 @@ public class EventBoard {
 	 * @return 				instance of the registered listener
 	 */
 	public EventListener registerListener(String eventName, EventListener listener) {
-		EventManager eventManager = eventManagerMap.get(eventName);
-		if (eventManager == null) {
-			eventManager = EventManagerFactory.getEventManager(operationMode, eventName, executor);
-			eventManagerMap.put(eventName, eventManager);			
-		}
-		
-		eventManager.register(listener);	
+		// compute is atomic per event name, concurrent registrations and removals of the same event cannot lose a manager
+		eventManagerMap.compute(eventName, (name, eventManager) -> {
+			if (eventManager == null) {
+				eventManager = EventManagerFactory.getEventManager(operationMode, name, executor, mailboxCapacity, backpressurePolicy);
+				if (eventManager == null) {
+					return null;
+				}
+			}
+			
+			eventManager.register(listener);
+			return eventManager;
+		});
 		return listener;
 	}
 
@@ -65,11 +88,7 @@ public class EventBoard {
 	 * @param listener		the listener to unregister
 	 */
 	public void removeListener(EventListener listener, String eventName) {
-		EventManager eventManager = eventManagerMap.get(eventName);
-		if (eventManager != null) {
-			eventManager.unregister(listener);
-			removeNoListenerEventManager(eventManager);
-		} 
+		eventManagerMap.computeIfPresent(eventName, (name, eventManager) -> unregister(eventManager, listener));
 	}
 	
 	
@@ -78,17 +97,21 @@ public class EventBoard {
 	 * @param listener 	the listener to unregister
 	 */
 	public void removeListener(EventListener listener) {
-		for (EventManager eventManager : eventManagerMap.values()) {
-			eventManager.unregister(listener);
-			removeNoListenerEventManager(eventManager);
+		for (String eventName : eventManagerMap.keySet()) {
+			removeListener(listener, eventName);
 		}
 	}
 	
 	
-	private void removeNoListenerEventManager(EventManager eventManager) {
-		if (!eventManager.hasListeners()) {
-			eventManagerMap.remove(eventManager.getEventName());
-		}
+	/**
+	 * removes the listener from the manager
+	 * @param eventManager 		the manager of the event
+	 * @param listener 			the listener to unregister
+	 * @return 					the manager if it has still listeners, null if it can be removed from the board
+	 */
+	private EventManager unregister(EventManager eventManager, EventListener listener) {
+		eventManager.unregister(listener);
+		return eventManager.hasListeners() ? eventManager : null;
 	}
 	
 	
@@ -3,5 +3,6 @@ package ch.wenkst.sw_utils.event;
 public enum EventOperationMode {
 	SYNC, 				// synchronous in the order the listeners were registered
 	SYNC_SAME_EVENT,	// different events asynchronous, same event synchronous
-	ASYNC 				// completely asynchronous
+	ASYNC, 				// completely asynchronous
+	MAILBOX				// same as SYNC_SAME_EVENT but every listener has a bounded mailbox that is drained by one task
 }
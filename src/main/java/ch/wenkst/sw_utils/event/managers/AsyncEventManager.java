@@ -22,8 +22,8 @@ public class AsyncEventManager extends EventManager {
 
 
 	@Override
-	public synchronized void fire(Object params) {
-		for (EventListener listener : listeners) {
+	public void fire(Object params) {
+		for (EventListener listener : getListeners()) {
 			executor.execute(() -> listener.handleEvent(eventName, params));
 		}
 	}
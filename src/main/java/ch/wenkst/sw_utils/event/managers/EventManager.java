@@ -1,17 +1,29 @@
 package ch.wenkst.sw_utils.event.managers;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import ch.wenkst.sw_utils.event.EventListener;
 
 public abstract class EventManager {
+	private static final EventListener[] NO_LISTENERS = new EventListener[0];
+	
 	protected String eventName = "";
-	protected List<EventListener> listeners = null;
+	private AtomicReference<EventListener[]> listenerArray = new AtomicReference<>(NO_LISTENERS);
+	protected List<EventListener> listeners = new ListenerView();
 	
 	
+	/**
+	 * the listeners are kept in a copy-on-write array, fire() iterates over a snapshot without any locking 
+	 * and register() / unregister() atomically swap the array. the listeners list is a view of the array
+	 * for subclasses, it iterates over a snapshot and add() / remove() register and unregister the listener
+	 * @param eventName 	the name of the event and id of the eventManager
+	 */
 	public EventManager(String eventName) {
 		this.eventName = eventName;
-		listeners = new ArrayList<>();
 	}
 	
 	
@@ -26,10 +38,18 @@ public abstract class EventManager {
 	 * add a listener to the subscriber list
 	 * @param listener		listener that will be informed if an event is triggered
 	 */
-	public synchronized void register(EventListener listener) {
-		if (!listeners.contains(listener)) {
-			listeners.add(listener);
-		}
+	public void register(EventListener listener) {
+		EventListener[] current;
+		EventListener[] updated;
+		do {
+			current = listenerArray.get();
+			if (indexOf(current, listener) >= 0) {
+				return;
+			}
+			
+			updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = listener;
+		} while (!listenerArray.compareAndSet(current, updated));
 	}
 
 
@@ -37,8 +57,39 @@ public abstract class EventManager {
 	 * remove a listener from the subscriber list
 	 * @param listener 		listener that will be informed if an event is triggered
 	 */
-	public synchronized void unregister(EventListener listener) {
-		listeners.remove(listener);
+	public void unregister(EventListener listener) {
+		EventListener[] current;
+		EventListener[] updated;
+		do {
+			current = listenerArray.get();
+			int index = indexOf(current, listener);
+			if (index < 0) {
+				return;
+			}
+			
+			updated = new EventListener[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+		} while (!listenerArray.compareAndSet(current, updated));
+	}
+	
+	
+	private static int indexOf(EventListener[] listenerArray, EventListener listener) {
+		for (int i=0; i<listenerArray.length; i++) {
+			if (listenerArray[i].equals(listener)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	
+	/**
+	 * returns a snapshot of the registered listeners, the array must not be modified
+	 * @return 		the listeners in the order they were registered
+	 */
+	protected EventListener[] getListeners() {
+		return listenerArray.get();
 	}
 	
 	
@@ -46,12 +97,49 @@ public abstract class EventManager {
 	 * checks if any listeners are registered
 	 * @return 		true if at least one listener is registered, false otherwise
 	 */
-	public synchronized boolean hasListeners() {
-		return !listeners.isEmpty();
+	public boolean hasListeners() {
+		return listenerArray.get().length > 0;
 	}
 
 	
 	public String getEventName() {
 		return eventName;
 	}
+	
+	
+	/**
+	 * list view of the copy-on-write listener array
+	 */
+	private class ListenerView extends AbstractList<EventListener> {
+		@Override
+		public EventListener get(int index) {
+			return listenerArray.get()[index];
+		}
+
+		@Override
+		public int size() {
+			return listenerArray.get().length;
+		}
+
+		@Override
+		public Iterator<EventListener> iterator() {
+			return Arrays.asList(listenerArray.get()).iterator();
+		}
+
+		@Override
+		public boolean add(EventListener listener) {
+			boolean added = !contains(listener);
+			register(listener);
+			return added;
+		}
+
+		@Override
+		public boolean remove(Object listener) {
+			boolean removed = contains(listener);
+			if (listener instanceof EventListener) {
+				unregister((EventListener) listener);
+			}
+			return removed;
+		}
+	}
 }
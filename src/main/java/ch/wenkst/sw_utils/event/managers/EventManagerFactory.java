@@ -5,6 +5,7 @@ import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.wenkst.sw_utils.event.BackpressurePolicy;
 import ch.wenkst.sw_utils.event.EventOperationMode;
 
 public class EventManagerFactory {
@@ -12,6 +13,13 @@ public class EventManagerFactory {
 	
 	
 	public static EventManager getEventManager(EventOperationMode operationMode, String eventName, Executor executor) {
+		return getEventManager(operationMode, eventName, executor, MailboxEventManager.DEFAULT_MAILBOX_CAPACITY, BackpressurePolicy.BLOCK);
+	}
+	
+	
+	public static EventManager getEventManager(EventOperationMode operationMode, String eventName, Executor executor, 
+			int mailboxCapacity, BackpressurePolicy backpressurePolicy) {
+		
 		switch (operationMode) {
 			case SYNC:
 				return new SyncEventManager(eventName);
@@ -22,6 +30,9 @@ public class EventManagerFactory {
 			case ASYNC:
 				return new AsyncEventManager(eventName, executor);
 				
+			case MAILBOX:
+				return new MailboxEventManager(eventName, executor, mailboxCapacity, backpressurePolicy);
+				
 			default:
 				logger.error("no event manager defined for event type " + operationMode.toString());
 				return null;
@@ -0,0 +1,204 @@
+package ch.wenkst.sw_utils.event.managers;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.event.BackpressurePolicy;
+import ch.wenkst.sw_utils.event.EventListener;
+
+public class MailboxEventManager extends EventManager {
+	private static final Logger logger = LoggerFactory.getLogger(MailboxEventManager.class);
+	
+	public static final int DEFAULT_MAILBOX_CAPACITY = 1024;
+	private static final int DRAIN_BATCH_SIZE = 64;
+	private static final Object NULL_PARAMS = new Object();
+	
+	private Executor executor = null;
+	private int mailboxCapacity = DEFAULT_MAILBOX_CAPACITY;
+	private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+	private Map<EventListener, Mailbox> mailboxes = new ConcurrentHashMap<>();
+	private AtomicLong droppedCount = new AtomicLong(0);
+	private AtomicLong rejectedCount = new AtomicLong(0);
+
+
+	/**
+	 * handles one type of event like the SyncSameEventEventManager but without blocking threads of the executor:
+	 * every listener owns a bounded mailbox, fire() puts the event in the mailboxes and at most one executor task
+	 * per listener drains its mailbox. the events are delivered to a listener in the order they were fired
+	 * @param eventName 			the name of the event (should be unique for clarity)
+	 * @param executor				an Executor that drains the mailboxes, it can be shared by multiple EventManager instances
+	 * @param mailboxCapacity 		the maximal number of pending events per listener
+	 * @param backpressurePolicy 	defines what happens if the mailbox of a listener is full, with BLOCK a listener
+	 * 								must not fire the event it listens to or it can deadlock itself
+	 */
+	public MailboxEventManager(String eventName, Executor executor, int mailboxCapacity, BackpressurePolicy backpressurePolicy) {
+		super(eventName);
+		this.executor = executor;
+		this.mailboxCapacity = mailboxCapacity;
+		this.backpressurePolicy = backpressurePolicy;
+	}
+	
+	
+	@Override
+	public synchronized void register(EventListener listener) {
+		mailboxes.putIfAbsent(listener, new Mailbox(listener));
+		super.register(listener);
+	}
+	
+	
+	@Override
+	public synchronized void unregister(EventListener listener) {
+		super.unregister(listener);
+		Mailbox mailbox = mailboxes.remove(listener);
+		if (mailbox != null) {
+			mailbox.close();
+		}
+	}
+
+
+	@Override
+	public void fire(Object params) {
+		Object message = params == null ? NULL_PARAMS : params;
+		for (EventListener listener : getListeners()) {
+			Mailbox mailbox = mailboxes.get(listener);
+			if (mailbox != null) {
+				mailbox.post(message);
+			}
+		}
+	}
+	
+	
+	/**
+	 * returns the number of events that were dropped with the DROP_OLDEST policy
+	 * @return 		number of dropped events
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+	
+	
+	/**
+	 * returns the number of events that were not delivered with the REJECT policy
+	 * @return 		number of rejected events
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+	
+	
+	/**
+	 * returns the number of events that wait to be delivered to the passed listener
+	 * @param listener 		a registered listener
+	 * @return 				number of pending events, 0 if the listener is not registered
+	 */
+	public int getPendingCount(EventListener listener) {
+		Mailbox mailbox = mailboxes.get(listener);
+		return mailbox == null ? 0 : mailbox.queue.size();
+	}
+	
+	
+	private class Mailbox implements Runnable {
+		private EventListener listener;
+		private BlockingQueue<Object> queue;
+		private AtomicBoolean scheduled = new AtomicBoolean(false);
+		private volatile boolean closed = false;
+		
+		
+		private Mailbox(EventListener listener) {
+			this.listener = listener;
+			this.queue = new ArrayBlockingQueue<>(mailboxCapacity);
+		}
+		
+		
+		/**
+		 * puts the event in the mailbox and schedules the draining task if it is not yet running
+		 * @param message 	the event parameters
+		 */
+		private void post(Object message) {
+			if (!enqueue(message)) {
+				return;
+			}
+			schedule();
+		}
+		
+		
+		private boolean enqueue(Object message) {
+			switch (backpressurePolicy) {
+				case BLOCK:
+					try {
+						queue.put(message);
+						return true;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return false;
+					}
+					
+				case DROP_OLDEST:
+					while (!queue.offer(message)) {
+						if (queue.poll() != null) {
+							droppedCount.incrementAndGet();
+						}
+					}
+					return true;
+					
+				default:
+					if (queue.offer(message)) {
+						return true;
+					}
+					rejectedCount.incrementAndGet();
+					logger.debug(eventName + ": mailbox of listener is full, event is rejected");
+					return false;
+			}
+		}
+		
+		
+		private void schedule() {
+			if (!closed && scheduled.compareAndSet(false, true)) {
+				executor.execute(this);
+			}
+		}
+		
+		
+		/**
+		 * delivers a batch of events to the listener, the task is rescheduled if more events are pending so
+		 * that a busy listener does not monopolize an executor thread
+		 */
+		@Override
+		public void run() {
+			int delivered = 0;
+			Object message;
+			while (!closed && delivered < DRAIN_BATCH_SIZE && (message = queue.poll()) != null) {
+				deliver(message);
+				delivered++;
+			}
+			
+			scheduled.set(false);
+			if (!queue.isEmpty()) {
+				schedule();
+			}
+		}
+		
+		
+		private void deliver(Object message) {
+			try {
+				listener.handleEvent(eventName, message == NULL_PARAMS ? null : message);
+			} catch (Exception e) {
+				logger.error(eventName + ": uncaught exception in the event listener: ", e);
+			}
+		}
+		
+		
+		private void close() {
+			closed = true;
+			queue.clear();
+		}
+	}
+}
@@ -16,8 +16,8 @@ public class SyncEventManager extends EventManager {
 
 
 	@Override
-	public synchronized void fire(Object params) {
-		for (EventListener listener : listeners) {
+	public void fire(Object params) {
+		for (EventListener listener : getListeners()) {
 			listener.handleEvent(eventName, params);
 		}		
 	}
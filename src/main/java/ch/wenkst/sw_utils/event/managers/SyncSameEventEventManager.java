@@ -29,10 +29,8 @@ public class SyncSameEventEventManager extends EventManager {
 	
 	@Override
 	public synchronized void register(EventListener listener) {
+		lockObjectsMap.putIfAbsent(listener, new Object());
 		super.register(listener);
-		if (!lockObjectsMap.containsKey(listener)) {
-			lockObjectsMap.put(listener, new Object());
-		}
 	}
 	
 	
@@ -44,10 +42,15 @@ public class SyncSameEventEventManager extends EventManager {
 
 
 	@Override
-	public synchronized void fire(Object params) {
-		for (EventListener listener : listeners) {
+	public void fire(Object params) {
+		for (EventListener listener : getListeners()) {
+			Object lockObject = lockObjectsMap.get(listener);
+			if (lockObject == null) {
+				continue;		// listener was unregistered concurrently
+			}
+			
 			executor.execute(() -> {
-				synchronized (lockObjectsMap.get(listener)) {
+				synchronized (lockObject) {
 					listener.handleEvent(eventName, params);
 				}
 			});
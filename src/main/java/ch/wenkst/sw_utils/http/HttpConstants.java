@@ -11,4 +11,5 @@ public class HttpConstants {
 	public static final String POST = "POST";
 	public static final String PUT = "PUT";
 	public static final String DELETE = "DELETE";
+	public static final String HEAD = "HEAD";
 }
@@ -1,14 +1,17 @@
 package ch.wenkst.sw_utils.http;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 public class HttpStatus {
 	private static Map<Integer, String> httpStatusMap;
+	private static Map<Integer, byte[]> statusLineMap;
 	
 	static {
 		httpStatusMap = new HashMap<>();
 		fillCreateStatusMap();
+		encodeStatusLines();
 	}
 	
 	
@@ -17,6 +20,26 @@ public class HttpStatus {
 	}
 	
 	
+	/**
+	 * returns the encoded status line of a response including the line break, the returned array is
+	 * shared by all responses and must not be modified
+	 * @param status 	the http status
+	 * @return 			the status line, null if the status is not supported
+	 */
+	public static byte[] statusLineBytes(int status) {
+		return statusLineMap.get(status);
+	}
+	
+	
+	private static void encodeStatusLines() {
+		statusLineMap = new HashMap<>();
+		for (Map.Entry<Integer, String> entry : httpStatusMap.entrySet()) {
+			String statusLine = HttpConstants.PROTOCOL + " " + entry.getKey() + " " + entry.getValue() + HttpConstants.CRLF;
+			statusLineMap.put(entry.getKey(), statusLine.getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+	
+	
 	private static void fillCreateStatusMap() {
 		addInformationStatuses();
 		addSuccessfulOperationStatuses();
@@ -0,0 +1,78 @@
+package ch.wenkst.sw_utils.http.builder;
+
+class ByteRange {
+	static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+	
+	private long start;
+	private long end;
+	
+	
+	/**
+	 * a byte range of a range request
+	 * @param start 	index of the first byte
+	 * @param end 		index of the last byte (inclusive)
+	 */
+	private ByteRange(long start, long end) {
+		this.start = start;
+		this.end = end;
+	}
+	
+	
+	/**
+	 * parses the value of a range header with a single byte range, i.e. bytes=start-end, bytes=start- 
+	 * or bytes=-suffixLength
+	 * @param rangeHeader 	value of the range header
+	 * @param size 			size of the resource in bytes
+	 * @return 				the range, UNSATISFIABLE if the range is outside of the resource or null if 
+	 * 						the header is not a single byte range and the full resource should be sent
+	 */
+	static ByteRange parse(String rangeHeader, long size) {
+		String value = rangeHeader.trim();
+		if (!value.startsWith("bytes=") || value.indexOf(',') >= 0) {
+			return null;
+		}
+		
+		int dashIndex = value.indexOf('-');
+		if (dashIndex < 0) {
+			return null;
+		}
+		
+		try {
+			String startStr = value.substring("bytes=".length(), dashIndex).trim();
+			String endStr = value.substring(dashIndex + 1).trim();
+			
+			if (startStr.isEmpty()) {
+				long suffixLength = Long.parseLong(endStr);
+				if (suffixLength <= 0 || size == 0) {
+					return UNSATISFIABLE;
+				}
+				return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+			}
+			
+			long start = Long.parseLong(startStr);
+			long end = endStr.isEmpty() ? size - 1 : Math.min(Long.parseLong(endStr), size - 1);
+			if (start < 0 || end < start) {
+				return start >= size ? UNSATISFIABLE : null;
+			}
+			return new ByteRange(start, end);
+			
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	
+	long getStart() {
+		return start;
+	}
+	
+	
+	long getLength() {
+		return end - start + 1;
+	}
+	
+	
+	String contentRange(long size) {
+		return "bytes " + start + "-" + end + "/" + size;
+	}
+}
@@ -1,12 +1,28 @@
 package ch.wenkst.sw_utils.http.builder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import ch.wenkst.sw_utils.conversion.Conversion;
-import ch.wenkst.sw_utils.http.HttpConstants;
+import java.util.Map;
+
+import ch.wenkst.sw_utils.communication.buffer.BufferPool;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
+import ch.wenkst.sw_utils.http.compression.ContentEncoder;
 
 public class HttpBuilder {
+	private static final byte[] CRLF_BYTES = new byte[] {'\r', '\n'};
+	private static final byte[] HEADER_SEPARATOR_BYTES = new byte[] {':', ' '};
+	private static final Map<String, byte[]> encodedHeaderNames = encodeHeaderNames(
+			"connection", "accept", "content-type", "content-length", "content-encoding", "transfer-encoding", 
+			"host", "server", "date", "location", "cache-control", "authorization", "accept-encoding", 
+			"accept-ranges", "content-range", "range", "user-agent", "vary");
+	private static final BufferPool headerBufferPool = new BufferPool(new int[] {1024, 4096, 16384}, 64, false);
+	
 	protected String firstLine = "";
+	protected byte[] firstLineBytes = null;
 	protected HashMap<String, String> headerProperties = null;
 	protected byte[] bodyBytes = new byte[0];
 
@@ -17,6 +33,15 @@ public class HttpBuilder {
 		headerProperties.put("accept", "*/*");
 		headerProperties.put("content-type", "text/plain");
 	}
+	
+	
+	private static Map<String, byte[]> encodeHeaderNames(String... headerNames) {
+		Map<String, byte[]> encodedNames = new HashMap<>();
+		for (String headerName : headerNames) {
+			encodedNames.put(headerName, (headerName + ": ").getBytes(StandardCharsets.US_ASCII));
+		}
+		return encodedNames;
+	}
 
 
 
@@ -35,6 +60,17 @@ public class HttpBuilder {
 
 
 
+	/**
+	 * returns the value of a header property
+	 * @param key 		name of the header property
+	 * @return 			the value of the header property, null if it is not set
+	 */
+	public String getHeaderProperty(String key) {
+		return headerProperties.get(key.toLowerCase());
+	}
+
+
+
 	/**
 	 * sets the body of the request
 	 * @param body 		body as String
@@ -59,36 +95,162 @@ public class HttpBuilder {
 	}
 	
 	
+	/**
+	 * compresses the body with the coding that is preferred by the receiver if the body is at least
+	 * ContentEncoder.DEFAULT_THRESHOLD bytes long
+	 * @param acceptEncoding 	value of the accept-encoding header of the receiver, can be null
+	 * @return 					this object
+	 */
+	public HttpBuilder compressBody(String acceptEncoding) {
+		return compressBody(ContentCoding.negotiate(acceptEncoding), ContentEncoder.DEFAULT_THRESHOLD);
+	}
+	
+	
+	/**
+	 * compresses the body and sets the content-encoding, small bodies are not compressed because the 
+	 * compression would not save a relevant amount of bytes. call this method after the body is set
+	 * @param coding 		the coding to use, null to leave the body uncompressed
+	 * @param threshold 	minimal body length in bytes that is compressed
+	 * @return 				this object
+	 */
+	public HttpBuilder compressBody(ContentCoding coding, int threshold) {
+		if (coding == null || bodyBytes.length < threshold || headerProperties.containsKey("content-encoding")) {
+			return this;
+		}
+		
+		body(ContentEncoder.encode(bodyBytes, coding));
+		headerProperties.put("content-encoding", coding.getToken());
+		return this;
+	}
+	
+	
 	/**
 	 * converts the http request to a byte array
 	 * @return 		byte array of the http request
 	 */
 	public byte[] toByteArr() {
-		byte[] requestTargetBytes = requestTarget().getBytes(StandardCharsets.US_ASCII);
-		byte[] headerBytes = header().getBytes(StandardCharsets.US_ASCII);
-		return Conversion.concatArrays(requestTargetBytes, headerBytes, bodyBytes);
+		byte[] messageBytes = new byte[length()];
+		writeTo(ByteBuffer.wrap(messageBytes));
+		return messageBytes;
 	}
 	
 	
-	private String requestTarget() {
-		return firstLine + HttpConstants.CRLF;
+	/**
+	 * returns the length of the serialized first line and header including the empty line after the header
+	 * @return 		length of the header in bytes
+	 */
+	public int headerLength() {
+		int length = firstLineBytes != null ? firstLineBytes.length : firstLine.length() + CRLF_BYTES.length;
+		for (Map.Entry<String, String> entry : headerProperties.entrySet()) {
+			length += entry.getKey().length() + HEADER_SEPARATOR_BYTES.length + entry.getValue().length() + CRLF_BYTES.length;
+		}
+		return length + CRLF_BYTES.length;
 	}
 	
 	
-	private String header() {
-		StringBuilder stringBuilder = new StringBuilder();
-
-		headerProperties.entrySet()
-				.stream()
-				.forEach((entry) -> {
-					stringBuilder.append(entry.getKey());
-					stringBuilder.append(": ");
-					stringBuilder.append(entry.getValue());
-					stringBuilder.append(HttpConstants.CRLF);
-				});
+	/**
+	 * returns the length of the serialized http message
+	 * @return 		length of the message in bytes
+	 */
+	public int length() {
+		return headerLength() + bodyBytes.length;
+	}
+	
+	
+	/**
+	 * writes the first line and the header into the buffer without creating intermediate strings
+	 * @param buffer 	buffer with at least headerLength() remaining bytes
+	 */
+	public void writeHeaderTo(ByteBuffer buffer) {
+		if (firstLineBytes != null) {
+			buffer.put(firstLineBytes);
+		} else {
+			putAscii(buffer, firstLine);
+			buffer.put(CRLF_BYTES);
+		}
+		
+		for (Map.Entry<String, String> entry : headerProperties.entrySet()) {
+			byte[] encodedName = encodedHeaderNames.get(entry.getKey());
+			if (encodedName != null) {
+				buffer.put(encodedName);
+			} else {
+				putAscii(buffer, entry.getKey());
+				buffer.put(HEADER_SEPARATOR_BYTES);
+			}
+			putAscii(buffer, entry.getValue());
+			buffer.put(CRLF_BYTES);
+		}
 		
-		stringBuilder.append(HttpConstants.CRLF);
-		return stringBuilder.toString();
+		buffer.put(CRLF_BYTES);
+	}
+	
+	
+	/**
+	 * writes the full http message into the buffer, e.g. a buffer of a BufferPool
+	 * @param buffer 	buffer with at least length() remaining bytes
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		writeHeaderTo(buffer);
+		buffer.put(bodyBytes);
+	}
+	
+	
+	/**
+	 * writes the http message to the stream, the header is serialized into a pooled buffer and the 
+	 * body is written directly from its array
+	 * @param out 		the stream to write to
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		ByteBuffer headerBuffer = headerBufferPool.acquire(headerLength());
+		try {
+			writeHeaderTo(headerBuffer);
+			out.write(headerBuffer.array(), headerBuffer.arrayOffset(), headerBuffer.position());
+			out.write(bodyBytes);
+			
+		} finally {
+			headerBuffer.clear();
+			headerBufferPool.release(headerBuffer);
+		}
+	}
+	
+	
+	/**
+	 * writes the http message to the channel with a gathering write of the header and the body, the
+	 * header and body are not concatenated. blocks until the full message is written
+	 * @param channel 	blocking channel to write to
+	 * @return 			number of written bytes
+	 * @throws IOException
+	 */
+	public long writeTo(GatheringByteChannel channel) throws IOException {
+		ByteBuffer headerBuffer = BufferPool.shared().acquire(headerLength());
+		try {
+			writeHeaderTo(headerBuffer);
+			headerBuffer.flip();
+			ByteBuffer[] buffers = new ByteBuffer[] {headerBuffer, ByteBuffer.wrap(bodyBytes)};
+			
+			long writtenBytes = 0;
+			while (buffers[1].hasRemaining() || buffers[0].hasRemaining()) {
+				writtenBytes += channel.write(buffers);
+			}
+			return writtenBytes;
+			
+		} finally {
+			BufferPool.shared().release(headerBuffer);
+		}
+	}
+	
+	
+	/**
+	 * writes the characters of an ascii string, characters outside of the ascii range are replaced by ?
+	 * @param buffer 	buffer to write to
+	 * @param str 		the string to write
+	 */
+	private static void putAscii(ByteBuffer buffer, String str) {
+		for (int i=0; i<str.length(); i++) {
+			char c = str.charAt(i);
+			buffer.put(c < 0x80 ? (byte) c : (byte) '?');
+		}
 	}
 	
 	
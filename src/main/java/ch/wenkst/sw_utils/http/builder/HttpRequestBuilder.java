@@ -34,6 +34,21 @@ public class HttpRequestBuilder extends HttpBuilder {
 	}
 	
 	
+	public HttpRequestBuilder prepareHead(String url) throws MalformedURLException {
+		return setFirstLineAndHostProperty(url, HttpConstants.HEAD);
+	}
+	
+	
+	/**
+	 * returns the method of the prepared request
+	 * @return 		the request method, an empty string if the request is not prepared
+	 */
+	public String getMethod() {
+		int end = firstLine.indexOf(' ');
+		return end < 0 ? firstLine : firstLine.substring(0, end);
+	}
+	
+	
 	private HttpRequestBuilder setFirstLineAndHostProperty(String url, String method) throws MalformedURLException {
 		URL urlObj = new URL(url);
 		setFirstLine(urlObj, method);
@@ -1,13 +1,30 @@
 package ch.wenkst.sw_utils.http.builder;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.http.HttpConstants;
 import ch.wenkst.sw_utils.http.HttpStatus;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
 
 public class HttpResponseBuilder extends HttpBuilder {
 	private static final Logger logger = LoggerFactory.getLogger(HttpResponseBuilder.class);
+	
+	private Path bodyFile = null;
+	private long fileOffset = 0;
+	private long fileLength = 0;
 
 
 	/**
@@ -30,8 +47,162 @@ public class HttpResponseBuilder extends HttpBuilder {
 		
 		} else {
 			firstLine = HttpConstants.PROTOCOL + " " + status + " " + statusTxt;
+			firstLineBytes = HttpStatus.statusLineBytes(status);
 		}
 		
 		return this;		
 	}
+	
+	
+	@Override
+	public HttpBuilder body(byte[] body) {
+		bodyFile = null;
+		return super.body(body);
+	}
+	
+	
+	/**
+	 * compresses an in-memory body, file bodies are sent uncompressed. the vary header is set because
+	 * the response depends on the accept-encoding header of the request
+	 */
+	@Override
+	public HttpBuilder compressBody(ContentCoding coding, int threshold) {
+		if (bodyFile != null) {
+			return this;
+		}
+		
+		headerProperties.put("vary", "accept-encoding");
+		return super.compressBody(coding, threshold);
+	}
+	
+	
+	/**
+	 * sets a file as body of the response, the file is not loaded into memory but streamed when the 
+	 * response is written
+	 * @param file 		the file to send
+	 * @return 			this object
+	 * @throws IOException 	if the size of the file cannot be read
+	 */
+	public HttpResponseBuilder fileBody(Path file) throws IOException {
+		return fileBody(file, null);
+	}
+	
+	
+	/**
+	 * sets a file or a part of a file as body of the response. if the range header of the request defines a
+	 * single byte range the status is set to 206 and only the range is sent, a range outside of the file sets
+	 * the status 416. other range headers are ignored and the full file is sent with the status 200
+	 * @param file 			the file to send
+	 * @param rangeHeader 	value of the range header of the request, can be null
+	 * @return 				this object
+	 * @throws IOException 	if the size of the file cannot be read
+	 */
+	public HttpResponseBuilder fileBody(Path file, String rangeHeader) throws IOException {
+		long fileSize = Files.size(file);
+		bodyBytes = new byte[0];
+		bodyFile = file;
+		fileOffset = 0;
+		fileLength = fileSize;
+		headerProperties.put("accept-ranges", "bytes");
+		
+		ByteRange range = rangeHeader != null ? ByteRange.parse(rangeHeader, fileSize) : null;
+		if (range == ByteRange.UNSATISFIABLE) {
+			status(416);
+			headerProperties.put("content-range", "bytes */" + fileSize);
+			bodyFile = null;
+			fileLength = 0;
+			
+		} else if (range != null) {
+			status(206);
+			headerProperties.put("content-range", range.contentRange(fileSize));
+			fileOffset = range.getStart();
+			fileLength = range.getLength();
+		}
+		
+		headerProperties.put("content-length", String.valueOf(fileLength));
+		return this;
+	}
+	
+	
+	/**
+	 * returns true if the body of the response is streamed from a file
+	 * @return 		true if a file body is set
+	 */
+	public boolean hasFileBody() {
+		return bodyFile != null;
+	}
+	
+	
+	@Override
+	public int length() {
+		if (bodyFile == null) {
+			return super.length();
+		}
+		return Math.toIntExact(headerLength() + fileLength);
+	}
+	
+	
+	@Override
+	public void writeTo(ByteBuffer buffer) {
+		super.writeTo(buffer);
+		if (bodyFile == null) {
+			return;
+		}
+		
+		try (FileChannel fileChannel = FileChannel.open(bodyFile, StandardOpenOption.READ)) {
+			ByteBuffer fileRegion = buffer.slice();
+			fileRegion.limit((int) fileLength);
+			while (fileRegion.hasRemaining()) {
+				if (fileChannel.read(fileRegion, fileOffset + fileRegion.position()) < 0) {
+					throw new EOFException("file " + bodyFile + " is shorter than the content length");
+				}
+			}
+			buffer.position(buffer.position() + (int) fileLength);
+			
+		} catch (IOException e) {
+			throw new IllegalStateException("failed to read the body file " + bodyFile, e);
+		}
+	}
+	
+	
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		super.writeTo(out);
+		if (bodyFile != null) {
+			transferFile(Channels.newChannel(out));
+		}
+	}
+	
+	
+	/**
+	 * writes the header and the body to the channel, a file body is transferred with FileChannel.transferTo
+	 * which lets the operating system copy the file directly to a socket channel (sendfile)
+	 * @param channel 	blocking channel to write to
+	 * @return 			number of written bytes
+	 * @throws IOException
+	 */
+	@Override
+	public long writeTo(GatheringByteChannel channel) throws IOException {
+		long writtenBytes = super.writeTo(channel);
+		if (bodyFile != null) {
+			writtenBytes += transferFile(channel);
+		}
+		return writtenBytes;
+	}
+	
+	
+	private long transferFile(WritableByteChannel target) throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(bodyFile, StandardOpenOption.READ)) {
+			long position = fileOffset;
+			long end = fileOffset + fileLength;
+			while (position < end) {
+				long transferredBytes = fileChannel.transferTo(position, end - position, target);
+				if (transferredBytes <= 0) {
+					throw new EOFException("file " + bodyFile + " is shorter than the content length");
+				}
+				position += transferredBytes;
+			}
+			return fileLength;
+		}
+	}
 }
@@ -0,0 +1,200 @@
+package ch.wenkst.sw_utils.http.client;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import javax.net.ssl.SSLContext;
+
+class HostConnectionPool {
+	private String host;
+	private int port;
+	private SSLContext sslContext;
+	private int maxConnections;
+	private long idleTimeout;
+	private int connectTimeout;
+	private int readTimeout;
+	
+	private Deque<HttpConnection> idleConnections = new ArrayDeque<>();
+	private Queue<CompletableFuture<HttpConnection>> waiters = new ArrayDeque<>();
+	private int openCount = 0;
+	
+	
+	/**
+	 * pool of the connections to one host and port, at most maxConnections are open at the same time.
+	 * the most recently used idle connection is reused first so that rarely used connections expire
+	 * @param host 				the host of the pool
+	 * @param port 				the port of the pool
+	 * @param sslContext 		context for tls connections, null for plain tcp connections
+	 * @param maxConnections 	maximal number of open connections to the host
+	 * @param idleTimeout 		time in ms after which an idle connection is closed
+	 * @param connectTimeout 	connect timeout in ms
+	 * @param readTimeout 		socket read timeout in ms
+	 */
+	HostConnectionPool(String host, int port, SSLContext sslContext, int maxConnections, long idleTimeout, int connectTimeout, int readTimeout) {
+		this.host = host;
+		this.port = port;
+		this.sslContext = sslContext;
+		this.maxConnections = maxConnections;
+		this.idleTimeout = idleTimeout;
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+	
+	
+	/**
+	 * leases a connection of the pool, the future is completed with an idle connection, with null if the 
+	 * caller may open a new connection or later with a released connection if the pool is exhausted
+	 * @return 		future that is completed once the caller may use a connection
+	 */
+	CompletableFuture<HttpConnection> acquire() {
+		List<HttpConnection> expiredConnections;
+		CompletableFuture<HttpConnection> lease;
+		
+		synchronized (this) {
+			expiredConnections = removeExpiredConnections();
+			
+			HttpConnection connection = idleConnections.pollFirst();
+			if (connection != null) {
+				lease = CompletableFuture.completedFuture(connection);
+				
+			} else if (openCount < maxConnections) {
+				openCount++;
+				lease = CompletableFuture.completedFuture(null);
+				
+			} else {
+				lease = new CompletableFuture<>();
+				waiters.add(lease);
+			}
+		}
+		
+		closeAll(expiredConnections);
+		return lease;
+	}
+	
+	
+	/**
+	 * opens a new connection, the caller needs to have a lease without connection
+	 * @return 		the new connection
+	 * @throws IOException
+	 */
+	HttpConnection openConnection() throws IOException {
+		return new HttpConnection(host, port, sslContext, connectTimeout, readTimeout);
+	}
+	
+	
+	/**
+	 * returns a connection after its request, the connection is handed to a waiting caller or kept idle
+	 * @param connection 	the connection that is no longer used
+	 */
+	void release(HttpConnection connection) {
+		if (!connection.isReusable()) {
+			discard(connection);
+			return;
+		}
+		
+		CompletableFuture<HttpConnection> waiter;
+		synchronized (this) {
+			waiter = waiters.poll();
+			if (waiter == null) {
+				idleConnections.addFirst(connection);
+				return;
+			}
+		}
+		
+		waiter.complete(connection);
+	}
+	
+	
+	/**
+	 * closes a failed connection and passes its slot to a waiting caller
+	 * @param connection 	the failed connection, can be null if opening the connection failed
+	 */
+	void discard(HttpConnection connection) {
+		if (connection != null) {
+			connection.close();
+		}
+		
+		CompletableFuture<HttpConnection> waiter;
+		synchronized (this) {
+			waiter = waiters.poll();
+			if (waiter == null) {
+				openCount--;
+				return;
+			}
+		}
+		
+		waiter.complete(null);
+	}
+	
+	
+	/**
+	 * closes the connections that were idle for longer than the idle timeout
+	 */
+	void evictIdleConnections() {
+		List<HttpConnection> expiredConnections;
+		synchronized (this) {
+			expiredConnections = removeExpiredConnections();
+		}
+		closeAll(expiredConnections);
+	}
+	
+	
+	private List<HttpConnection> removeExpiredConnections() {
+		List<HttpConnection> expiredConnections = new ArrayList<>();
+		long currentTime = System.currentTimeMillis();
+		Iterator<HttpConnection> iterator = idleConnections.iterator();
+		while (iterator.hasNext()) {
+			HttpConnection connection = iterator.next();
+			if (connection.isIdleExpired(currentTime, idleTimeout)) {
+				iterator.remove();
+				expiredConnections.add(connection);
+				openCount--;
+			}
+		}
+		return expiredConnections;
+	}
+	
+	
+	/**
+	 * closes all idle connections and fails the waiting callers
+	 */
+	void close() {
+		List<HttpConnection> connections;
+		List<CompletableFuture<HttpConnection>> pendingWaiters;
+		synchronized (this) {
+			connections = new ArrayList<>(idleConnections);
+			openCount -= idleConnections.size();
+			idleConnections.clear();
+			pendingWaiters = new ArrayList<>(waiters);
+			waiters.clear();
+		}
+		
+		closeAll(connections);
+		for (CompletableFuture<HttpConnection> waiter : pendingWaiters) {
+			waiter.completeExceptionally(new IOException("http client closed"));
+		}
+	}
+	
+	
+	private static void closeAll(List<HttpConnection> connections) {
+		for (HttpConnection connection : connections) {
+			connection.close();
+		}
+	}
+	
+	
+	synchronized int getOpenCount() {
+		return openCount;
+	}
+	
+	
+	synchronized int getIdleCount() {
+		return idleConnections.size();
+	}
+}
@@ -0,0 +1,260 @@
+package ch.wenkst.sw_utils.http.client;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.http.builder.HttpRequestBuilder;
+import ch.wenkst.sw_utils.http.client.HttpConnection.ConnectionClosedException;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+
+public class HttpClient {
+	private static final Logger logger = LoggerFactory.getLogger(HttpClient.class);
+	
+	private int maxConnectionsPerHost = 8;
+	private long idleTimeout = 30000;
+	private int connectTimeout = 2000;
+	private int readTimeout = 10000;
+	private Executor executor = null;
+	private SSLContext sslContext = null;
+	private boolean contentDecoding = false;
+	private Map<String, HostConnectionPool> pools = new ConcurrentHashMap<>();
+	private volatile boolean closed = false;
+	
+	
+	/**
+	 * http client that keeps the connections to a host open and reuses them for the next requests.
+	 * the connections are pooled per scheme, host and port. https connections are created with the
+	 * set ssl context, which resumes the cached tls session of the host instead of a full handshake
+	 */
+	public HttpClient() {
+		
+	}
+	
+	
+	/**
+	 * initializes the http client
+	 * @param maxConnectionsPerHost 	maximal number of open connections per host, further requests wait for a free connection
+	 * @param idleTimeout 				time in ms after which an idle connection is closed
+	 * @param executor 					executor on which the requests are sent, can be null to send the requests on the calling thread
+	 */
+	public void init(int maxConnectionsPerHost, long idleTimeout, Executor executor) {
+		this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+		this.idleTimeout = idleTimeout;
+		this.executor = executor;
+	}
+	
+	
+	/**
+	 * sets the ssl context that is used for https requests, e.g. created with the SSLContextGenerator
+	 * @param sslContext 	the context of the tls connections
+	 */
+	public void setSslContext(SSLContext sslContext) {
+		this.sslContext = sslContext;
+	}
+	
+	
+	/**
+	 * sets the timeouts of new connections
+	 * @param connectTimeout 	connect timeout in ms
+	 * @param readTimeout 		maximal time in ms to wait for data of the response
+	 */
+	public void setTimeouts(int connectTimeout, int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+	
+	
+	/**
+	 * enables compressed responses, requests without accept-encoding header accept gzip and deflate and
+	 * the compressed response bodies are decoded
+	 * @param contentDecoding 	true to accept and decode compressed responses
+	 */
+	public void setContentDecoding(boolean contentDecoding) {
+		this.contentDecoding = contentDecoding;
+	}
+	
+	
+	/**
+	 * sends the request to the server of the passed url
+	 * @param url 		url of the request, http or https, defines the connection pool of the request
+	 * @param request 	the request to send
+	 * @return 			future that is completed with the response or exceptionally if the request failed
+	 */
+	public CompletableFuture<HttpResponseParser> send(String url, HttpRequestBuilder request) {
+		HostConnectionPool pool;
+		try {
+			pool = poolOf(new URL(url));
+		} catch (Exception e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		
+		if (contentDecoding && request.getHeaderProperty("accept-encoding") == null) {
+			request.headerProperty("accept-encoding", "gzip, deflate");
+		}
+		byte[] requestBytes = request.toByteArr();
+		String method = request.getMethod();
+		CompletableFuture<HttpConnection> lease = pool.acquire();
+		if (executor != null) {
+			return lease.thenApplyAsync(connection -> execute(pool, connection, requestBytes, method), executor);
+		}
+		
+		try {
+			return CompletableFuture.completedFuture(execute(pool, lease.join(), requestBytes, method));
+		} catch (CompletionException e) {
+			return CompletableFuture.failedFuture(e.getCause());
+		}
+	}
+	
+	
+	private HostConnectionPool poolOf(URL url) throws MalformedURLException {
+		if (closed) {
+			throw new IllegalStateException("the http client is closed");
+		}
+		
+		String scheme = url.getProtocol();
+		boolean tls = "https".equals(scheme);
+		if (!tls && !"http".equals(scheme)) {
+			throw new MalformedURLException("unsupported scheme " + scheme);
+		}
+		if (tls && sslContext == null) {
+			throw new IllegalStateException("no ssl context set for the https request to " + url);
+		}
+		
+		String host = url.getHost();
+		int port = url.getPort() >= 0 ? url.getPort() : url.getDefaultPort();
+		String poolKey = scheme + "://" + host + ":" + port;
+		return pools.computeIfAbsent(poolKey, key -> new HostConnectionPool(
+				host, port, tls ? sslContext : null, maxConnectionsPerHost, idleTimeout, connectTimeout, readTimeout));
+	}
+	
+	
+	/**
+	 * sends the request on the leased connection or on a new connection if none was leased. a request
+	 * on a reused connection that the server closed without responding is sent once more on a new connection.
+	 * the connection is discarded if the request fails for any reason so that its pool slot is freed
+	 * @param pool 			the pool of the host
+	 * @param leased 		the leased connection, null to open a new one
+	 * @param request 		the serialized request
+	 * @param method 		the method of the request
+	 * @return 				the response
+	 */
+	private HttpResponseParser execute(HostConnectionPool pool, HttpConnection leased, byte[] request, String method) {
+		HttpConnection connection = leased;
+		boolean released = false;
+		try {
+			if (connection == null) {
+				connection = pool.openConnection();
+			}
+			
+			HttpResponseParser response;
+			try {
+				boolean used = connection.isUsed();
+				response = sendOnConnection(connection, request, method, used);
+				
+			} catch (StaleConnectionException e) {
+				logger.debug("reused http connection was closed by the server, send the request on a new connection");
+				connection.close();
+				connection = pool.openConnection();
+				response = connection.execute(request, method, contentDecoding);
+			}
+			
+			released = true;
+			if (closed) {
+				pool.discard(connection);
+			} else {
+				pool.release(connection);
+			}
+			return response;
+			
+		} catch (IOException e) {
+			throw new CompletionException(e);
+			
+		} finally {
+			if (!released) {
+				pool.discard(connection);
+			}
+		}
+	}
+	
+	
+	private HttpResponseParser sendOnConnection(HttpConnection connection, byte[] request, String method, boolean used) throws IOException {
+		try {
+			return connection.execute(request, method, contentDecoding);
+			
+		} catch (ConnectionClosedException e) {
+			if (used && !e.isDataReceived()) {
+				throw new StaleConnectionException(e);
+			}
+			throw e;
+		}
+	}
+	
+	
+	/**
+	 * closes the connections that were idle for longer than the idle timeout, idle connections are also
+	 * evicted when a request is sent to their host. call this method periodically, e.g. from a scheduled 
+	 * task, to close the connections of hosts that are no longer used
+	 */
+	public void evictIdleConnections() {
+		for (HostConnectionPool pool : pools.values()) {
+			pool.evictIdleConnections();
+		}
+	}
+	
+	
+	/**
+	 * returns the number of open connections of all hosts, including the connections that are in use
+	 * @return 		number of open connections
+	 */
+	public int getOpenConnectionCount() {
+		int openCount = 0;
+		for (HostConnectionPool pool : pools.values()) {
+			openCount += pool.getOpenCount();
+		}
+		return openCount;
+	}
+	
+	
+	/**
+	 * returns the number of open connections that are currently not used
+	 * @return 		number of idle connections
+	 */
+	public int getIdleConnectionCount() {
+		int idleCount = 0;
+		for (HostConnectionPool pool : pools.values()) {
+			idleCount += pool.getIdleCount();
+		}
+		return idleCount;
+	}
+	
+	
+	/**
+	 * closes all idle connections, connections that are in use are closed after their request
+	 */
+	public void close() {
+		closed = true;
+		for (HostConnectionPool pool : pools.values()) {
+			pool.close();
+		}
+	}
+	
+	
+	private static class StaleConnectionException extends IOException {
+		private static final long serialVersionUID = 1L;
+		
+		private StaleConnectionException(IOException cause) {
+			super(cause);
+		}
+	}
+}
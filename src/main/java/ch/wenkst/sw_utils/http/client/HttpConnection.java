@@ -0,0 +1,152 @@
+package ch.wenkst.sw_utils.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+
+class HttpConnection {
+	private static final Logger logger = LoggerFactory.getLogger(HttpConnection.class);
+	
+	private Socket socket;
+	private InputStream in;
+	private OutputStream out;
+	private byte[] readBuffer = new byte[8192];
+	private long lastUsedTime;
+	private int requestCount = 0;
+	private boolean reusable = true;
+	
+	
+	/**
+	 * blocking connection to a http server that is kept open between the requests. a tls connection
+	 * is created with the socket factory of the ssl context, the context caches the tls session of the
+	 * host and port and resumes it for the next connection to the same host
+	 * @param host 				the host to connect to
+	 * @param port 				the port to connect to
+	 * @param sslContext 		context for a tls connection, null for a plain tcp connection
+	 * @param connectTimeout 	connect timeout in ms
+	 * @param readTimeout 		socket read timeout in ms
+	 * @throws IOException
+	 */
+	HttpConnection(String host, int port, SSLContext sslContext, int connectTimeout, int readTimeout) throws IOException {
+		Socket plainSocket = new Socket();
+		try {
+			plainSocket.connect(new InetSocketAddress(host, port), connectTimeout);
+			plainSocket.setSoTimeout(readTimeout);
+			plainSocket.setTcpNoDelay(true);
+			
+			if (sslContext != null) {
+				SSLSocket sslSocket = (SSLSocket) sslContext.getSocketFactory().createSocket(plainSocket, host, port, true);
+				sslSocket.startHandshake();
+				socket = sslSocket;
+			} else {
+				socket = plainSocket;
+			}
+			
+		} catch (IOException e) {
+			plainSocket.close();
+			throw e;
+		}
+		
+		in = socket.getInputStream();
+		out = socket.getOutputStream();
+		lastUsedTime = System.currentTimeMillis();
+	}
+	
+	
+	/**
+	 * sends the request and blocks until the full response is received
+	 * @param request 			the serialized request
+	 * @param method 			the method of the request, a response to a head request has no body
+	 * @param contentDecoding 	true to decode compressed response bodies
+	 * @return 					the parsed response
+	 * @throws IOException 	if the connection fails or is closed before the response is complete
+	 */
+	HttpResponseParser execute(byte[] request, String method, boolean contentDecoding) throws IOException {
+		requestCount++;
+		out.write(request);
+		out.flush();
+		
+		HttpResponseParser response = new HttpResponseParser();
+		response.setRequestMethod(method);
+		response.setContentDecoding(contentDecoding);
+		boolean dataReceived = false;
+		while (!response.isComplete()) {
+			int len = in.read(readBuffer);
+			if (len < 0) {
+				reusable = false;
+				if (dataReceived && response.fullMessageReceived()) {
+					break;
+				}
+				throw new ConnectionClosedException("connection closed by the server before the response was complete", dataReceived);
+			}
+			
+			dataReceived = true;
+			response.addData(readBuffer, 0, len);
+		}
+		
+		if ("close".equalsIgnoreCase(response.getHeaderField("connection"))) {
+			reusable = false;
+		}
+		lastUsedTime = System.currentTimeMillis();
+		return response;
+	}
+	
+	
+	boolean isIdleExpired(long currentTime, long idleTimeout) {
+		return currentTime - lastUsedTime >= idleTimeout;
+	}
+	
+	
+	/**
+	 * returns true if the connection was already used for a request, a request on such a connection
+	 * can fail because the server closed the idle connection in the meantime
+	 * @return 		true if the connection was used before
+	 */
+	boolean isUsed() {
+		return requestCount > 0;
+	}
+	
+	
+	boolean isReusable() {
+		return reusable && !socket.isClosed();
+	}
+	
+	
+	void close() {
+		try {
+			socket.close();
+		} catch (Exception e) {
+			logger.error("error closing the http client connection: ", e);
+		}
+	}
+	
+	
+	/**
+	 * the server closed the connection before the full response was received
+	 */
+	static class ConnectionClosedException extends IOException {
+		private static final long serialVersionUID = 1L;
+		private boolean dataReceived;
+		
+		
+		ConnectionClosedException(String message, boolean dataReceived) {
+			super(message);
+			this.dataReceived = dataReceived;
+		}
+		
+		
+		boolean isDataReceived() {
+			return dataReceived;
+		}
+	}
+}
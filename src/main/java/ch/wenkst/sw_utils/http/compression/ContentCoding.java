@@ -0,0 +1,94 @@
+package ch.wenkst.sw_utils.http.compression;
+
+public enum ContentCoding {
+	GZIP("gzip"),
+	DEFLATE("deflate");
+	
+	private String token;
+	
+	
+	private ContentCoding(String token) {
+		this.token = token;
+	}
+	
+	
+	/**
+	 * returns the coding of the passed content-encoding header value
+	 * @param token 	value of the content-encoding header, can be null
+	 * @return 			the coding or null if the value is not a supported coding
+	 */
+	public static ContentCoding fromToken(String token) {
+		if (token == null) {
+			return null;
+		}
+		
+		String trimmedToken = token.trim();
+		for (ContentCoding coding : values()) {
+			if (coding.token.equalsIgnoreCase(trimmedToken)) {
+				return coding;
+			}
+		}
+		return null;
+	}
+	
+	
+	/**
+	 * returns the supported coding with the highest quality value in the passed accept-encoding header, 
+	 * gzip is preferred if both codings have the same quality
+	 * @param acceptEncoding 	value of the accept-encoding header, can be null
+	 * @return 					the preferred coding or null if no supported coding is accepted
+	 */
+	public static ContentCoding negotiate(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		
+		double wildcardQuality = -1;
+		double[] qualities = new double[] {-1, -1};
+		for (String element : acceptEncoding.split(",")) {
+			String[] parts = element.split(";");
+			String name = parts[0].trim();
+			double quality = parseQuality(parts);
+			
+			if (name.equals("*")) {
+				wildcardQuality = quality;
+			} else {
+				ContentCoding coding = fromToken(name);
+				if (coding != null) {
+					qualities[coding.ordinal()] = quality;
+				}
+			}
+		}
+		
+		ContentCoding bestCoding = null;
+		double bestQuality = 0;
+		for (ContentCoding coding : values()) {
+			double quality = qualities[coding.ordinal()] >= 0 ? qualities[coding.ordinal()] : wildcardQuality;
+			if (quality > bestQuality) {
+				bestQuality = quality;
+				bestCoding = coding;
+			}
+		}
+		return bestCoding;
+	}
+	
+	
+	private static double parseQuality(String[] parts) {
+		for (int i=1; i<parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+	
+	
+	public String getToken() {
+		return token;
+	}
+}
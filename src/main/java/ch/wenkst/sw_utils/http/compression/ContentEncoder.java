@@ -0,0 +1,143 @@
+package ch.wenkst.sw_utils.http.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+public class ContentEncoder {
+	public static final int DEFAULT_THRESHOLD = 1024;
+	public static final int MAX_POOLED_DEFLATERS = 16;
+	
+	private static final byte[] GZIP_HEADER = new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+	
+	// the deflaters are pooled, creating a deflater allocates native memory that is only freed by end()
+	private static final DeflaterPool rawDeflaters = new DeflaterPool(true);
+	private static final DeflaterPool zlibDeflaters = new DeflaterPool(false);
+	private static final ThreadLocal<byte[]> outputBuffers = ThreadLocal.withInitial(() -> new byte[8192]);
+	
+	
+	/**
+	 * encodes the passed data with the passed coding, the deflater is borrowed from a pool and returned after use
+	 * @param data 		the data to compress
+	 * @param coding 	the coding
+	 * @return 			the encoded data
+	 */
+	public static byte[] encode(byte[] data, ContentCoding coding) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		
+		if (coding == ContentCoding.GZIP) {
+			out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+			deflate(rawDeflaters, data, out);
+			writeGzipTrailer(data, out);
+			
+		} else {
+			deflate(zlibDeflaters, data, out);
+		}
+		
+		return out.toByteArray();
+	}
+	
+	
+	private static void deflate(DeflaterPool pool, byte[] data, ByteArrayOutputStream out) {
+		byte[] outputBuffer = outputBuffers.get();
+		Deflater deflater = pool.acquire();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			while (!deflater.finished()) {
+				int len = deflater.deflate(outputBuffer);
+				out.write(outputBuffer, 0, len);
+			}
+			
+		} finally {
+			pool.release(deflater);
+		}
+	}
+	
+	
+	/**
+	 * ends all pooled deflaters to free their native memory, e.g. when the server is stopped. the encoder can 
+	 * still be used afterwards, it then creates new deflaters
+	 */
+	public static void shutdown() {
+		rawDeflaters.endAll();
+		zlibDeflaters.endAll();
+	}
+	
+	
+	/**
+	 * returns the number of deflaters that are currently pooled
+	 * @return 		number of idle deflaters in the pools
+	 */
+	public static int getPooledCount() {
+		return rawDeflaters.pooledCount.get() + zlibDeflaters.pooledCount.get();
+	}
+	
+	
+	/**
+	 * writes the crc32 and the size of the uncompressed data in little endian
+	 */
+	private static void writeGzipTrailer(byte[] data, ByteArrayOutputStream out) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		writeIntLE((int) crc.getValue(), out);
+		writeIntLE(data.length, out);
+	}
+	
+	
+	private static void writeIntLE(int value, ByteArrayOutputStream out) {
+		out.write(value);
+		out.write(value >>> 8);
+		out.write(value >>> 16);
+		out.write(value >>> 24);
+	}
+	
+	
+	/**
+	 * bounded pool of deflaters of one format, a returned deflater is reset and kept if the pool is not full,
+	 * otherwise it is ended
+	 */
+	private static class DeflaterPool {
+		private final boolean nowrap;
+		private final Queue<Deflater> freeDeflaters = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger pooledCount = new AtomicInteger(0);
+		
+		
+		private DeflaterPool(boolean nowrap) {
+			this.nowrap = nowrap;
+		}
+		
+		
+		private Deflater acquire() {
+			Deflater deflater = freeDeflaters.poll();
+			if (deflater == null) {
+				return new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+			}
+			pooledCount.decrementAndGet();
+			return deflater;
+		}
+		
+		
+		private void release(Deflater deflater) {
+			deflater.reset();
+			if (pooledCount.incrementAndGet() <= MAX_POOLED_DEFLATERS) {
+				freeDeflaters.offer(deflater);
+			} else {
+				pooledCount.decrementAndGet();
+				deflater.end();
+			}
+		}
+		
+		
+		private void endAll() {
+			Deflater deflater;
+			while ((deflater = freeDeflaters.poll()) != null) {
+				pooledCount.decrementAndGet();
+				deflater.end();
+			}
+		}
+	}
+}
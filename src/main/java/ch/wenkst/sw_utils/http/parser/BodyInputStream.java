@@ -0,0 +1,149 @@
+package ch.wenkst.sw_utils.http.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+public class BodyInputStream extends InputStream implements BodySink {
+	public static final int DEFAULT_CAPACITY = 64 * 1024;
+	
+	private byte[] buffer;
+	private int readPos = 0;
+	private int size = 0;
+	private boolean ended = false;
+	private boolean closed = false;
+	private HttpParsingException error = null;
+	
+	
+	/**
+	 * body sink that exposes the body of a http message as input stream, the bytes are kept in a bounded buffer
+	 * between the thread that parses the message and the thread that reads the stream. the parsing thread is blocked
+	 * if the buffer is full until the reader consumed enough bytes. use Channels.newChannel() to read the body
+	 * as ReadableByteChannel
+	 * @param capacity 		the maximal number of buffered body bytes
+	 */
+	public BodyInputStream(int capacity) {
+		buffer = new byte[capacity];
+	}
+	
+	
+	public BodyInputStream() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	
+	@Override
+	public synchronized void onBodyData(byte[] data, int offset, int length) {
+		int written = 0;
+		while (written < length) {
+			while (size == buffer.length && !closed) {
+				awaitChange();
+			}
+			if (closed) {
+				return;		// the reader is no longer interested in the body
+			}
+			
+			int writePos = (readPos + size) % buffer.length;
+			int count = Math.min(length - written, Math.min(buffer.length - size, buffer.length - writePos));
+			System.arraycopy(data, offset + written, buffer, writePos, count);
+			size += count;
+			written += count;
+			notifyAll();
+		}
+	}
+	
+	
+	@Override
+	public synchronized void onBodyEnd() {
+		ended = true;
+		notifyAll();
+	}
+	
+	
+	/**
+	 * the reader receives an io exception once the buffered bytes are consumed
+	 */
+	@Override
+	public synchronized void onBodyError(HttpParsingException error) {
+		this.error = error;
+		notifyAll();
+	}
+	
+	
+	private void awaitChange() {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			closed = true;
+		}
+	}
+	
+	
+	@Override
+	public synchronized int read() throws IOException {
+		byte[] single = new byte[1];
+		int count = read(single, 0, 1);
+		return count < 0 ? -1 : single[0] & 0xFF;
+	}
+	
+	
+	@Override
+	public synchronized int read(byte[] dst, int offset, int length) throws IOException {
+		if (length == 0) {
+			return 0;
+		}
+		
+		while (size == 0 && !ended && !closed && error == null) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for body data");
+			}
+		}
+		
+		if (closed) {
+			throw new IOException("stream is closed");
+		}
+		if (size == 0 && error != null) {
+			throw new IOException("the http body was rejected: " + error.getMessage(), error);
+		}
+		if (size == 0) {
+			return -1;
+		}
+		
+		int count = Math.min(length, Math.min(size, buffer.length - readPos));
+		System.arraycopy(buffer, readPos, dst, offset, count);
+		readPos = (readPos + count) % buffer.length;
+		size -= count;
+		notifyAll();
+		return count;
+	}
+	
+	
+	@Override
+	public synchronized int available() {
+		return size;
+	}
+	
+	
+	/**
+	 * closes the stream, body bytes that are received afterwards are discarded
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		size = 0;
+		notifyAll();
+	}
+	
+	
+	/**
+	 * true if the complete body was received, the stream can still hold unread bytes
+	 * @return 		true if the end of the body was received
+	 */
+	public synchronized boolean isBodyComplete() {
+		return ended;
+	}
+}
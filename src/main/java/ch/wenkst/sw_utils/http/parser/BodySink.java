@@ -0,0 +1,38 @@
+package ch.wenkst.sw_utils.http.parser;
+
+public interface BodySink {
+	
+	/**
+	 * is called as soon as body bytes of the message are received, for chunked messages only the 
+	 * payload of the chunks is passed
+	 * @param data 		array holding the body bytes, it is only valid during the call
+	 * @param offset 	index of the first body byte
+	 * @param length 	number of body bytes
+	 */
+	public void onBodyData(byte[] data, int offset, int length);
+	
+	
+	/**
+	 * is called once the complete body was received
+	 */
+	public void onBodyEnd();
+	
+	
+	/**
+	 * is called if the message is rejected while its body is received, no further body bytes follow
+	 * @param error 	the reason why the message was rejected
+	 */
+	public default void onBodyError(HttpParsingException error) {
+		
+	}
+	
+	
+	/**
+	 * the raw body bytes that are passed to a sink are limited by the maximal body size of the parser, 
+	 * a sink that limits the body itself can opt out of the limit
+	 * @return 		true if the parser should not limit the body size
+	 */
+	public default boolean isUnbounded() {
+		return false;
+	}
+}
@@ -0,0 +1,88 @@
+package ch.wenkst.sw_utils.http.parser;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+public class GrowableByteArray {
+	private byte[] bytes;
+	private int size = 0;
+
+
+	/**
+	 * primitive byte array that grows if more bytes are appended than fit into it
+	 * @param initialCapacity 	the initial capacity in bytes
+	 */
+	public GrowableByteArray(int initialCapacity) {
+		bytes = new byte[Math.max(1, initialCapacity)];
+	}
+
+
+	/**
+	 * appends a range of the passed array
+	 * @param src 		array holding the bytes to append
+	 * @param offset 	index of the first byte to append
+	 * @param length 	number of bytes to append
+	 */
+	public void append(byte[] src, int offset, int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(src, offset, bytes, size, length);
+		size += length;
+	}
+
+
+	private void ensureCapacity(int requiredCapacity) {
+		if (requiredCapacity > bytes.length) {
+			int newCapacity = Math.max(requiredCapacity, bytes.length << 1);
+			bytes = Arrays.copyOf(bytes, newCapacity);
+		}
+	}
+
+
+	/**
+	 * returns a copy of the appended bytes
+	 * @return 		array with the appended bytes
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(bytes, size);
+	}
+
+
+	/**
+	 * decodes the appended bytes with the passed charset and removes leading and trailing whitespace
+	 * @param charset 	charset of the bytes
+	 * @return 			the trimmed string
+	 */
+	public String toTrimmedString(Charset charset) {
+		int start = 0;
+		int end = size;
+		while (start < end && (bytes[start] & 0xFF) <= ' ') {
+			start++;
+		}
+		while (end > start && (bytes[end-1] & 0xFF) <= ' ') {
+			end--;
+		}
+		return new String(bytes, start, end - start, charset);
+	}
+
+
+	/**
+	 * returns the internal array, only the first size() bytes are valid
+	 * @return 		the internal array
+	 */
+	public byte[] array() {
+		return bytes;
+	}
+
+
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * removes all bytes, the capacity is kept
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
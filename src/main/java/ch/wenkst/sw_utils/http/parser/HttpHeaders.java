@@ -0,0 +1,380 @@
+package ch.wenkst.sw_utils.http.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class HttpHeaders {
+	public static final String ACCEPT = "accept";
+	public static final String ACCEPT_ENCODING = "accept-encoding";
+	public static final String ACCEPT_LANGUAGE = "accept-language";
+	public static final String AUTHORIZATION = "authorization";
+	public static final String CACHE_CONTROL = "cache-control";
+	public static final String CONNECTION = "connection";
+	public static final String CONTENT_ENCODING = "content-encoding";
+	public static final String CONTENT_LENGTH = "content-length";
+	public static final String CONTENT_RANGE = "content-range";
+	public static final String CONTENT_TYPE = "content-type";
+	public static final String COOKIE = "cookie";
+	public static final String DATE = "date";
+	public static final String ETAG = "etag";
+	public static final String HOST = "host";
+	public static final String IF_MODIFIED_SINCE = "if-modified-since";
+	public static final String IF_NONE_MATCH = "if-none-match";
+	public static final String LAST_MODIFIED = "last-modified";
+	public static final String LOCATION = "location";
+	public static final String ORIGIN = "origin";
+	public static final String RANGE = "range";
+	public static final String REFERER = "referer";
+	public static final String SERVER = "server";
+	public static final String SET_COOKIE = "set-cookie";
+	public static final String TRANSFER_ENCODING = "transfer-encoding";
+	public static final String USER_AGENT = "user-agent";
+	public static final String VARY = "vary";
+	
+	private static final int MAX_WELL_KNOWN_LENGTH = 32;
+	private static final String[][] wellKnownNames = groupByLength(
+			ACCEPT, ACCEPT_ENCODING, ACCEPT_LANGUAGE, AUTHORIZATION, CACHE_CONTROL, CONNECTION, CONTENT_ENCODING, 
+			CONTENT_LENGTH, CONTENT_RANGE, CONTENT_TYPE, COOKIE, DATE, ETAG, HOST, IF_MODIFIED_SINCE, IF_NONE_MATCH, 
+			LAST_MODIFIED, LOCATION, ORIGIN, RANGE, REFERER, SERVER, SET_COOKIE, TRANSFER_ENCODING, USER_AGENT, VARY);
+	
+	private String[] names = new String[16];
+	private String[] values = new String[16];
+	private int size = 0;
+	
+	
+	/**
+	 * header fields of a http message. the fields are parsed directly from the received bytes, well known 
+	 * names are replaced by the constants of this class so that only the values are allocated. the fields 
+	 * are kept in arrays and looked up with a case-insensitive linear search, which is faster than hashing 
+	 * for the usual number of header fields and does not allocate
+	 */
+	public HttpHeaders() {
+		
+	}
+	
+	
+	private static String[][] groupByLength(String... names) {
+		String[][] namesByLength = new String[MAX_WELL_KNOWN_LENGTH + 1][0];
+		for (String name : names) {
+			String[] group = namesByLength[name.length()];
+			group = Arrays.copyOf(group, group.length + 1);
+			group[group.length - 1] = name;
+			namesByLength[name.length()] = group;
+		}
+		return namesByLength;
+	}
+	
+	
+	/**
+	 * parses a header line and adds its field, a field with the same name replaces the previous value. 
+	 * the fields that define the body length must be unambiguous, a repeated transfer-encoding is appended 
+	 * to the previous codings
+	 * @param line 		array holding the header line
+	 * @param start 	index of the first byte of the line
+	 * @param end 		index after the last byte of the line
+	 * @return 			false if the line has no colon and no field was added
+	 * @throws HttpParsingException 	if the content-length is repeated or if the message has a content-length 
+	 * 									and a transfer-encoding
+	 */
+	public boolean parseLine(byte[] line, int start, int end) {
+		int colonIndex = indexOf(line, start, end, (byte) ':');
+		if (colonIndex < 0) {
+			return false;
+		}
+		
+		int nameStart = skipWhitespace(line, start, colonIndex);
+		int nameEnd = trimWhitespace(line, nameStart, colonIndex);
+		int valueStart = skipWhitespace(line, colonIndex + 1, end);
+		int valueEnd = trimWhitespace(line, valueStart, end);
+		
+		String name = internName(line, nameStart, nameEnd);
+		String value = new String(line, valueStart, valueEnd - valueStart, StandardCharsets.ISO_8859_1);
+		if (name == CONTENT_LENGTH || name == TRANSFER_ENCODING) {
+			setBodyLengthField(name, value);
+		} else {
+			set(name, value);
+		}
+		return true;
+	}
+	
+	
+	/**
+	 * a message whose body length can be read in two ways would be split differently by two parsers on 
+	 * the same connection (request smuggling), therefore such messages are rejected
+	 * @param name 		content-length or transfer-encoding
+	 * @param value 	the value of the field
+	 */
+	private void setBodyLengthField(String name, String value) {
+		if (name == CONTENT_LENGTH && indexOfLowerCaseName(CONTENT_LENGTH) >= 0) {
+			throw new HttpParsingException("repeated content length received: " + value, 400);
+		}
+		if (indexOfLowerCaseName(name == CONTENT_LENGTH ? TRANSFER_ENCODING : CONTENT_LENGTH) >= 0) {
+			throw new HttpParsingException("content length and transfer encoding received", 400);
+		}
+		
+		String previousCodings = name == TRANSFER_ENCODING ? get(TRANSFER_ENCODING) : null;
+		set(name, previousCodings != null ? previousCodings + ", " + value : value);
+	}
+	
+	
+	/**
+	 * returns true if the line only consists of whitespace, i.e. it is the end of the header
+	 * @param line 		array holding the line
+	 * @param start 	index of the first byte of the line
+	 * @param end 		index after the last byte of the line
+	 * @return 			true if the line is blank
+	 */
+	public static boolean isBlank(byte[] line, int start, int end) {
+		return skipWhitespace(line, start, end) == end;
+	}
+	
+	
+	/**
+	 * sets the value of a field, the name needs to be in lower case
+	 * @param name 		the lower case name of the field
+	 * @param value 	the value of the field
+	 */
+	public void set(String name, String value) {
+		int index = indexOfLowerCaseName(name);
+		if (index >= 0) {
+			values[index] = value;
+			return;
+		}
+		
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		names[size] = name;
+		values[size] = value;
+		size++;
+	}
+	
+	
+	/**
+	 * returns the value of the field with the passed name, the case of the name is ignored
+	 * @param name 		the name of the field
+	 * @return 			the value of the field or null if the field is not present
+	 */
+	public String get(String name) {
+		int index = indexOfName(name);
+		return index >= 0 ? values[index] : null;
+	}
+	
+	
+	public boolean contains(String name) {
+		return indexOfName(name) >= 0;
+	}
+	
+	
+	/**
+	 * removes the field with the passed name, the case of the name is ignored
+	 * @param name 		the name of the field
+	 * @return 			the value of the removed field or null if the field was not present
+	 */
+	public String remove(String name) {
+		int index = indexOfName(name);
+		if (index < 0) {
+			return null;
+		}
+		
+		String value = values[index];
+		System.arraycopy(names, index + 1, names, index, size - index - 1);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		names[size] = null;
+		values[size] = null;
+		return value;
+	}
+	
+	
+	/**
+	 * the stored names are in lower case, therefore a lower case name can be compared with equals which
+	 * rejects names of a different length without comparing the characters
+	 */
+	private int indexOfLowerCaseName(String name) {
+		for (int i=0; i<size; i++) {
+			if (names[i] == name || names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	
+	private int indexOfName(String name) {
+		// the well known names are interned, therefore most lookups with a constant match by identity
+		for (int i=0; i<size; i++) {
+			if (names[i] == name) {
+				return i;
+			}
+		}
+		for (int i=0; i<size; i++) {
+			if (names[i].equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	
+	/**
+	 * returns the constant of a well known name or creates the lower case name
+	 * @param data 		array holding the name
+	 * @param start 	index of the first byte of the name
+	 * @param end 		index after the last byte of the name
+	 * @return 			the lower case name
+	 */
+	static String internName(byte[] data, int start, int end) {
+		int length = end - start;
+		if (length <= MAX_WELL_KNOWN_LENGTH) {
+			for (String wellKnownName : wellKnownNames[length]) {
+				if (equalsIgnoreCase(data, start, wellKnownName)) {
+					return wellKnownName;
+				}
+			}
+		}
+		
+		byte[] lowerCaseName = new byte[length];
+		for (int i=0; i<length; i++) {
+			lowerCaseName[i] = toLowerCase(data[start + i]);
+		}
+		return new String(lowerCaseName, StandardCharsets.ISO_8859_1);
+	}
+	
+	
+	private static boolean equalsIgnoreCase(byte[] data, int start, String lowerCaseName) {
+		for (int i=0; i<lowerCaseName.length(); i++) {
+			if (toLowerCase(data[start + i]) != lowerCaseName.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	
+	private static byte toLowerCase(byte b) {
+		return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+	}
+	
+	
+	private static int indexOf(byte[] data, int start, int end, byte b) {
+		for (int i=start; i<end; i++) {
+			if (data[i] == b) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	
+	private static int skipWhitespace(byte[] data, int start, int end) {
+		while (start < end && (data[start] & 0xFF) <= ' ') {
+			start++;
+		}
+		return start;
+	}
+	
+	
+	private static int trimWhitespace(byte[] data, int start, int end) {
+		while (end > start && (data[end - 1] & 0xFF) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+	
+	
+	/**
+	 * returns the fields in the received order
+	 * @return 		map from the lower case name to the value
+	 */
+	public Map<String, String> toMap() {
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (int i=0; i<size; i++) {
+			fields.put(names[i], values[i]);
+		}
+		return fields;
+	}
+	
+	
+	/**
+	 * returns a map view of the fields that reads and writes through to this object, the names are 
+	 * converted to lower case and the iteration uses a snapshot of the fields
+	 * @return 		map view of the fields
+	 */
+	public Map<String, String> asMap() {
+		return new FieldMap();
+	}
+	
+	
+	public String getName(int index) {
+		return names[index];
+	}
+	
+	
+	public String getValue(int index) {
+		return values[index];
+	}
+	
+	
+	public int size() {
+		return size;
+	}
+	
+	
+	/**
+	 * removes all fields, the capacity is kept
+	 */
+	public void clear() {
+		Arrays.fill(names, 0, size, null);
+		Arrays.fill(values, 0, size, null);
+		size = 0;
+	}
+	
+	
+	/**
+	 * map view of the header fields
+	 */
+	private class FieldMap extends AbstractMap<String, String> {
+		@Override
+		public String get(Object name) {
+			return name instanceof String ? HttpHeaders.this.get((String) name) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object name) {
+			return name instanceof String && contains((String) name);
+		}
+
+		@Override
+		public String put(String name, String value) {
+			String previous = HttpHeaders.this.get(name);
+			set(name.toLowerCase(), value);
+			return previous;
+		}
+
+		@Override
+		public String remove(Object name) {
+			return name instanceof String ? HttpHeaders.this.remove((String) name) : null;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			HttpHeaders.this.clear();
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return toMap().entrySet();
+		}
+	}
+}
@@ -1,235 +1,459 @@
 package ch.wenkst.sw_utils.http.parser;
 
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ch.wenkst.sw_utils.conversion.Conversion;
 import ch.wenkst.sw_utils.http.HttpConstants;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
 
 public class HttpParser {
 	private static final Logger logger = LoggerFactory.getLogger(HttpParser.class);
 
 
-	private List<Byte> proccessedBytes = new ArrayList<>();
+	private GrowableByteArray lineBytes = new GrowableByteArray(256);
 	protected String firstLine = "";
+	protected HttpHeaders headers = null;
 	protected Map<String, String> headerFields = null;
-	private int contentLength = -1;
-	private List<Byte> chunkBytes = new ArrayList<>();
-	private List<Byte> bodyBytes = new ArrayList<>();
+	private long contentLength = -1;
+	private GrowableByteArray bodyBytes = new GrowableByteArray(1024);
+	private long bodyLength = 0;
+	private Function<HttpParser, BodySink> bodySinkProvider = null;
+	private BodySink bodySink = null;
+	private long maxBodySize = Long.MAX_VALUE;
+	private boolean contentDecoding = false;
+	private HttpParserLimits limits = HttpParserLimits.defaults();
+	private int headerBytes = 0;
+	private int headerLineCount = 0;
+	private HttpParsingException error = null;
 	private ParsingState state = ParsingState.NONE;
 	
 
 	// indicates if the server usded the chunked encoding (length \r\n chunk length \r\n chunk 0, 0 indicates the end of the received chunks)
 	// the length is encoded as hex
 	private boolean isChunked = false; 								
+	private ContentCoding transferCoding = null;
 	private int chunkLength = -1;
+	private int chunkBytesReceived = 0;
 
 
 
 	/**
-	 * holds methods to parse a http message
+	 * holds methods to parse a http message, the received bytes are scanned with index arithmetic and the
+	 * body is copied in bulk into a growable byte array
 	 */
 	public HttpParser() {
-		headerFields = new HashMap<>();  					
+		headers = new HttpHeaders();
+		headerFields = headers.asMap();
 	}
 
 
 
 	/**
-	 * adds the passed byte array to the data already present in the parser
+	 * adds the passed byte array to the data already present in the parser, bytes after the end of the
+	 * message are discarded. use PipelinedHttpParser to parse multiple messages
 	 * @param bytesToAdd 		new bytes that belong to this request
 	 */
 	public void addData(byte[] bytesToAdd) {
-		for (byte b : bytesToAdd) {
-			parseByte(b);
-		}	
+		int consumed = addData(bytesToAdd, 0, bytesToAdd.length);
+		processAfterBodyBytes(bytesToAdd, consumed, bytesToAdd.length);
+	}
+	
+	
+	/**
+	 * adds a range of the passed byte array to the data already present in the parser, the parser stops
+	 * at the end of the message so that the remaining bytes can be passed to the parser of the next message
+	 * @param data 		array holding the new bytes that belong to this request
+	 * @param offset 	index of the first new byte
+	 * @param length 	number of new bytes
+	 * @return 			the number of bytes that were consumed by this message
+	 * @throws HttpParsingException 	if the message is malformed or exceeds the limits, the parser stays 
+	 * 									in the error state and rejects all further data
+	 */
+	public int addData(byte[] data, int offset, int length) {
+		if (state == ParsingState.ERROR) {
+			throw error;
+		}
+		
+		int index = offset;
+		int end = offset + length;
+		try {
+			while (index < end && state != ParsingState.BODY_RECEIVED) {
+				index = parseBytes(data, index, end);
+			}
+			
+		} catch (HttpParsingException e) {
+			state = ParsingState.ERROR;
+			error = e;
+			abortBody(e);
+			throw e;
+		}
+		return index - offset;
 	}
 
 
 	/**
-	 * processes one byte of the http message depending on the state of the parser
-	 * @param b 		the byte to process
+	 * processes the bytes of the http message depending on the state of the parser
+	 * @param data 		array holding the bytes
+	 * @param index 	index of the first byte to process
+	 * @param end 		index after the last byte to process
+	 * @return 			index of the first byte that was not yet processed
 	 */
-	private void parseByte(byte b) {
+	private int parseBytes(byte[] data, int index, int end) {
 		switch (state) {
 
 		case NONE : 
-			processFirstLineByte(b);
-			break;
-
 		case FIRST_LINE_RECEIVED :
-			processHeaderByte(b);
-			break;
+			return processLineBytes(data, index, end);
 
 		case HEADER_RECEIVED :
-			processBodyByte(b);
-			break;
+			return processBodyBytes(data, index, end);
 
 		case CHUNK_LENGTH_RECEIVED :
-			processChunkedBodyByte(b);
-			break;
-
-		case BODY_RECEIVED : 
-			processAfterBodyBytes(b);
-			break;
+		default:
+			return processChunkedBodyBytes(data, index, end);
 		}
 	}
 	
 	
 	/**
-	 * processes a byte of the first line in the http request
-	 * @param b	byte to process
+	 * collects the bytes of a line, the line is parsed as soon as the line feed is found
+	 * @param data 		array holding the bytes
+	 * @param index 	index of the first byte to process
+	 * @param end 		index after the last byte to process
+	 * @return 			index of the first byte that was not yet processed
 	 */
-	private void processFirstLineByte(byte b) {
-		if (b == HttpConstants.LINE_FEED_BYTE) {
-			parseFirstLine();
-		} else {
-			proccessedBytes.add(b);
+	private int processLineBytes(byte[] data, int index, int end) {
+		int lineFeedIndex = indexOfLineFeed(data, index, end);
+		int lineLength = lineBytes.size() + (lineFeedIndex < 0 ? end : lineFeedIndex) - index;
+		checkLineLength(lineLength, lineFeedIndex >= 0);
+		
+		if (lineFeedIndex < 0) {
+			lineBytes.append(data, index, end - index);
+			return end;
+		}
+		
+		if (state == ParsingState.FIRST_LINE_RECEIVED) {
+			processHeaderLine(data, index, lineFeedIndex);
+			return lineFeedIndex + 1;
+		}
+		
+		lineBytes.append(data, index, lineFeedIndex - index);
+		String line = lineBytes.toTrimmedString(StandardCharsets.US_ASCII);
+		lineBytes.clear();
+		parseLine(line);
+		return lineFeedIndex + 1;
+	}
+	
+	
+	/**
+	 * parses a header line in place if it was received with one read, otherwise the collected bytes are parsed
+	 * @param data 		array holding the end of the line
+	 * @param index 	index of the first byte of the line in data
+	 * @param lineEnd 	index of the line feed
+	 */
+	private void processHeaderLine(byte[] data, int index, int lineEnd) {
+		if (lineBytes.size() == 0) {
+			parseHeaderLine(data, index, lineEnd);
+			return;
+		}
+		
+		lineBytes.append(data, index, lineEnd - index);
+		parseHeaderLine(lineBytes.array(), 0, lineBytes.size());
+		lineBytes.clear();
+	}
+	
+	
+	/**
+	 * checks the length of the current line and the total length of the first line and header
+	 * @param lineLength 		number of bytes of the line received so far
+	 * @param lineComplete 		true if the line feed of the line was received
+	 */
+	private void checkLineLength(int lineLength, boolean lineComplete) {
+		boolean inHeader = state == ParsingState.NONE || state == ParsingState.FIRST_LINE_RECEIVED;
+		int status = state == ParsingState.NONE ? 414 : (inHeader ? 431 : 400);
+		if (lineLength > limits.getMaxLineLength()) {
+			throw new HttpParsingException("line longer than " + limits.getMaxLineLength() + " bytes received", status);
+		}
+		
+		if (!inHeader) {
+			return;
+		}
+		if (headerBytes + lineLength > limits.getMaxHeaderBytes()) {
+			throw new HttpParsingException("header longer than " + limits.getMaxHeaderBytes() + " bytes received", 431);
+		}
+		if (lineComplete) {
+			headerBytes += lineLength + 1;
 		}
 	}
 	
 	
-	private void parseFirstLine() {
-		String line = processedBytesToString();
-		extractFirstLineStatus(line);
-		proccessedBytes.clear();
+	private static int indexOfLineFeed(byte[] data, int index, int end) {
+		for (int i=index; i<end; i++) {
+			if (data[i] == HttpConstants.LINE_FEED_BYTE) {
+				return i;
+			}
+		}
+		return -1;
 	}
 	
 	
-	private String processedBytesToString() {
-		byte[] bytesLine = Conversion.arrayListToByteArray(proccessedBytes);
-		String line = new String(bytesLine, StandardCharsets.US_ASCII);
-		return line.trim();
+	private void parseLine(String line) {
+		switch (state) {
+		case NONE:
+			extractFirstLineStatus(line);
+			break;
+			
+		default:
+			parseChunkSize(line);
+			break;
+		}
 	}
 	
 	
 	private void extractFirstLineStatus(String line) {
 		if (line.contains(HttpConstants.PROTOCOL)) {
 			firstLine = line;
+			parseFirstLine(line);
 			state = ParsingState.FIRST_LINE_RECEIVED;
 		}
 	}
 	
 	
 	/**
-	 * processes a byte in the header part of the http request
-	 * @param b		byte to process
+	 * parses and validates the request or status line as soon as it is received
+	 * @param line 		the first line of the message
+	 * @throws HttpParsingException 	if the line is malformed
 	 */
-	private void processHeaderByte(byte b) {
-		if (b == HttpConstants.LINE_FEED_BYTE) {
-			parseHeaderLine();
-		} else {
-			proccessedBytes.add(b);
-		}
+	protected void parseFirstLine(String line) {
+		
 	}
 	
 	
-	private void parseHeaderLine() {
-		String line = processedBytesToString();
-		if (line.isEmpty()) {
-			dealWithEmptyHeaderLine();	
-		} else {
-			extractHeaderField(line);
-		}			
-		proccessedBytes.clear(); 
+	private void parseHeaderLine(byte[] line, int start, int end) {
+		if (HttpHeaders.isBlank(line, start, end)) {
+			dealWithEmptyHeaderLine();
+			
+		} else if (!headers.parseLine(line, start, end)) {
+			throw new HttpParsingException("invalid http header line without a colon: " + new String(line, start, end - start, StandardCharsets.US_ASCII), 400);
+			
+		} else if (++headerLineCount > limits.getMaxHeaderCount()) {
+			throw new HttpParsingException("more than " + limits.getMaxHeaderCount() + " header fields received", 431);
+		}
 	}
 	
 	
 	private void dealWithEmptyHeaderLine() {
 		extractContentLength();
 		checkForChunkedMessages();
-		if (contentLength == 0) {
-			state = ParsingState.BODY_RECEIVED;
+		if (!hasMessageBody()) {
+			completeBody();
+			return;
+		}
+		
+		if (bodySinkProvider != null) {
+			bodySink = bodySinkProvider.apply(this);
+		}
+		maxBodySize = bodySink != null && bodySink.isUnbounded() ? Long.MAX_VALUE : limits.getMaxBodySize();
+		if (contentLength > maxBodySize) {
+			throw new HttpParsingException("content length " + contentLength + " exceeds the maximal body size", 413);
+		}
+		
+		ContentCoding coding = contentDecoding ? ContentCoding.fromToken(headers.get(HttpHeaders.CONTENT_ENCODING)) : null;
+		if (coding != null) {
+			bodySink = new InflatingBodySink(coding, bodySink != null ? bodySink : new BodyBufferSink(), maxBodySize);
+		}
+		
+		// the transfer coding is always removed, the content coding is only removed if the decoding is enabled
+		if (transferCoding != null) {
+			bodySink = new InflatingBodySink(transferCoding, bodySink != null ? bodySink : new BodyBufferSink(), maxBodySize);
+		}
+		
+		if (contentLength == 0 || (contentLength < 0 && !isChunked && !bodyEndsWithConnectionClose())) {
+			completeBody();
 		} else {
 			state = ParsingState.HEADER_RECEIVED;
 		} 	
 	}
 	
 	
-	private void extractHeaderField(String line) {
-		String[] parts = line.split(":");
-		headerFields.put(parts[0].trim().toLowerCase(), parts[1].trim());
+	/**
+	 * marks the message as complete and informs the body sink
+	 */
+	private void completeBody() {
+		state = ParsingState.BODY_RECEIVED;
+		if (bodySink != null) {
+			bodySink.onBodyEnd();
+		}
 	}
 	
 	
 	/**
-	 * processes a byte in the http body
-	 * @param b		the byte to process
+	 * informs the body sink that the message was rejected, the sink does not receive further bytes
 	 */
-	private void processBodyByte(byte b) {
-		if (isChunked) {
-			processChunkSizeByte(b);
+	private void abortBody(HttpParsingException e) {
+		if (bodySink != null) {
+			BodySink abortedSink = bodySink;
+			bodySink = null;
+			abortedSink.onBodyError(e);
+		}
+	}
+	
+	
+	/**
+	 * passes the body bytes to the body sink or buffers them if no sink is set, the body length counts 
+	 * the received bytes and not the decoded bytes. the received bytes are limited by the maximal body 
+	 * size unless the body sink opted out of the limit
+	 */
+	private void appendBody(byte[] data, int offset, int length) {
+		if (bodyLength + length > maxBodySize) {
+			throw new HttpParsingException("body larger than " + limits.getMaxBodySize() + " bytes received", 413);
+		}
+		
+		bodyLength += length;
+		if (bodySink != null) {
+			bodySink.onBodyData(data, offset, length);
 		} else {
-			processRegularBodyByte(b);
+			bodyBytes.append(data, offset, length);
 		}
 	}
 	
 	
-	private void processChunkSizeByte(byte b) {
-		if (b == HttpConstants.LINE_FEED_BYTE) {			
-			parseChunkSize();
+	/**
+	 * processes bytes in the http body
+	 * @param data 		array holding the bytes
+	 * @param index 	index of the first byte to process
+	 * @param end 		index after the last byte to process
+	 * @return 			index of the first byte that was not yet processed
+	 */
+	private int processBodyBytes(byte[] data, int index, int end) {
+		if (isChunked) {
+			return processLineBytes(data, index, end);
 		} else {
-			proccessedBytes.add(b);
+			return processRegularBodyBytes(data, index, end);
 		}
 	}
 	
 	
-	private void parseChunkSize() {
-		String line = processedBytesToString();
+	private void parseChunkSize(String line) {
 		if (!line.isEmpty()) {
-			chunkLength = Integer.parseInt(line, 16);
-			proccessedBytes.clear(); 
+			int extensionIndex = line.indexOf(';');
+			String chunkSize = extensionIndex < 0 ? line : line.substring(0, extensionIndex).trim();
+			chunkLength = checkedChunkLength(chunkSize);
+			chunkBytesReceived = 0;
 			updateStateFromCurrentChunkLength();
 		}
 	}
 	
 	
+	/**
+	 * parses the hex chunk size, sizes that do not fit into the remaining body size are rejected before
+	 * any byte of the chunk is received
+	 * @param chunkSize 	the hex chunk size
+	 * @return 				the chunk length
+	 */
+	private int checkedChunkLength(String chunkSize) {
+		if (chunkSize.isEmpty() || chunkSize.length() > 8 || !isHex(chunkSize)) {
+			throw new HttpParsingException("invalid chunk size: " + chunkSize, 400);
+		}
+		
+		long length = Long.parseLong(chunkSize, 16);
+		if (length > Integer.MAX_VALUE || bodyLength + length > maxBodySize) {
+			throw new HttpParsingException("chunk of " + length + " bytes exceeds the maximal body size", 413);
+		}
+		return (int) length;
+	}
+	
+	
+	private static boolean isHex(String str) {
+		for (int i=0; i<str.length(); i++) {
+			if (Character.digit(str.charAt(i), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	
 	private void updateStateFromCurrentChunkLength() {
 		if (chunkLength == 0) {
-			state = ParsingState.BODY_RECEIVED;			// a chunk length of 0 means that the complete body was received
+			completeBody();								// a chunk length of 0 means that the complete body was received
 		} else {
 			state = ParsingState.CHUNK_LENGTH_RECEIVED;
 		}
 	}
 	
 	
-	private void processRegularBodyByte(byte b) {
-		bodyBytes.add(b);
-		if (bodyBytes.size() == contentLength) {												
-			state = ParsingState.BODY_RECEIVED;
+	private int processRegularBodyBytes(byte[] data, int index, int end) {
+		if (contentLength < 0) {
+			// the body ends when the connection is closed
+			appendBody(data, index, end - index);
+			return end;
 		}
+		
+		int length = (int) Math.min(end - index, contentLength - bodyLength);
+		appendBody(data, index, length);
+		if (bodyLength == contentLength) {												
+			completeBody();
+		}
+		return index + length;
 	}
 	
 	
 	/**
-	 * processes a body byte of a http request that uses the chunked encoding
-	 * @param b		byte to process
+	 * processes body bytes of a http request that uses the chunked encoding
+	 * @param data 		array holding the bytes
+	 * @param index 	index of the first byte to process
+	 * @param end 		index after the last byte to process
+	 * @return 			index of the first byte that was not yet processed
 	 */
-	private void processChunkedBodyByte(byte b) {
-		chunkBytes.add(b);
-		if (chunkBytes.size() == chunkLength) {
-			bodyBytes.addAll(chunkBytes);
-			chunkBytes.clear();
+	private int processChunkedBodyBytes(byte[] data, int index, int end) {
+		int length = Math.min(end - index, chunkLength - chunkBytesReceived);
+		appendBody(data, index, length);
+		chunkBytesReceived += length;
+		if (chunkBytesReceived == chunkLength) {
 			state = ParsingState.HEADER_RECEIVED;
 		}
+		return index + length;
+	}
+	
+	
+	/**
+	 * defines if the message has a body, a message without body is complete after its header even if
+	 * it contains a content length or a transfer encoding
+	 * @return 		true if the message can have a body
+	 */
+	protected boolean hasMessageBody() {
+		return true;
+	}
+	
+	
+	/**
+	 * defines how a message without content length that is not chunked ends
+	 * @return 		true if the body is read until the connection is closed, false if the message has no body
+	 */
+	protected boolean bodyEndsWithConnectionClose() {
+		return true;
 	}
 	
 	
 	/**
 	 * processes bytes that are received after the full body was received, this should not happen if 
 	 * the http protocol is correctly followed
-	 * @param b		the byte to process
+	 * @param data 		array holding the bytes
+	 * @param index 	index of the first byte to process
+	 * @param end 		index after the last byte to process
 	 */
-	private void processAfterBodyBytes(byte b) {
+	private void processAfterBodyBytes(byte[] data, int index, int end) {
 		// in the chunked encoding the last chunk is ended with \r\n, therefore only print the error if there is some other data
-		if (noNewLineByte(b)) {
-			logger.error("more than the full http-content was received");
+		for (int i=index; i<end; i++) {
+			if (noNewLineByte(data[i])) {
+				logger.error("more than the full http-content was received");
+				break;
+			}
 		}
 	}
 	
@@ -240,14 +464,28 @@ public class HttpParser {
 	
 	
 	private void extractContentLength() {
-		String contentLengthStr = headerFields.get("content-length");
-		try {
-			if (contentLengthStr != null) {
-				contentLength = Integer.parseInt(contentLengthStr);
+		String contentLengthStr = headers.get(HttpHeaders.CONTENT_LENGTH);
+		if (contentLengthStr == null) {
+			return;
+		}
+		
+		if (contentLengthStr.startsWith("-")) {
+			throw new HttpParsingException("negative content length: " + contentLengthStr, 400);
+		}
+		if (contentLengthStr.isEmpty() || contentLengthStr.length() > 18 || !isDecimal(contentLengthStr)) {
+			throw new HttpParsingException("invalid content length: " + contentLengthStr, 400);
+		}
+		contentLength = Long.parseLong(contentLengthStr);
+	}
+	
+	
+	private static boolean isDecimal(String str) {
+		for (int i=0; i<str.length(); i++) {
+			if (str.charAt(i) < '0' || str.charAt(i) > '9') {
+				return false;
 			}
-		} catch (Exception e) {
-			logger.error("error parsing the content length header field: ", e);
 		}
+		return true;
 	}
 	
 	
@@ -255,7 +493,10 @@ public class HttpParser {
 		if (contentLength < 0) {
 			logger.debug("content length was not found in the header");
 
-			isChunked = isChunked();
+			String transferEncoding = headers.get(HttpHeaders.TRANSFER_ENCODING);
+			if (transferEncoding != null) {
+				parseTransferCodings(transferEncoding);
+			}
 			if (!isChunked) {
 				logger.debug("http message has no content length and is not chunked");
 			}
@@ -264,16 +505,29 @@ public class HttpParser {
 
 
 	/**
-	 * reads then transfer encoding from the header fields and returns true if it is set to chunked, if not present false it returned
-	 * @return 		true id the transfer encoding is chunked, false otherwise
+	 * parses the transfer codings, the message is only chunked if chunked is the last coding. a gzip or 
+	 * deflate transfer coding is decoded, other codings are not supported
+	 * @param transferEncoding 		the value of the transfer-encoding field
 	 */
-	private boolean isChunked() {
-		String transferEncoding = headerFields.get("transfer-encoding");
+	private void parseTransferCodings(String transferEncoding) {
+		String[] codings = transferEncoding.split(",");
+		isChunked = codings[codings.length - 1].trim().equalsIgnoreCase("chunked");
 		
-		return (transferEncoding != null && transferEncoding.equals("chunked"));
+		// the length of a request is unknown if it is not chunked, a response is read until the connection is closed
+		if (!isChunked && !bodyEndsWithConnectionClose()) {
+			throw new HttpParsingException("transfer encoding without chunked as last coding: " + transferEncoding, 400);
+		}
+		
+		int codingCount = isChunked ? codings.length - 1 : codings.length;
+		if (codingCount == 1) {
+			transferCoding = ContentCoding.fromToken(codings[0]);
+		}
+		if (codingCount > 1 || (codingCount == 1 && transferCoding == null)) {
+			throw new HttpParsingException("unsupported transfer encoding: " + transferEncoding, 501);
+		}
 	}
-
-
+	
+	
 	/**
 	 * returns true if the http message is complete and false otherwise
 	 * @return 		true if the http message is complete, false otherwise
@@ -290,11 +544,18 @@ public class HttpParser {
 	public void clearAfterFullMessage() {
 		state = ParsingState.NONE;
 
-		headerFields = new HashMap<>();  				
+		headers.clear();
 		contentLength = -1; 				
-		bodyBytes = new ArrayList<>(); 
+		headerBytes = 0;
+		headerLineCount = 0;
+		bodyBytes = new GrowableByteArray(1024); 
+		bodyLength = 0;
+		bodySink = null;
+		maxBodySize = Long.MAX_VALUE;
 		isChunked = false;
+		transferCoding = null;
 		chunkLength = -1;
+		chunkBytesReceived = 0;
 	}
 
 
@@ -305,8 +566,8 @@ public class HttpParser {
 	 */
 	public boolean fullMessageReceived() {
 		if (state == ParsingState.HEADER_RECEIVED) {
-			proccessedBytes.clear();
-			state = ParsingState.BODY_RECEIVED;
+			lineBytes.clear();
+			completeBody();
 			return true;
 
 		} else {
@@ -322,16 +583,102 @@ public class HttpParser {
 	 * @return 		the value of the header field or null if the field is not present
 	 */
 	public String getHeaderField(String prop) {
-		prop = prop.toLowerCase();
-		return headerFields.get(prop);
+		return headers.get(prop);
+	}
+	
+	
+	/**
+	 * returns the header fields of the message
+	 * @return 		the header fields
+	 */
+	public HttpHeaders getHeaders() {
+		return headers;
 	}
 
 
+	/**
+	 * streams the body of the message to the passed sink instead of buffering it in memory, needs to be
+	 * set before the header is complete
+	 * @param bodySink 		the sink that receives the body bytes as they arrive
+	 */
+	public void setBodySink(BodySink bodySink) {
+		setBodySinkProvider(parser -> bodySink);
+	}
+	
+	
+	/**
+	 * the provider is called as soon as the header of a message is received and decides where the body
+	 * is streamed to, e.g. depending on the request uri or the content type. the body is buffered in memory
+	 * if the provider returns null
+	 * @param bodySinkProvider 		provides the sink for the body of the parsed message
+	 */
+	public void setBodySinkProvider(Function<HttpParser, BodySink> bodySinkProvider) {
+		this.bodySinkProvider = bodySinkProvider;
+	}
+	
+	
+	/**
+	 * enables the decoding of gzip and deflate bodies, the body bytes and the body sink receive the
+	 * decoded body while the header fields still contain the content-encoding of the received message
+	 * @param contentDecoding 	true to decode the body according to its content-encoding
+	 */
+	public void setContentDecoding(boolean contentDecoding) {
+		this.contentDecoding = contentDecoding;
+	}
+	
+	
+	/**
+	 * sets the limits that are checked while the message is parsed
+	 * @param limits 	the limits of the message
+	 */
+	public void setLimits(HttpParserLimits limits) {
+		this.limits = limits;
+	}
+	
+	
+	/**
+	 * true if the header of the message is completely received
+	 * @return 		true if the header was received
+	 */
+	public boolean isHeaderComplete() {
+		return state == ParsingState.HEADER_RECEIVED || state == ParsingState.CHUNK_LENGTH_RECEIVED || state == ParsingState.BODY_RECEIVED;
+	}
+	
+	
+	/**
+	 * returns the number of body bytes received so far, also if the body is streamed to a sink
+	 * @return 		the received body length in bytes
+	 */
+	public long getBodyLength() {
+		return bodyLength;
+	}
+	
+
+	public ParsingState getState() {
+		return state;
+	}
+
 	public byte[] getBodyBytes() {
-		return Conversion.arrayListToByteArray(bodyBytes);
+		return bodyBytes.toByteArray();
 	}
 
 	public String getBodyStr() {
 		return new String(getBodyBytes(), StandardCharsets.US_ASCII);
 	}
+	
+	
+	/**
+	 * collects the decoded body in the body bytes of the parser
+	 */
+	private class BodyBufferSink implements BodySink {
+		@Override
+		public void onBodyData(byte[] data, int offset, int length) {
+			bodyBytes.append(data, offset, length);
+		}
+		
+		@Override
+		public void onBodyEnd() {
+			
+		}
+	}
 }
@@ -0,0 +1,73 @@
+package ch.wenkst.sw_utils.http.parser;
+
+public class HttpParserLimits {
+	public static final int DEFAULT_MAX_LINE_LENGTH = 8192;
+	public static final int DEFAULT_MAX_HEADER_COUNT = 100;
+	public static final int DEFAULT_MAX_HEADER_BYTES = 65536;
+	public static final long DEFAULT_MAX_BODY_SIZE = 64L * 1024 * 1024;
+	
+	private static final HttpParserLimits defaultLimits = new HttpParserLimits();
+	
+	private final int maxLineLength;
+	private final int maxHeaderCount;
+	private final int maxHeaderBytes;
+	private final long maxBodySize;
+	
+	
+	/**
+	 * limits with the default values
+	 */
+	public HttpParserLimits() {
+		this(DEFAULT_MAX_LINE_LENGTH, DEFAULT_MAX_HEADER_COUNT, DEFAULT_MAX_HEADER_BYTES, DEFAULT_MAX_BODY_SIZE);
+	}
+	
+	
+	/**
+	 * limits of a http message that are checked while the message is parsed, a message that exceeds a limit 
+	 * is rejected as soon as the limit is exceeded so that the parser never buffers more than the limits
+	 * @param maxLineLength 	maximal length of the first line, a header line or a chunk size line in bytes
+	 * @param maxHeaderCount 	maximal number of header fields
+	 * @param maxHeaderBytes 	maximal length of the first line and the header in bytes
+	 * @param maxBodySize 		maximal size of the body in bytes, for encoded bodies also of the decoded body
+	 */
+	public HttpParserLimits(int maxLineLength, int maxHeaderCount, int maxHeaderBytes, long maxBodySize) {
+		this.maxLineLength = maxLineLength;
+		this.maxHeaderCount = maxHeaderCount;
+		this.maxHeaderBytes = maxHeaderBytes;
+		this.maxBodySize = maxBodySize;
+	}
+	
+	
+	/**
+	 * returns the limits with the default values that are used by parsers without own limits
+	 * @return 		the default limits
+	 */
+	public static HttpParserLimits defaults() {
+		return defaultLimits;
+	}
+	
+	
+	public HttpParserLimits withMaxBodySize(long maxBodySize) {
+		return new HttpParserLimits(maxLineLength, maxHeaderCount, maxHeaderBytes, maxBodySize);
+	}
+	
+	
+	public int getMaxLineLength() {
+		return maxLineLength;
+	}
+	
+	
+	public int getMaxHeaderCount() {
+		return maxHeaderCount;
+	}
+	
+	
+	public int getMaxHeaderBytes() {
+		return maxHeaderBytes;
+	}
+	
+	
+	public long getMaxBodySize() {
+		return maxBodySize;
+	}
+}
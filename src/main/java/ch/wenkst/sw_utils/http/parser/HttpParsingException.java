@@ -0,0 +1,23 @@
+package ch.wenkst.sw_utils.http.parser;
+
+public class HttpParsingException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	private int status;
+	
+	
+	/**
+	 * a received http message is malformed or exceeds a limit of the parser
+	 * @param message 	description of the error
+	 * @param status 	the http status that a server should answer, e.g. 400, 413 or 431
+	 */
+	public HttpParsingException(String message, int status) {
+		super(message);
+		this.status = status;
+	}
+	
+	
+	public int getStatus() {
+		return status;
+	}
+}
@@ -38,6 +38,28 @@ public class HttpRequestParser extends HttpParser {
 	}
 	
 	
+	/**
+	 * validates the request line, e.g. GET /index.html HTTP/1.1
+	 * @param line 		the request line
+	 */
+	@Override
+	protected void parseFirstLine(String line) {
+		String[] parts = line.split(" ");
+		if (parts.length != 3 || parts[0].isEmpty() || parts[1].isEmpty() || !parts[2].startsWith("HTTP/")) {
+			throw new HttpParsingException("invalid request line: " + line, 400);
+		}
+	}
+	
+	
+	/**
+	 * a request without content length and transfer encoding has no body
+	 */
+	@Override
+	protected boolean bodyEndsWithConnectionClose() {
+		return false;
+	}
+	
+	
 	@Override
 	public void clearAfterFullMessage() {
 		super.clearAfterFullMessage();
@@ -1,8 +1,11 @@
 package ch.wenkst.sw_utils.http.parser;
 
+import ch.wenkst.sw_utils.http.HttpConstants;
+
 public class HttpResponseParser extends HttpParser {
 	private int status = -1;
 	private String statusTxt = null;
+	private String requestMethod = null;
 
 
 	/**
@@ -23,32 +26,57 @@ public class HttpResponseParser extends HttpParser {
 
 
 	public int getStatus() {
-		if (statusTxt == null) {
-			parseStatusLine();
-		}
-		
 		return status;
 	}
 
 	
 	public String getStatusTxt() {
-		if (statusTxt == null) {
-			parseStatusLine();
-		}
-		
 		return statusTxt;
 	}
 	
 	
-	private void parseStatusLine() {
-		String[] parts = firstLine.split(" ");
-		status = Integer.parseInt(parts[1]);
+	/**
+	 * parses the status line, e.g. HTTP/1.1 200 OK, the reason phrase is optional
+	 * @param line 		the status line
+	 */
+	@Override
+	protected void parseFirstLine(String line) {
+		String[] parts = line.split(" ", 3);
+		if (parts.length < 2 || !parts[0].startsWith("HTTP/") || parts[1].length() != 3 || !isStatusCode(parts[1])) {
+			throw new HttpParsingException("invalid status line: " + line, 400);
+		}
 		
-		statusTxt = "";
-		for (int i=2; i<parts.length; i++) {
-			statusTxt = statusTxt + parts[i] + " ";
+		status = Integer.parseInt(parts[1]);
+		statusTxt = parts.length > 2 ? parts[2].trim() : "";
+	}
+	
+	
+	private static boolean isStatusCode(String str) {
+		for (int i=0; i<str.length(); i++) {
+			if (str.charAt(i) < '0' || str.charAt(i) > '9') {
+				return false;
+			}
 		}
-		statusTxt = statusTxt.trim();
+		return str.charAt(0) >= '1' && str.charAt(0) <= '5';
+	}
+	
+	
+	/**
+	 * sets the method of the request the parsed response belongs to, the response to a head request has no body
+	 * @param requestMethod 	the method of the request, null if unknown
+	 */
+	public void setRequestMethod(String requestMethod) {
+		this.requestMethod = requestMethod;
+	}
+	
+	
+	/**
+	 * informational, 204 and 304 responses and the responses to head requests have no body
+	 */
+	@Override
+	protected boolean hasMessageBody() {
+		int status = getStatus();
+		return status >= 200 && status != 204 && status != 304 && !HttpConstants.HEAD.equals(requestMethod);
 	}
 	
 	
@@ -0,0 +1,242 @@
+package ch.wenkst.sw_utils.http.parser;
+
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
+
+class InflatingBodySink implements BodySink {
+	private static final int GZIP_HEADER_LENGTH = 10;
+	private static final int GZIP_TRAILER_LENGTH = 8;
+	private static final int MAX_GZIP_HEADER_LENGTH = 16384;
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+	
+	private ContentCoding coding;
+	private BodySink target;
+	private Inflater inflater = null;
+	private GrowableByteArray pendingBytes = new GrowableByteArray(64);
+	private GrowableByteArray trailerBytes = new GrowableByteArray(GZIP_TRAILER_LENGTH);
+	private byte[] outputBuffer = new byte[8192];
+	private CRC32 crc = new CRC32();
+	private long decodedLength = 0;
+	private long maxDecodedLength;
+	
+	
+	/**
+	 * decodes a gzip or deflate encoded body while it is received and passes the decoded bytes to the target
+	 * @param coding 				the content coding of the body
+	 * @param target 				sink that receives the decoded body
+	 * @param maxDecodedLength 		maximal length of the decoded body, protects against compression bombs
+	 */
+	InflatingBodySink(ContentCoding coding, BodySink target, long maxDecodedLength) {
+		this.coding = coding;
+		this.target = target;
+		this.maxDecodedLength = maxDecodedLength;
+	}
+	
+	
+	@Override
+	public void onBodyData(byte[] data, int offset, int length) {
+		if (inflater != null) {
+			inflate(data, offset, length);
+			return;
+		}
+		
+		// the header of the encoded body is collected until the inflater can be created
+		pendingBytes.append(data, offset, length);
+		int headerLength = coding == ContentCoding.GZIP ? 
+				gzipHeaderLength(pendingBytes.array(), pendingBytes.size()) : 
+				zlibHeaderCheck(pendingBytes.array(), pendingBytes.size());
+		if (headerLength < 0) {
+			if (pendingBytes.size() > MAX_GZIP_HEADER_LENGTH) {
+				throw new HttpParsingException("gzip header longer than " + MAX_GZIP_HEADER_LENGTH + " bytes", 400);
+			}
+			return;
+		}
+		
+		inflater = new Inflater(nowrap());
+		inflate(pendingBytes.array(), headerLength, pendingBytes.size() - headerLength);
+		pendingBytes.clear();
+	}
+	
+	
+	/**
+	 * gzip bodies and deflate bodies without zlib header are raw deflate streams
+	 * @return 		true if the inflater should not expect a zlib header
+	 */
+	private boolean nowrap() {
+		if (coding == ContentCoding.GZIP) {
+			return true;
+		}
+		
+		byte[] header = pendingBytes.array();
+		return !isZlibHeader(header[0], header[1]);
+	}
+	
+	
+	/**
+	 * some servers send raw deflate streams for the deflate coding, a zlib header uses the deflate method
+	 * and its first two bytes are a multiple of 31
+	 */
+	private static boolean isZlibHeader(byte cmf, byte flg) {
+		return (cmf & 0x0f) == 8 && (((cmf & 0xff) << 8) | (flg & 0xff)) % 31 == 0;
+	}
+	
+	
+	private static int zlibHeaderCheck(byte[] data, int size) {
+		return size < 2 ? -1 : 0;
+	}
+	
+	
+	/**
+	 * returns the length of the gzip header
+	 * @param data 		array holding the first bytes of the body
+	 * @param size 		number of received bytes
+	 * @return 			the length of the header or -1 if the header is not yet complete
+	 */
+	private static int gzipHeaderLength(byte[] data, int size) {
+		if (size < GZIP_HEADER_LENGTH) {
+			return -1;
+		}
+		if (data[0] != 0x1f || data[1] != (byte) 0x8b || data[2] != 8) {
+			throw new HttpParsingException("invalid gzip header in the http body", 400);
+		}
+		
+		int flags = data[3] & 0xff;
+		int index = GZIP_HEADER_LENGTH;
+		if ((flags & FEXTRA) != 0) {
+			if (size < index + 2) {
+				return -1;
+			}
+			index += 2 + ((data[index] & 0xff) | ((data[index + 1] & 0xff) << 8));
+		}
+		if ((flags & FNAME) != 0) {
+			index = indexAfterZero(data, index, size);
+		}
+		if ((flags & FCOMMENT) != 0) {
+			index = indexAfterZero(data, index, size);
+		}
+		if ((flags & FHCRC) != 0) {
+			index += 2;
+		}
+		
+		return index >= 0 && index <= size ? index : -1;
+	}
+	
+	
+	private static int indexAfterZero(byte[] data, int index, int size) {
+		if (index < 0) {
+			return -1;
+		}
+		for (int i=index; i<size; i++) {
+			if (data[i] == 0) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+	
+	
+	private void inflate(byte[] data, int offset, int length) {
+		if (inflater.finished()) {
+			appendTrailer(data, offset, length);
+			return;
+		}
+		
+		inflater.setInput(data, offset, length);
+		try {
+			while (true) {
+				int len = inflater.inflate(outputBuffer);
+				if (len > 0) {
+					crc.update(outputBuffer, 0, len);
+					decodedLength += len;
+					if (decodedLength > maxDecodedLength) {
+						throw new HttpParsingException("decoded body larger than " + maxDecodedLength + " bytes", 413);
+					}
+					target.onBodyData(outputBuffer, 0, len);
+					
+				} else if (inflater.finished() || inflater.needsInput()) {
+					break;
+					
+				} else if (inflater.needsDictionary()) {
+					throw new HttpParsingException("deflate body with a preset dictionary is not supported", 400);
+				}
+			}
+			
+		} catch (DataFormatException e) {
+			throw new HttpParsingException("invalid " + coding.getToken() + " body: " + e.getMessage(), 400);
+		}
+		
+		if (inflater.finished()) {
+			int remaining = inflater.getRemaining();
+			appendTrailer(data, offset + length - remaining, remaining);
+		}
+	}
+	
+	
+	/**
+	 * collects the gzip trailer after the end of the deflate stream, any other data after the stream is rejected
+	 */
+	private void appendTrailer(byte[] data, int offset, int length) {
+		int trailerLength = coding == ContentCoding.GZIP ? GZIP_TRAILER_LENGTH - trailerBytes.size() : 0;
+		if (length > trailerLength) {
+			throw new HttpParsingException("data after the end of the " + coding.getToken() + " body received", 400);
+		}
+		trailerBytes.append(data, offset, length);
+	}
+	
+	
+	@Override
+	public void onBodyEnd() {
+		try {
+			if (inflater == null) {
+				if (pendingBytes.size() > 0) {
+					throw new HttpParsingException("incomplete " + coding.getToken() + " body received", 400);
+				}
+				
+			} else if (!inflater.finished()) {
+				throw new HttpParsingException("incomplete " + coding.getToken() + " body received", 400);
+				
+			} else if (coding == ContentCoding.GZIP) {
+				checkGzipTrailer();
+			}
+			
+		} finally {
+			if (inflater != null) {
+				inflater.end();
+			}
+		}
+		
+		target.onBodyEnd();
+	}
+	
+	
+	@Override
+	public void onBodyError(HttpParsingException error) {
+		if (inflater != null) {
+			inflater.end();
+		}
+		target.onBodyError(error);
+	}
+	
+	
+	private void checkGzipTrailer() {
+		if (trailerBytes.size() < GZIP_TRAILER_LENGTH) {
+			throw new HttpParsingException("gzip body without trailer received", 400);
+		}
+		
+		byte[] trailer = trailerBytes.array();
+		if (readIntLE(trailer, 0) != (int) crc.getValue() || readIntLE(trailer, 4) != (int) decodedLength) {
+			throw new HttpParsingException("crc or size of the gzip body does not match", 400);
+		}
+	}
+	
+	
+	private static int readIntLE(byte[] data, int index) {
+		return (data[index] & 0xff) | ((data[index + 1] & 0xff) << 8) | ((data[index + 2] & 0xff) << 16) | ((data[index + 3] & 0xff) << 24);
+	}
+}
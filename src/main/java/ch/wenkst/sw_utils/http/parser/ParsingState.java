@@ -5,5 +5,6 @@ public enum ParsingState {
 	FIRST_LINE_RECEIVED,
 	HEADER_RECEIVED,
 	CHUNK_LENGTH_RECEIVED,
-	BODY_RECEIVED
+	BODY_RECEIVED,
+	ERROR
 }
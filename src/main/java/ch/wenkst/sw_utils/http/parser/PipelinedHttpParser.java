@@ -0,0 +1,123 @@
+package ch.wenkst.sw_utils.http.parser;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+public class PipelinedHttpParser<T extends HttpParser> {
+	private Supplier<T> parserFactory;
+	private T currentParser;
+	private Queue<T> completedMessages = new ArrayDeque<>();
+
+
+	/**
+	 * parses a stream of http messages that are sent back to back on the same connection (http/1.1 pipelining).
+	 * bytes after the end of a message are passed to the parser of the next message and the completed messages
+	 * are queued in the order they were received
+	 * @param parserFactory 	creates the parser for the next message, e.g. HttpRequestParser::new
+	 */
+	public PipelinedHttpParser(Supplier<T> parserFactory) {
+		this.parserFactory = parserFactory;
+		this.currentParser = parserFactory.get();
+	}
+
+
+	/**
+	 * parser for pipelined http requests
+	 * @return 		the pipelined request parser
+	 */
+	public static PipelinedHttpParser<HttpRequestParser> forRequests() {
+		return new PipelinedHttpParser<>(HttpRequestParser::new);
+	}
+
+
+	/**
+	 * parser for multiple http responses that are received on the same connection
+	 * @return 		the pipelined response parser
+	 */
+	public static PipelinedHttpParser<HttpResponseParser> forResponses() {
+		return new PipelinedHttpParser<>(HttpResponseParser::new);
+	}
+
+
+	/**
+	 * adds the passed bytes, they can contain the end of the current message and any number of further messages
+	 * @param bytesToAdd 		the received bytes
+	 */
+	public void addData(byte[] bytesToAdd) {
+		addData(bytesToAdd, 0, bytesToAdd.length);
+	}
+
+
+	/**
+	 * adds a range of the passed array, it can contain the end of the current message and any number of further messages
+	 * @param data 		array holding the received bytes
+	 * @param offset 	index of the first received byte
+	 * @param length 	number of received bytes
+	 */
+	public void addData(byte[] data, int offset, int length) {
+		int index = offset;
+		int end = offset + length;
+		while (index < end) {
+			index += currentParser.addData(data, index, end - index);
+			if (currentParser.isComplete()) {
+				completeCurrentMessage();
+			}
+		}
+	}
+
+
+	private void completeCurrentMessage() {
+		completedMessages.add(currentParser);
+		currentParser = parserFactory.get();
+	}
+
+
+	/**
+	 * can be called when the server closed the connection to complete a message without content length
+	 * @return 		true if a message was completed
+	 */
+	public boolean fullMessageReceived() {
+		if (currentParser.getState() == ParsingState.HEADER_RECEIVED && currentParser.fullMessageReceived()) {
+			completeCurrentMessage();
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * removes and returns the oldest completed message
+	 * @return 		the parser of the completed message, null if no message is complete
+	 */
+	public T pollMessage() {
+		return completedMessages.poll();
+	}
+
+
+	/**
+	 * checks if completed messages are available
+	 * @return 		true if at least one message is complete
+	 */
+	public boolean hasMessages() {
+		return !completedMessages.isEmpty();
+	}
+
+
+	/**
+	 * returns the number of completed messages that were not yet polled
+	 * @return 		number of completed messages
+	 */
+	public int getMessageCount() {
+		return completedMessages.size();
+	}
+
+
+	/**
+	 * returns the parser of the message that is currently received
+	 * @return 		parser of the incomplete message
+	 */
+	public T getCurrentParser() {
+		return currentParser;
+	}
+}
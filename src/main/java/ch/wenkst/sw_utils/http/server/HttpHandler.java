@@ -0,0 +1,16 @@
+package ch.wenkst.sw_utils.http.server;
+
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+
+@FunctionalInterface
+public interface HttpHandler {
+	
+	/**
+	 * handles a http request, is called on a thread of the worker executor of the server
+	 * @param request 		the complete request
+	 * @return 				the response, the content length is set by the server if no body was set
+	 * @throws Exception 	an exception is answered with the status 500
+	 */
+	public HttpResponseBuilder handle(HttpRequestParser request) throws Exception;
+}
@@ -0,0 +1,194 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.tcp.server.TcpServer;
+import ch.wenkst.sw_utils.http.HttpConstants;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.compression.ContentEncoder;
+import ch.wenkst.sw_utils.http.parser.HttpParserLimits;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+
+public class HttpServer extends TcpServer {
+	private static final Logger logger = LoggerFactory.getLogger(HttpServer.class);
+	
+	private RouteTable routeTable = new RouteTable();
+	private Executor workerExecutor = null;
+	private int compressionThreshold = -1;
+	private HttpParserLimits parserLimits = HttpParserLimits.defaults();
+	private AtomicInteger sessionCounter = new AtomicInteger(0);
+	
+	
+	/**
+	 * embedded http/1.1 server, every connection is served by a HttpSession that keeps the connection alive and
+	 * parses pipelined requests. the requests are routed to the handlers of the route table
+	 */
+	public HttpServer() {
+		super();
+	}
+	
+	
+	/**
+	 * initializes the http server
+	 * @param port 				port on which the server listens
+	 * @param serverName 		the name to identify the server
+	 * @param workerExecutor 	executor on which the handlers are called, can be null to call the handlers 
+	 * 							on the thread of the session
+	 */
+	public void init(int port, String serverName, Executor workerExecutor) {
+		init(port, serverName);
+		this.workerExecutor = workerExecutor;
+	}
+	
+	
+	/**
+	 * enables the compression of the responses and the decoding of compressed request bodies, the coding
+	 * of a response is negotiated with the accept-encoding header of its request
+	 * @param compressionThreshold 	minimal body length in bytes that is compressed, -1 to disable the compression
+	 */
+	public void setCompression(int compressionThreshold) {
+		this.compressionThreshold = compressionThreshold;
+	}
+	
+	
+	/**
+	 * sets the limits of the request parsers, requests that exceed them are answered with the matching
+	 * error status and the connection is closed
+	 * @param parserLimits 		the limits of the received requests
+	 */
+	public void setParserLimits(HttpParserLimits parserLimits) {
+		this.parserLimits = parserLimits;
+	}
+	
+	
+	/**
+	 * adds a route to the server
+	 * @param method 		the http method, e.g. GET
+	 * @param path 			the exact path or a prefix ending with /*
+	 * @param handler 		the handler of the requests
+	 * @return 				this object
+	 */
+	public HttpServer route(String method, String path, HttpHandler handler) {
+		routeTable.addRoute(method, path, handler);
+		return this;
+	}
+	
+	
+	public HttpServer get(String path, HttpHandler handler) {
+		return route(HttpConstants.GET, path, handler);
+	}
+	
+	
+	public HttpServer post(String path, HttpHandler handler) {
+		return route(HttpConstants.POST, path, handler);
+	}
+	
+	
+	public HttpServer put(String path, HttpHandler handler) {
+		return route(HttpConstants.PUT, path, handler);
+	}
+	
+	
+	public HttpServer delete(String path, HttpHandler handler) {
+		return route(HttpConstants.DELETE, path, handler);
+	}
+	
+	
+	@Override
+	protected ISession onNewConnection(TcpServer owner, Socket socket) {
+		HttpSession session = new HttpSession(this);
+		session.init(owner, socket, serverName + "-session-" + sessionCounter.incrementAndGet());
+		session.start();
+		return session;
+	}
+	
+	
+	/**
+	 * closes the server and ends the pooled deflaters of the response compression
+	 */
+	@Override
+	protected void closeServer() {
+		super.closeServer();
+		if (isCompressionEnabled()) {
+			ContentEncoder.shutdown();
+		}
+	}
+	
+	
+	/**
+	 * routes the request to its handler and returns the response
+	 * @param request 	the complete request
+	 * @return 			the response of the handler or an error response
+	 */
+	HttpResponseBuilder handleRequest(HttpRequestParser request) {
+		String path = requestPath(request.getRequestURI());
+		Map<String, HttpHandler> handlers = routeTable.findHandlers(path);
+		if (handlers == null) {
+			return errorResponse(404);
+		}
+		
+		HttpHandler handler = handlers.get(request.getHttpMethod());
+		if (handler == null) {
+			return errorResponse(405);
+		}
+		
+		try {
+			HttpResponseBuilder response = handler.handle(request);
+			return response != null ? response : errorResponse(500);
+			
+		} catch (Exception e) {
+			logger.error(serverName + ": error in the handler of " + request.getHttpMethod() + " " + path + ": ", e);
+			return errorResponse(500);
+		}
+	}
+	
+	
+	private static String requestPath(String requestURI) {
+		int queryIndex = requestURI.indexOf('?');
+		return queryIndex < 0 ? requestURI : requestURI.substring(0, queryIndex);
+	}
+	
+	
+	/**
+	 * creates a response with the passed status and an empty body
+	 * @param status 	the http status
+	 * @return 			the error response
+	 */
+	static HttpResponseBuilder errorResponse(int status) {
+		HttpResponseBuilder response = new HttpResponseBuilder().status(status);
+		response.body(new byte[0]);
+		return response;
+	}
+	
+	
+	boolean isCompressionEnabled() {
+		return compressionThreshold >= 0;
+	}
+	
+	
+	HttpParserLimits getParserLimits() {
+		return parserLimits;
+	}
+	
+	
+	int getCompressionThreshold() {
+		return compressionThreshold;
+	}
+	
+	
+	Executor getWorkerExecutor() {
+		return workerExecutor;
+	}
+	
+	
+	public RouteTable getRouteTable() {
+		return routeTable;
+	}
+}
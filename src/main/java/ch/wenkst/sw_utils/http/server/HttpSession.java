@@ -0,0 +1,205 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.communication.tcp.server.TcpSession;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
+import ch.wenkst.sw_utils.http.parser.HttpParsingException;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+import ch.wenkst.sw_utils.http.parser.PipelinedHttpParser;
+
+public class HttpSession extends TcpSession {
+	private static final Logger logger = LoggerFactory.getLogger(HttpSession.class);
+	
+	private HttpServer server;
+	private PipelinedHttpParser<HttpRequestParser> parser;
+	private CompletableFuture<Void> lastResponse = CompletableFuture.completedFuture(null);
+	private final Object sendLock = new Object();
+	private volatile boolean closeRequested = false;
+	
+	
+	/**
+	 * keep-alive connection of the http server, the requests of the connection can be pipelined. they are
+	 * handled concurrently on the worker executor but the responses are sent in the order of the requests
+	 * @param server 	the http server that owns the session
+	 */
+	public HttpSession(HttpServer server) {
+		this.server = server;
+		this.parser = new PipelinedHttpParser<>(() -> {
+			HttpRequestParser requestParser = new HttpRequestParser();
+			requestParser.setContentDecoding(server.isCompressionEnabled());
+			requestParser.setLimits(server.getParserLimits());
+			return requestParser;
+		});
+	}
+	
+	
+	@Override
+	public void startWork() {
+		
+	}
+	
+	
+	@Override
+	protected void processMessage(ByteBuffer message, int len) {
+		if (!message.hasArray()) {
+			super.processMessage(message, len);
+			return;
+		}
+		
+		processBytes(message.array(), message.arrayOffset() + message.position(), len);
+	}
+	
+	
+	@Override
+	protected void processMessage(byte[] message) {
+		processBytes(message, 0, message.length);
+	}
+	
+	
+	private void processBytes(byte[] data, int offset, int length) {
+		if (closeRequested) {
+			return;
+		}
+		
+		int errorStatus = 0;
+		try {
+			parser.addData(data, offset, length);
+			
+		} catch (HttpParsingException e) {
+			logger.error(sessionName + ": invalid http request received - close the connection: " + e.getMessage());
+			errorStatus = e.getStatus();
+			
+		} catch (Exception e) {
+			logger.error(sessionName + ": invalid http request received - close the connection: ", e);
+			errorStatus = 400;
+		}
+		
+		// the requests that were completed before an invalid request are still answered in order
+		HttpRequestParser request;
+		while (!closeRequested && (request = parser.pollMessage()) != null) {
+			dispatchRequest(request);
+		}
+		
+		if (errorStatus != 0 && !closeRequested) {
+			closeRequested = true;
+			sendInOrder(CompletableFuture.completedFuture(HttpServer.errorResponse(errorStatus)), true);
+		}
+	}
+	
+	
+	/**
+	 * handles the request on the worker executor and queues its response behind the previous response
+	 * @param request 		the complete request
+	 */
+	private void dispatchRequest(HttpRequestParser request) {
+		boolean closeAfterResponse = "close".equalsIgnoreCase(request.getHeaderField("connection"));
+		if (closeAfterResponse) {
+			closeRequested = true;
+		}
+		
+		Executor executor = server.getWorkerExecutor();
+		CompletableFuture<HttpResponseBuilder> response;
+		if (executor != null) {
+			response = CompletableFuture.supplyAsync(() -> server.handleRequest(request), executor);
+		} else {
+			response = CompletableFuture.completedFuture(server.handleRequest(request));
+		}
+		
+		if (server.isCompressionEnabled()) {
+			ContentCoding coding = ContentCoding.negotiate(request.getHeaderField("accept-encoding"));
+			response = response.thenApply(responseBuilder -> compress(responseBuilder, coding));
+		}
+		
+		sendInOrder(response, closeAfterResponse);
+	}
+	
+	
+	private HttpResponseBuilder compress(HttpResponseBuilder response, ContentCoding coding) {
+		response.compressBody(coding, server.getCompressionThreshold());
+		return response;
+	}
+	
+	
+	/**
+	 * sends the response once it is complete and all previous responses of the connection are sent. a 
+	 * failed response is replaced by an internal server error so that the following responses are still 
+	 * sent, if a response cannot be sent the connection is closed
+	 * @param response 				the future response
+	 * @param closeAfterResponse 	true to close the connection after the response
+	 */
+	private void sendInOrder(CompletableFuture<HttpResponseBuilder> response, boolean closeAfterResponse) {
+		CompletableFuture<HttpResponseBuilder> safeResponse = response.exceptionally(e -> {
+			logger.error(sessionName + ": error creating the response - send an internal server error: ", e);
+			return HttpServer.errorResponse(500);
+		});
+		
+		synchronized (sendLock) {
+			lastResponse = lastResponse
+					.thenCombine(safeResponse, (previous, responseBuilder) -> responseBuilder)
+					.handle((responseBuilder, e) -> {
+						if (e != null) {
+							logger.error(sessionName + ": error in the response chain - terminate session: ", e);
+							stopSession();
+						} else {
+							trySendResponse(responseBuilder, closeAfterResponse);
+						}
+						return null;
+					});
+		}
+	}
+	
+	
+	private void trySendResponse(HttpResponseBuilder response, boolean closeAfterResponse) {
+		try {
+			sendResponse(response, closeAfterResponse);
+			
+		} catch (Exception e) {
+			logger.error(sessionName + ": error sending the response - terminate session: ", e);
+			stopSession();
+		}
+	}
+	
+	
+	/**
+	 * sends a response with a file body, the file is copied in chunks to the output stream of the blocking 
+	 * socket. FileChannel.transferTo is not used here because the channel of a blocking socket is an adaptor 
+	 * whose reads hold the lock that the writes of the worker threads need
+	 * @param response 		the response to send
+	 */
+	private void sendFileResponse(HttpResponseBuilder response) {
+		try {
+			response.writeTo(socket.getOutputStream());
+			
+		} catch (Exception e) {
+			logger.error(sessionName + ": error sending the file response - terminate session: ", e);
+			stopSession();
+		}
+	}
+	
+	
+	private void sendResponse(HttpResponseBuilder response, boolean closeAfterResponse) {
+		if (response.getHeaderProperty("content-length") == null) {
+			response.body(new byte[0]);
+		}
+		if (closeAfterResponse) {
+			response.headerProperty("connection", "close");
+		}
+		
+		if (response.hasFileBody()) {
+			sendFileResponse(response);
+		} else {
+			sendMessage(response.toByteArr());
+		}
+		
+		if (closeAfterResponse) {
+			stopSession();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RouteTable {
+	private static final String WILDCARD = "*";
+
+	private Map<String, Map<String, HttpHandler>> exactRoutes = new ConcurrentHashMap<>();
+	private List<PrefixRoute> prefixRoutes = new CopyOnWriteArrayList<>();
+
+
+	/**
+	 * maps request paths and methods to handlers. a path that ends with /* matches all paths with the same
+	 * prefix, exact paths take precedence over prefixes and longer prefixes over shorter ones
+	 */
+	public RouteTable() {
+
+	}
+
+
+	/**
+	 * adds a route
+	 * @param method 		the http method, e.g. GET
+	 * @param path 			the exact path or a prefix ending with /*
+	 * @param handler 		the handler of the requests
+	 */
+	public void addRoute(String method, String path, HttpHandler handler) {
+		String upperMethod = method.toUpperCase();
+		if (path.endsWith("/" + WILDCARD)) {
+			addPrefixRoute(path.substring(0, path.length() - 1), upperMethod, handler);
+		} else {
+			exactRoutes.computeIfAbsent(path, key -> new ConcurrentHashMap<>()).put(upperMethod, handler);
+		}
+	}
+
+
+	private synchronized void addPrefixRoute(String prefix, String method, HttpHandler handler) {
+		for (PrefixRoute route : prefixRoutes) {
+			if (route.prefix.equals(prefix)) {
+				route.handlers.put(method, handler);
+				return;
+			}
+		}
+
+		PrefixRoute route = new PrefixRoute(prefix);
+		route.handlers.put(method, handler);
+		prefixRoutes.add(route);
+		prefixRoutes.sort(Comparator.comparingInt((PrefixRoute prefixRoute) -> prefixRoute.prefix.length()).reversed());
+	}
+
+
+	/**
+	 * returns the handlers per method of the route that matches the passed path
+	 * @param path 		the request path without query
+	 * @return 			the handlers per http method, null if no route matches the path
+	 */
+	public Map<String, HttpHandler> findHandlers(String path) {
+		Map<String, HttpHandler> handlers = exactRoutes.get(path);
+		if (handlers != null) {
+			return handlers;
+		}
+
+		for (PrefixRoute route : prefixRoutes) {
+			if (path.startsWith(route.prefix)) {
+				return route.handlers;
+			}
+		}
+		return null;
+	}
+
+
+	private static class PrefixRoute {
+		private String prefix;
+		private Map<String, HttpHandler> handlers = new ConcurrentHashMap<>();
+
+		private PrefixRoute(String prefix) {
+			this.prefix = prefix;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package ch.wenkst.sw_utils.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+	private AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private AtomicLong totalCount = new AtomicLong(0);
+	private AtomicLong totalValue = new AtomicLong(0);
+	private AtomicLong maxValue = new AtomicLong(0);
+
+
+	/**
+	 * lock-free histogram of latencies in nanoseconds. the values are recorded in logarithmic buckets
+	 * that are each divided into 8 linear sub buckets, the relative error of a percentile is below 12.5%
+	 */
+	public LatencyHistogram() {
+
+	}
+
+
+	/**
+	 * records a latency, negative values are recorded as 0
+	 * @param nanos 	the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+		maxValue.accumulateAndGet(value, Math::max);
+	}
+
+
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+		return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+
+	private static long bucketUpperBound(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long subBucket = index % SUB_BUCKET_COUNT;
+		long lowerBound = (SUB_BUCKET_COUNT + subBucket) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+
+
+	/**
+	 * returns the latency below which the passed percentage of the recorded values lies
+	 * @param percentile 	the percentile between 0 and 100
+	 * @return 				the latency in nanoseconds, 0 if no values were recorded
+	 */
+	public long getPercentile(double percentile) {
+		long count = totalCount.get();
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+		long seen = 0;
+		for (int i=0; i<BUCKET_COUNT; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(bucketUpperBound(i), maxValue.get());
+			}
+		}
+		return maxValue.get();
+	}
+
+
+	/**
+	 * returns the mean of all recorded latencies
+	 * @return 		the mean latency in nanoseconds, 0 if no values were recorded
+	 */
+	public double getMean() {
+		long count = totalCount.get();
+		return count == 0 ? 0 : (double) totalValue.get() / count;
+	}
+
+
+	public long getMax() {
+		return maxValue.get();
+	}
+
+
+	public long getCount() {
+		return totalCount.get();
+	}
+
+
+	/**
+	 * removes all recorded values
+	 */
+	public void reset() {
+		for (int i=0; i<BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		totalCount.set(0);
+		totalValue.set(0);
+		maxValue.set(0);
+	}
+
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + 
+				", mean=" + (long) getMean() + "ns" +
+				", p50=" + getPercentile(50) + "ns" +
+				", p99=" + getPercentile(99) + "ns" +
+				", max=" + getMax() + "ns";
+	}
+}
@@ -9,7 +9,8 @@ public abstract class IntervalTask extends ScheduledTask {
 	
 	/**
 	 * task is executed in intervals, not matter how long it takes: startTime, startTime + interval, startTime + 2*interval 
-	 * if the task takes longer than the interval, the onTaskStarted method will be called concurrently
+	 * if the task takes longer than the interval, the onExecuteTask method will be called concurrently unless
+	 * a different overlap policy is set with setOverlapPolicy()
 	 * @param startTime 	unix time in ms when the task is started
 	 * @param interval		interval in ms at which the task should be executed
 	 */
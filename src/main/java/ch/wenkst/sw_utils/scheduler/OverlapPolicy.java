@@ -0,0 +1,7 @@
+package ch.wenkst.sw_utils.scheduler;
+
+public enum OverlapPolicy {
+	ALLOW,		// a due run is started even if the previous run is still active
+	SKIP,		// a due run is dropped if the previous run is still active
+	QUEUE;		// a due run is executed after the previous run finished
+}
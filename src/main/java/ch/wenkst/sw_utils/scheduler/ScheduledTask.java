@@ -1,10 +1,17 @@
 package ch.wenkst.sw_utils.scheduler;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 public abstract class ScheduledTask {
 	protected long startTime = Instant.now().toEpochMilli();
 	protected long interval = 0;
+	protected OverlapPolicy overlapPolicy = OverlapPolicy.ALLOW;
+	protected int maxQueuedRuns = 10;
+	private int activeRuns = 0;
+	private Queue<Long> queuedStartTimes = new ArrayDeque<>();
+	private TaskMetrics metrics = new TaskMetrics();
 	
 	
 	public ScheduledTask() {
@@ -40,6 +47,91 @@ public abstract class ScheduledTask {
 	 */
 	protected abstract void onTaskFinished(Scheduler scheduler);
 	
+	
+	/**
+	 * registers a due run of the task, depending on the overlap policy the run is started, dropped or
+	 * queued if the previous run is still active
+	 * @param scheduledTime 	the scheduled start time of the run in unix time ms
+	 * @return 					true if the run can be started immediately
+	 */
+	synchronized boolean beginRun(long scheduledTime) {
+		if (activeRuns == 0 || overlapPolicy == OverlapPolicy.ALLOW) {
+			activeRuns++;
+			return true;
+		}
+
+		if (overlapPolicy == OverlapPolicy.QUEUE && queuedStartTimes.size() < maxQueuedRuns) {
+			queuedStartTimes.add(scheduledTime);
+			metrics.recordQueued();
+		} else {
+			metrics.recordSkipped();
+		}
+		return false;
+	}
+	
+	
+	/**
+	 * unregisters a finished run of the task
+	 * @return 		the scheduled start time of the next queued run that needs to be executed, null if there is none
+	 */
+	synchronized Long finishRun() {
+		Long nextStartTime = queuedStartTimes.poll();
+		if (nextStartTime == null) {
+			activeRuns--;
+		}
+		return nextStartTime;
+	}
+	
+	
+	/**
+	 * unregisters a run that was registered with beginRun() but could not be executed, the queued runs 
+	 * are kept and executed after the next run
+	 */
+	synchronized void cancelRun() {
+		if (activeRuns > 0) {
+			activeRuns--;
+		}
+	}
+	
+	
+	/**
+	 * returns the number of runs of this task that are currently executed
+	 * @return 		number of active runs
+	 */
+	public synchronized int getActiveRuns() {
+		return activeRuns;
+	}
+	
+	
+	public TaskMetrics getMetrics() {
+		return metrics;
+	}
+	
+	
+	public OverlapPolicy getOverlapPolicy() {
+		return overlapPolicy;
+	}
+	
+	/**
+	 * defines what happens if the task is due while its previous run is still active
+	 * @param overlapPolicy 	the overlap policy, ALLOW by default
+	 */
+	public void setOverlapPolicy(OverlapPolicy overlapPolicy) {
+		this.overlapPolicy = overlapPolicy;
+	}
+	
+	public int getMaxQueuedRuns() {
+		return maxQueuedRuns;
+	}
+	
+	/**
+	 * sets the maximal number of runs that wait for the active run with the QUEUE policy, further runs are skipped
+	 * @param maxQueuedRuns 	maximal number of waiting runs
+	 */
+	public void setMaxQueuedRuns(int maxQueuedRuns) {
+		this.maxQueuedRuns = maxQueuedRuns;
+	}
+	
 
 	public long getStartTime() {
 		return startTime;
@@ -2,30 +2,43 @@ package ch.wenkst.sw_utils.scheduler;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.threads.BaseThread;
 
 
 public class Scheduler extends BaseThread {
+	private static final Logger logger = LoggerFactory.getLogger(Scheduler.class);
+	private static final int MIN_PURGE_COUNT = 1024;
+
 	private Executor executor = null;
-	private List<ScheduledTask> scheduledTasks = new ArrayList<>();
-	
-	
+	private PriorityQueue<TaskEntry> taskQueue = new PriorityQueue<>();
+	private Map<ScheduledTask, TaskEntry> scheduledTasks = new IdentityHashMap<>();
+	private long sequence = 0;
+	private int cancelledCount = 0;
+
+
 	/**
-	 * one thread that handles all tasks by periodically checking if the startTime is passed
+	 * one thread that handles all tasks, the tasks are kept in a queue that is ordered by their start time
+	 * and the thread sleeps until the next task is due or a task with an earlier start time is added
 	 */
 	public Scheduler() {
 		super(1000);
 		setName("scheduler");
 	}
-	
-	
+
+
 	/**
 	 * initializes the scheduler
-	 * @param pollInterval 		poll interval for the thread
+	 * @param pollInterval 		interval in ms after which tasks that did not advance their start time in onStartTask are started again
 	 * @param executor 			executor for concurrent task executions, can be null if all tasks should be executed synchronously
 	 */
 	public void init(int pollInterval, Executor executor) {
@@ -33,100 +46,272 @@ public class Scheduler extends BaseThread {
 		this.executor = executor;
 	}
 
-	
+
 	/**
-	 * adds a task to the list of pending task that are periodically checked if their start time is already expired
+	 * adds a task to the pending tasks, the task is started as soon as its start time is expired. adding a task
+	 * that is already pending reschedules it with its current start time
 	 * @param task	 	task to add
 	 */
 	public void addToTasks(ScheduledTask task) {
-		synchronized(scheduledTasks) {
-			scheduledTasks.add(task);
+		boolean isNextTask;
+		synchronized (taskQueue) {
+			cancel(scheduledTasks.remove(task));
+
+			TaskEntry entry = new TaskEntry(task, task.getStartTime(), sequence++);
+			scheduledTasks.put(task, entry);
+			enqueue(entry);
+			isNextTask = taskQueue.peek() == entry;
+		}
+
+		if (isNextTask) {
+			wakeup();
 		}
 	}
-	
-	
+
+
 	/**
-	 * removes a task from the list of pending tasks that are periodically checked if their start time is already expired
+	 * removes a task from the pending tasks
 	 * @param task	 	task that is removed
 	 */
 	public void removeFromTasks(ScheduledTask task) {
-		synchronized(scheduledTasks) {
-			scheduledTasks.remove(task);
+		synchronized (taskQueue) {
+			cancel(scheduledTasks.remove(task));
+			purgeCancelledEntries();
+		}
+	}
+
+
+	/**
+	 * marks the entry as cancelled, it is only removed from the queue once it is due (or by a purge)
+	 * to avoid a linear search in the queue
+	 * @param entry 	the entry to cancel, can be null
+	 */
+	private void cancel(TaskEntry entry) {
+		if (entry == null) {
+			return;
+		}
+
+		entry.cancelled = true;
+		if (entry.queued) {
+			cancelledCount++;
+		}
+	}
+
+
+	/**
+	 * removes the cancelled entries from the queue if they make up more than half of the queue
+	 */
+	private void purgeCancelledEntries() {
+		if (cancelledCount < MIN_PURGE_COUNT || cancelledCount < taskQueue.size() / 2) {
+			return;
 		}
+
+		taskQueue.removeIf(entry -> entry.cancelled);
+		cancelledCount = 0;
+	}
+
+
+	private void enqueue(TaskEntry entry) {
+		entry.queued = true;
+		taskQueue.add(entry);
 	}
-	
+
+
 	/**
-	 * checks if the tasks in the list need to be started
+	 * starts all tasks that are due
 	 */
 	@Override
 	public void doWork() {
-		synchronized (scheduledTasks) {
-			List<ScheduledTask> tasksToStart = tasksToStart();
-			for (ScheduledTask task : tasksToStart) {
-				startTask(task);
-			}
+		List<DueRun> dueRuns = tasksToStart();
+		for (DueRun dueRun : dueRuns) {
+			startTask(dueRun.task, dueRun.scheduledTime);
 		}
 	}
-	
-	
-	
+
+
 	/**
-	 * starts the passed task
-	 * @param task		task to start
+	 * returns the time until the next task is due
 	 */
-	private void startTask(ScheduledTask task) {
-		if (executor != null) {
-			executor.execute(() -> {
-				executeTask(task);
-			});
-		
-		} else {
-			executeTask(task);
+	@Override
+	protected long getWaitTime() {
+		synchronized (taskQueue) {
+			TaskEntry nextEntry = taskQueue.peek();
+			if (nextEntry == null) {
+				return Long.MAX_VALUE;
+			}
+
+			return Math.max(0, nextEntry.startTime - Instant.now().toEpochMilli());
 		}
 	}
-	
-	
+
+
 	/**
-	 * returns a list of all tasks to start
-	 * @return
+	 * removes all due tasks from the queue and calls their onStartTask method outside of the queue lock.
+	 * tasks that are still scheduled afterwards are queued again with their new start time
+	 * @return 		the runs to start
 	 */
-	private List<ScheduledTask> tasksToStart() {
+	private List<DueRun> tasksToStart() {
 		long currentTime = Instant.now().toEpochMilli();
-		
-		return scheduledTasks.stream()
-				.filter((task) -> currentTime >= task.getStartTime())
-				.collect(Collectors.toList());
+		List<TaskEntry> dueEntries = pollDueEntries(currentTime);
+
+		List<DueRun> tasksToStart = new ArrayList<>();
+		for (TaskEntry entry : dueEntries) {
+			try {
+				entry.task.onStartTask(this);
+			} catch (Exception e) {
+				logger.error("uncaught exception in the start of a scheduled task: ", e);
+			}
+			tasksToStart.add(new DueRun(entry.task, entry.startTime));
+		}
+
+		synchronized (taskQueue) {
+			for (TaskEntry entry : dueEntries) {
+				if (scheduledTasks.get(entry.task) == entry) {
+					entry.startTime = nextStartTime(entry, currentTime);
+					enqueue(entry);
+				}
+			}
+		}
+
+		return tasksToStart;
+	}
+
+
+	/**
+	 * removes the due entries from the queue, the entries of tasks that are removed or added again 
+	 * before they are rescheduled are no longer in the scheduled tasks and are dropped
+	 * @param currentTime 		the current unix time in ms
+	 * @return 					the due entries
+	 */
+	private List<TaskEntry> pollDueEntries(long currentTime) {
+		List<TaskEntry> dueEntries = new ArrayList<>();
+		synchronized (taskQueue) {
+			TaskEntry entry;
+			while ((entry = taskQueue.peek()) != null && (entry.cancelled || currentTime >= entry.startTime)) {
+				taskQueue.poll();
+				entry.queued = false;
+				if (entry.cancelled) {
+					cancelledCount--;
+					continue;
+				}
+				dueEntries.add(entry);
+			}
+		}
+		return dueEntries;
+	}
+
+
+	/**
+	 * returns the start time of a task that is still scheduled after it was started, tasks that did not
+	 * advance their start time are started again after the poll interval
+	 * @param entry 			the entry of the started task
+	 * @param currentTime 		the current unix time in ms
+	 * @return 					the next start time in unix time ms
+	 */
+	private long nextStartTime(TaskEntry entry, long currentTime) {
+		long startTime = entry.task.getStartTime();
+		if (startTime > entry.startTime) {
+			return startTime;
+		}
+		return currentTime + Math.max(1, pollInterval);
+	}
+
+
+	/**
+	 * starts the passed task if the overlap policy of the task allows it
+	 * @param task				task to start
+	 * @param scheduledTime 	the scheduled start time of the run in unix time ms
+	 */
+	private void startTask(ScheduledTask task, long scheduledTime) {
+		if (!task.beginRun(scheduledTime)) {
+			return;
+		}
+
+		if (executor != null) {
+			try {
+				executor.execute(() -> {
+					executeTask(task, scheduledTime);
+				});
+
+			} catch (RejectedExecutionException e) {
+				logger.error("the executor rejected the run of a scheduled task: ", e);
+				task.cancelRun();
+				task.getMetrics().recordSkipped();
+			}
+
+		} else {
+			executeTask(task, scheduledTime);
+		}
 	}
-	
-	
+
+
 	/**
-	 * executes the passed task
-	 * @param task
+	 * executes the passed task and the runs that were queued while it was executed, onStartTask was
+	 * already called by the scheduler thread. if a run fails unexpectedly the run is unregistered so that
+	 * the overlap policy does not block the task forever
+	 * @param task 				task to execute
+	 * @param scheduledTime 	the scheduled start time of the run in unix time ms
 	 */
-	private void executeTask(ScheduledTask task) {
-		task.onStartTask(this);
-		task.onExecuteTask();
-		task.onTaskFinished(this);
+	private void executeTask(ScheduledTask task, long scheduledTime) {
+		Long runStartTime = scheduledTime;
+		while (runStartTime != null) {
+			boolean finished = false;
+			try {
+				runTask(task, runStartTime);
+				finished = true;
+
+			} finally {
+				if (finished) {
+					runStartTime = task.finishRun();
+				} else {
+					task.cancelRun();
+				}
+			}
+		}
+	}
+
+
+	private void runTask(ScheduledTask task, long scheduledTime) {
+		TaskMetrics metrics = task.getMetrics();
+		metrics.recordLateness(Instant.now().toEpochMilli() - scheduledTime);
+
+		boolean failed = false;
+		long startTime = System.nanoTime();
+		try {
+			task.onExecuteTask();
+		} catch (Exception e) {
+			logger.error("uncaught exception in the execution of a scheduled task: ", e);
+			failed = true;
+		}
+		metrics.recordRun(System.nanoTime() - startTime, failed);
+
+		try {
+			task.onTaskFinished(this);
+		} catch (Exception e) {
+			logger.error("uncaught exception in the finish of a scheduled task: ", e);
+		}
 	}
-	
-	
+
+
 	@Override
 	public void startWork() {
-	
+
 	}
-	
+
 	@Override
 	public void terminateWork() {
-				
+
 	}
-	
-	
+
+
 	/**
 	 * returns the number of scheduled tasks
 	 * @return
 	 */
 	public int getScheduledTaskCount() {
-		return scheduledTasks.size();
+		synchronized (taskQueue) {
+			return scheduledTasks.size();
+		}
 	}
 
 
@@ -136,4 +321,42 @@ public class Scheduler extends BaseThread {
 	public void stopScheduler() {
 		stopWorker();
 	}
+
+
+	private static class DueRun {
+		private ScheduledTask task;
+		private long scheduledTime;
+
+
+		private DueRun(ScheduledTask task, long scheduledTime) {
+			this.task = task;
+			this.scheduledTime = scheduledTime;
+		}
+	}
+
+
+	private static class TaskEntry implements Comparable<TaskEntry> {
+		private ScheduledTask task;
+		private long startTime;
+		private long sequence;
+		private boolean queued = false;
+		private boolean cancelled = false;
+
+
+		private TaskEntry(ScheduledTask task, long startTime, long sequence) {
+			this.task = task;
+			this.startTime = startTime;
+			this.sequence = sequence;
+		}
+
+
+		@Override
+		public int compareTo(TaskEntry other) {
+			int result = Long.compare(startTime, other.startTime);
+			if (result == 0) {
+				result = Long.compare(sequence, other.sequence);
+			}
+			return result;
+		}
+	}
 }
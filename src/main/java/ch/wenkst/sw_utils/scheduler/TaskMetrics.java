@@ -0,0 +1,112 @@
+package ch.wenkst.sw_utils.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.wenkst.sw_utils.metrics.LatencyHistogram;
+
+public class TaskMetrics {
+	private AtomicLong runCount = new AtomicLong(0);
+	private AtomicLong failedCount = new AtomicLong(0);
+	private AtomicLong skippedCount = new AtomicLong(0);
+	private AtomicLong queuedCount = new AtomicLong(0);
+	private LatencyHistogram lateness = new LatencyHistogram();
+	private LatencyHistogram executionTime = new LatencyHistogram();
+
+
+	/**
+	 * execution statistics of a scheduled task
+	 */
+	public TaskMetrics() {
+
+	}
+
+
+	void recordLateness(long latenessMs) {
+		lateness.record(TimeUnit.MILLISECONDS.toNanos(latenessMs));
+	}
+
+
+	void recordRun(long executionNanos, boolean failed) {
+		runCount.incrementAndGet();
+		executionTime.record(executionNanos);
+		if (failed) {
+			failedCount.incrementAndGet();
+		}
+	}
+
+
+	void recordSkipped() {
+		skippedCount.incrementAndGet();
+	}
+
+
+	void recordQueued() {
+		queuedCount.incrementAndGet();
+	}
+
+
+	/**
+	 * number of finished runs of the task, including the failed ones
+	 * @return 		number of runs
+	 */
+	public long getRunCount() {
+		return runCount.get();
+	}
+
+
+	/**
+	 * number of runs in which onExecuteTask threw an exception
+	 * @return 		number of failed runs
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+
+	/**
+	 * number of due runs that were dropped because of the overlap policy
+	 * @return 		number of skipped runs
+	 */
+	public long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+
+	/**
+	 * number of due runs that had to wait for the previous run because of the overlap policy
+	 * @return 		number of queued runs
+	 */
+	public long getQueuedCount() {
+		return queuedCount.get();
+	}
+
+
+	/**
+	 * delay between the scheduled start time and the actual start of the runs
+	 * @return 		the lateness histogram in ns
+	 */
+	public LatencyHistogram getLateness() {
+		return lateness;
+	}
+
+
+	/**
+	 * duration of onExecuteTask
+	 * @return 		the execution time histogram in ns
+	 */
+	public LatencyHistogram getExecutionTime() {
+		return executionTime;
+	}
+
+
+	@Override
+	public String toString() {
+		return "runs=" + getRunCount() + 
+				", failed=" + getFailedCount() + 
+				", skipped=" + getSkippedCount() + 
+				", queued=" + getQueuedCount() + 
+				", lateness: [" + lateness + "]" + 
+				", execution time: [" + executionTime + "]";
+	}
+}
@@ -3,13 +3,17 @@ package ch.wenkst.sw_utils.threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.metrics.LatencyHistogram;
 
 public abstract class BaseThread extends Thread {
 	private static final Logger logger = LoggerFactory.getLogger(BaseThread.class);
 	
-	private boolean running = true;
+	private volatile boolean running = true;
 	protected int pollInterval = 0;
+	private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+	private volatile Thread virtualThread = null;
+	private WakeupSignal wakeupSignal = new WakeupSignal();
+	private final Object startLock = new Object();
 	
 	
 	/**
@@ -21,13 +25,93 @@ public abstract class BaseThread extends Thread {
 	
 	
 	/**
-	 * simple polling thread
+	 * simple polling thread, between two executions of doWork the thread waits the poll interval
+	 * or until it is woken up by wakeup() or stopWorker()
 	 * @param pollInterval 		poll interval in ms
 	 */
 	public BaseThread(int pollInterval) {
 		this.pollInterval = pollInterval;
 	}
 
+
+	/**
+	 * starts the work loop, in the virtual execution mode the loop is executed on a virtual thread
+	 * if the runtime supports it, otherwise the loop falls back to this platform thread
+	 */
+	@Override
+	public void start() {
+		synchronized (startLock) {
+			if (executionMode == ExecutionMode.VIRTUAL) {
+				if (virtualThread != null) {
+					throw new IllegalThreadStateException("thread " + getName() + " was already started");
+				}
+
+				Thread thread = VirtualThreads.unstarted(getName(), this);
+				if (thread != null) {
+					virtualThread = thread;
+					thread.start();
+					return;
+				}
+				logger.warn(getName() + ": virtual threads are not supported by the runtime, fall back to a platform thread");
+			}
+
+			super.start();
+		}
+	}
+
+
+	/**
+	 * interrupts the thread that executes the work loop
+	 */
+	@Override
+	public void interrupt() {
+		Thread thread = virtualThread;
+		if (thread != null) {
+			thread.interrupt();
+		} else {
+			super.interrupt();
+		}
+	}
+
+
+	/**
+	 * waits until the work loop terminated, use this instead of join() as join() is final in Thread and 
+	 * does not wait for a loop that is executed on a virtual thread
+	 * @throws InterruptedException
+	 */
+	public void joinWorker() throws InterruptedException {
+		joinWorker(0);
+	}
+
+
+	/**
+	 * waits at most the passed time until the work loop terminated
+	 * @param millis 		time to wait in ms, 0 to wait forever
+	 * @throws InterruptedException
+	 */
+	public void joinWorker(long millis) throws InterruptedException {
+		Thread thread = virtualThread;
+		if (thread != null) {
+			thread.join(millis);
+		} else {
+			join(millis);
+		}
+	}
+
+
+	/**
+	 * returns true if the work loop was started and is not yet terminated, use this instead of isAlive() 
+	 * as isAlive() is final in Thread and does not track a loop that is executed on a virtual thread
+	 * @return 		true if the thread executing the work loop is alive
+	 */
+	public boolean isWorkerAlive() {
+		Thread thread = virtualThread;
+		if (thread != null) {
+			return thread.isAlive();
+		}
+		return isAlive();
+	}
+
 		
 	@Override
 	public void run() {
@@ -45,8 +129,9 @@ public abstract class BaseThread extends Thread {
 		while (running) {	
 			doWork();	 	
 
-			if (pollInterval > 0) {
-				Utils.sleep(pollInterval);
+			long waitTime = getWaitTime();
+			if (waitTime > 0 && running) {
+				wakeupSignal.await(waitTime);
 			}
 		}
 
@@ -54,6 +139,16 @@ public abstract class BaseThread extends Thread {
 	}
 	
 	
+	/**
+	 * returns the time the thread waits before doWork is executed again, the wait is interrupted
+	 * by wakeup() or stopWorker(). by default this is the poll interval
+	 * @return 		wait time in ms, 0 to execute doWork again immediately
+	 */
+	protected long getWaitTime() {
+		return pollInterval;
+	}
+	
+	
 	/**
 	 * method that is executed before the periodic task is started
 	 */
@@ -77,10 +172,64 @@ public abstract class BaseThread extends Thread {
 	 */
 	protected void stopWorker() {
 		running = false;
+		wakeupSignal.signal();
+	}
+
+
+	/**
+	 * wakes the thread if it waits for the next poll interval, call this after new work was submitted
+	 * to process it immediately instead of after the poll interval
+	 */
+	public void wakeup() {
+		wakeupSignal.signal();
+	}
+
+
+	/**
+	 * returns the latencies between a wakeup or stop signal and the moment the work loop continued
+	 * @return 		the wakeup latency histogram
+	 */
+	public LatencyHistogram getWakeupLatency() {
+		return wakeupSignal.getWakeupLatency();
 	}
 
 
 	public boolean isRunning() {
 		return running;
 	}
+
+
+	/**
+	 * sets the execution mode of this thread, needs to be called before the thread is started. in the virtual
+	 * mode the loop does not run on this thread object, therefore the code that waits for the thread needs 
+	 * to use joinWorker() and isWorkerAlive() instead of join() and isAlive(). the mode is only set per 
+	 * thread so that existing code that relies on join() is never switched to virtual threads implicitly
+	 * @param executionMode 	the execution mode of the work loop
+	 */
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+
+
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+
+	/**
+	 * true if the work loop is executed on a virtual thread
+	 * @return 		true if the loop was started on a virtual thread
+	 */
+	public boolean isVirtual() {
+		return virtualThread != null;
+	}
+
+
+	/**
+	 * returns true if the runtime is able to execute the work loops on virtual threads
+	 * @return 		true if virtual threads are supported
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return VirtualThreads.isSupported();
+	}
 }
@@ -0,0 +1,6 @@
+package ch.wenkst.sw_utils.threads;
+
+public enum ExecutionMode {
+	PLATFORM,		// the work loop runs on a classic platform (os) thread
+	VIRTUAL;		// the work loop runs on a virtual thread if the runtime supports it (jdk 21+)
+}
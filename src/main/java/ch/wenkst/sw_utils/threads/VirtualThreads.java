@@ -0,0 +1,82 @@
+package ch.wenkst.sw_utils.threads;
+
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * creates virtual threads by reflection so that the library can still be compiled and run on
+ * runtimes older than jdk 21
+ */
+class VirtualThreads {
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+	private static final Method ofVirtualMethod;
+	private static final Method nameMethod;
+	private static final Method unstartedMethod;
+	private static final boolean supported;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method unstarted = null;
+		boolean isSupported = false;
+
+		try {
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builderClass.getMethod("name", String.class);
+			unstarted = builderClass.getMethod("unstarted", Runnable.class);
+
+			// the call fails on jdk 19 and 20 if the preview features are not enabled
+			ofVirtual.invoke(null);
+			isSupported = true;
+
+		} catch (Exception e) {
+			logger.debug("virtual threads are not supported by the runtime " + System.getProperty("java.version"));
+		}
+
+		ofVirtualMethod = ofVirtual;
+		nameMethod = name;
+		unstartedMethod = unstarted;
+		supported = isSupported;
+	}
+
+
+	private VirtualThreads() {
+
+	}
+
+
+	/**
+	 * returns true if the runtime is able to create virtual threads
+	 * @return 		true if virtual threads are supported
+	 */
+	static boolean isSupported() {
+		return supported;
+	}
+
+
+	/**
+	 * creates an unstarted virtual thread that executes the passed task
+	 * @param threadName 	the name of the virtual thread
+	 * @param task 			the task to execute
+	 * @return 				the unstarted virtual thread, null if virtual threads are not supported
+	 */
+	static Thread unstarted(String threadName, Runnable task) {
+		if (!supported) {
+			return null;
+		}
+
+		try {
+			Object builder = ofVirtualMethod.invoke(null);
+			builder = nameMethod.invoke(builder, threadName);
+			return (Thread) unstartedMethod.invoke(builder, task);
+
+		} catch (Exception e) {
+			logger.error("failed to create a virtual thread: ", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package ch.wenkst.sw_utils.threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import ch.wenkst.sw_utils.metrics.LatencyHistogram;
+
+public class WakeupSignal {
+	private volatile Thread waiter = null;
+	private volatile boolean signaled = false;
+	private volatile long signalTime = 0;
+	private LatencyHistogram wakeupLatency = new LatencyHistogram();
+
+
+	/**
+	 * signal that lets a single thread wait with a timeout and wakes it immediately if another thread
+	 * signals it. the time between the signal and the moment the waiter continues is recorded
+	 */
+	public WakeupSignal() {
+
+	}
+
+
+	/**
+	 * wakes the waiting thread, if no thread is waiting the next call of await returns immediately.
+	 * can be called from any thread
+	 */
+	public void signal() {
+		if (!signaled) {
+			signalTime = System.nanoTime();
+			signaled = true;
+		}
+
+		Thread thread = waiter;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+
+	/**
+	 * parks the calling thread until the signal is set or the timeout expired, only one thread
+	 * is allowed to wait for the signal
+	 * @param timeout 	maximal time to wait in ms
+	 * @return 			true if the signal was set, false if the timeout expired or the thread was interrupted
+	 */
+	public boolean await(long timeout) {
+		waiter = Thread.currentThread();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+		while (!signaled) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+
+			LockSupport.parkNanos(this, remaining);
+			if (Thread.interrupted()) {
+				break;
+			}
+		}
+
+		if (!signaled) {
+			return false;
+		}
+
+		signaled = false;
+		wakeupLatency.record(System.nanoTime() - signalTime);
+		return true;
+	}
+
+
+	/**
+	 * returns the latencies between the signal and the moment the waiting thread continued
+	 * @return 		the wakeup latency histogram
+	 */
+	public LatencyHistogram getWakeupLatency() {
+		return wakeupLatency;
+	}
+}
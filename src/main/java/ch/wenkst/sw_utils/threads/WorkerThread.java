@@ -3,15 +3,17 @@ package ch.wenkst.sw_utils.threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.metrics.LatencyHistogram;
 
 public abstract class WorkerThread extends Thread {
 	private static final Logger logger = LoggerFactory.getLogger(WorkerThread.class);
 
 
 	protected int pollInterval = 1000;
-	protected WorkerThreadState currentState = WorkerThreadState.STARTING;
-	protected boolean running = true;
+	protected volatile WorkerThreadState currentState = WorkerThreadState.STARTING;
+	protected volatile boolean running = true;
+	private WakeupSignal wakeupSignal = new WakeupSignal();
+	private final Object stateLock = new Object();
 	
 
 	/**
@@ -47,7 +49,7 @@ public abstract class WorkerThread extends Thread {
 			}
 			case WORKING: {
 				doWork();
-				Utils.sleep(pollInterval);
+				awaitPollInterval();
 				break;
 			}
 			case SUSPENDING: {
@@ -57,7 +59,7 @@ public abstract class WorkerThread extends Thread {
 			}
 			case SUSPENDED: {
 				doSuspendedWork();
-				Utils.sleep(pollInterval);
+				awaitPollInterval();
 				break;
 			}
 			case RESUMING: {
@@ -77,6 +79,17 @@ public abstract class WorkerThread extends Thread {
 	}
 	
 	
+	/**
+	 * waits the poll interval, returns immediately if the state changes or wakeup() is called
+	 */
+	private void awaitPollInterval() {
+		WorkerThreadState state = currentState;
+		if (state == WorkerThreadState.WORKING || state == WorkerThreadState.SUSPENDED) {
+			wakeupSignal.await(pollInterval);
+		}
+	}
+	
+	
 	protected abstract void doStartWork();
 
 	protected abstract void doWork();
@@ -95,8 +108,14 @@ public abstract class WorkerThread extends Thread {
 	 * @param newState 	the new thread state
 	 */
 	private void updateThreadState(WorkerThreadState newState) {
-		if (currentState != WorkerThreadState.TERMINATING && currentState != WorkerThreadState.TERMINATED) {
-			currentState = newState;
+		synchronized (stateLock) {
+			if (currentState == WorkerThreadState.TERMINATED) {
+				return;
+			}
+
+			if (currentState != WorkerThreadState.TERMINATING || newState == WorkerThreadState.TERMINATED) {
+				currentState = newState;
+			}
 		}
 	}
 
@@ -115,6 +134,7 @@ public abstract class WorkerThread extends Thread {
 	 */
 	public void suspendThread() {
 		updateThreadState(WorkerThreadState.SUSPENDING);
+		wakeupSignal.signal();
 	}
 	
 	
@@ -123,6 +143,7 @@ public abstract class WorkerThread extends Thread {
 	 */
 	public void resumeThread() {
 		updateThreadState(WorkerThreadState.RESUMING);
+		wakeupSignal.signal();
 	}
 
 	
@@ -131,6 +152,25 @@ public abstract class WorkerThread extends Thread {
 	 */
 	public void terminateThread() {
 		updateThreadState(WorkerThreadState.TERMINATING);
+		wakeupSignal.signal();
+	}
+	
+
+	/**
+	 * wakes the thread if it waits for the next poll interval, call this after new work was submitted
+	 * to process it immediately instead of after the poll interval
+	 */
+	public void wakeup() {
+		wakeupSignal.signal();
+	}
+
+
+	/**
+	 * returns the latencies between a state change or wakeup and the moment the thread reacted to it
+	 * @return 		the wakeup latency histogram
+	 */
+	public LatencyHistogram getWakeupLatency() {
+		return wakeupSignal.getWakeupLatency();
 	}
 	
 
@@ -0,0 +1,106 @@
+package ch.wenkst.sw_utils.communication.buffer;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class BufferPoolTest extends BaseTest {
+	
+	@Test
+	public void bufferFromSmallestFittingSizeClass() {
+		BufferPool pool = new BufferPool(new int[] {1024, 4096}, 4, true);
+		
+		ByteBuffer buffer = pool.acquire(1500);
+		Assertions.assertEquals(4096, buffer.capacity());
+		Assertions.assertEquals(0, buffer.position());
+		Assertions.assertEquals(4096, buffer.limit());
+		Assertions.assertTrue(buffer.isDirect());
+	}
+	
+	
+	@Test
+	public void releasedBufferIsReused() {
+		BufferPool pool = new BufferPool(new int[] {1024, 4096}, 4, true);
+		
+		ByteBuffer buffer = pool.acquire(100);
+		buffer.put((byte) 1);
+		pool.release(buffer);
+		Assertions.assertEquals(1, pool.getPooledCount());
+		
+		ByteBuffer reusedBuffer = pool.acquire(200);
+		Assertions.assertSame(buffer, reusedBuffer);
+		Assertions.assertEquals(0, reusedBuffer.position());
+		Assertions.assertEquals(1, pool.getAllocatedCount());
+		Assertions.assertEquals(0, pool.getPooledCount());
+	}
+	
+	
+	@Test
+	public void oversizedBufferIsNotPooled() {
+		BufferPool pool = new BufferPool(new int[] {1024}, 4, false);
+		
+		ByteBuffer buffer = pool.acquire(5000);
+		Assertions.assertEquals(5000, buffer.capacity());
+		pool.release(buffer);
+		Assertions.assertEquals(0, pool.getPooledCount());
+	}
+	
+	
+	@Test
+	public void poolIsBoundedPerSizeClass() {
+		BufferPool pool = new BufferPool(new int[] {1024}, 2, false);
+		
+		ByteBuffer buffer1 = pool.acquire(10);
+		ByteBuffer buffer2 = pool.acquire(10);
+		ByteBuffer buffer3 = pool.acquire(10);
+		pool.release(buffer1);
+		pool.release(buffer2);
+		pool.release(buffer3);
+		Assertions.assertEquals(2, pool.getPooledCount());
+	}
+	
+	
+	@Test
+	public void doubleReleaseIsIgnored() {
+		BufferPool pool = new BufferPool(new int[] {1024}, 4, false);
+		pool.setTrackBorrowedBuffers(true);
+		
+		ByteBuffer buffer = pool.acquire(10);
+		Assertions.assertEquals(1, pool.getBorrowedCount());
+		pool.release(buffer);
+		pool.release(buffer);
+		Assertions.assertEquals(0, pool.getBorrowedCount());
+		Assertions.assertEquals(1, pool.getPooledCount());
+		Assertions.assertNotSame(pool.acquire(10), pool.acquire(10));
+	}
+	
+	
+	@Test
+	public void foreignBufferIsNotPooled() {
+		BufferPool pool = new BufferPool(new int[] {1024}, 4, false);
+		pool.setTrackBorrowedBuffers(true);
+		
+		pool.release(ByteBuffer.allocate(1024));
+		Assertions.assertEquals(0, pool.getPooledCount());
+	}
+	
+	
+	@Test
+	public void readBufferIsReturnedOnce() {
+		BufferPool pool = new BufferPool(new int[] {1024}, 4, false);
+		
+		ReadBuffer readBuffer = new ReadBuffer(pool, 1000);
+		byte[] array = readBuffer.array();
+		ByteBuffer view = readBuffer.view(array, 10);
+		Assertions.assertEquals(10, view.remaining());
+		Assertions.assertSame(view, readBuffer.view(array, 20));
+		
+		readBuffer.release();
+		readBuffer.release();
+		Assertions.assertEquals(1, pool.getPooledCount());
+		Assertions.assertSame(array, new ReadBuffer(pool, 1000).array());
+	}
+}
@@ -0,0 +1,96 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.conversion.Conversion;
+
+public class MessageFramerTest extends BaseTest {
+	
+	@Test
+	public void lengthFieldFramesFragmentedAndCoalesced() throws FramingException {
+		LengthFieldFramer framer = new LengthFieldFramer(2, 1024);
+		byte[] stream = Conversion.concatArrays(framer.encode(utf8("first")), framer.encode(utf8("second")), framer.encode(utf8("third")));
+		
+		List<byte[]> frames = framer.decode(stream, 0, 5);
+		Assertions.assertTrue(frames.isEmpty());
+		
+		frames = framer.decode(stream, 5, 12);
+		Assertions.assertEquals(2, frames.size());
+		Assertions.assertEquals("first", str(frames.get(0)));
+		Assertions.assertEquals("second", str(frames.get(1)));
+		
+		frames = framer.decode(stream, 17, stream.length - 17);
+		Assertions.assertEquals(1, frames.size());
+		Assertions.assertEquals("third", str(frames.get(0)));
+		Assertions.assertEquals(0, framer.getBufferedBytes());
+	}
+	
+	
+	@Test
+	public void tooLongLengthFieldFrameRejected() {
+		LengthFieldFramer framer = new LengthFieldFramer(4, 10);
+		byte[] frame = framer.encode(new byte[11]);
+		Assertions.assertThrows(FramingException.class, () -> framer.decode(frame, 0, frame.length));
+	}
+	
+	
+	@Test
+	public void lineFrames() throws FramingException {
+		DelimiterFramer framer = DelimiterFramer.lineFramer(100);
+		
+		List<byte[]> frames = framer.decode(utf8("line 1\nline"), 0, 11);
+		Assertions.assertEquals(1, frames.size());
+		Assertions.assertEquals("line 1", str(frames.get(0)));
+		
+		frames = framer.decode(utf8(" 2\n\nline 3\n"), 0, 11);
+		Assertions.assertEquals(3, frames.size());
+		Assertions.assertEquals("line 2", str(frames.get(0)));
+		Assertions.assertEquals("", str(frames.get(1)));
+		Assertions.assertEquals("line 3", str(frames.get(2)));
+	}
+	
+	
+	@Test
+	public void multiByteDelimiterSplitBetweenReads() throws FramingException {
+		DelimiterFramer framer = new DelimiterFramer(utf8("\r\n"), 100);
+		
+		Assertions.assertTrue(framer.decode(utf8("hello\r"), 0, 6).isEmpty());
+		List<byte[]> frames = framer.decode(utf8("\n"), 0, 1);
+		Assertions.assertEquals(1, frames.size());
+		Assertions.assertEquals("hello", str(frames.get(0)));
+	}
+	
+	
+	@Test
+	public void missingDelimiterRejected() {
+		DelimiterFramer framer = DelimiterFramer.lineFramer(4);
+		Assertions.assertThrows(FramingException.class, () -> framer.decode(utf8("too long"), 0, 8));
+	}
+	
+	
+	@Test
+	public void fixedLengthFrames() throws FramingException {
+		FixedLengthFramer framer = new FixedLengthFramer(3);
+		
+		List<byte[]> frames = framer.decode(utf8("abcdefg"), 0, 7);
+		Assertions.assertEquals(2, frames.size());
+		Assertions.assertEquals("abc", str(frames.get(0)));
+		Assertions.assertEquals("def", str(frames.get(1)));
+		Assertions.assertEquals(1, framer.getBufferedBytes());
+	}
+	
+	
+	private byte[] utf8(String str) {
+		return str.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	
+	private String str(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,59 @@
+package ch.wenkst.sw_utils.communication.framing;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class RingBufferTest extends BaseTest {
+	
+	@Test
+	public void writeAndReadWrappingAround() {
+		RingBuffer ringBuffer = new RingBuffer(16);
+		ringBuffer.write(bytes(0, 12), 0, 12);
+		ringBuffer.skip(10);
+		
+		ringBuffer.write(bytes(12, 10), 0, 10);
+		Assertions.assertEquals(16, ringBuffer.capacity());
+		Assertions.assertEquals(12, ringBuffer.readableBytes());
+		Assertions.assertArrayEquals(bytes(10, 12), ringBuffer.read(12));
+		Assertions.assertEquals(0, ringBuffer.readableBytes());
+	}
+	
+	
+	@Test
+	public void bufferGrowsAndKeepsOrder() {
+		RingBuffer ringBuffer = new RingBuffer(16);
+		ringBuffer.write(bytes(0, 10), 0, 10);
+		ringBuffer.skip(8);
+		ringBuffer.write(ByteBuffer.wrap(bytes(10, 30)));
+		
+		Assertions.assertEquals(32, ringBuffer.capacity());
+		Assertions.assertEquals(8, ringBuffer.getByte(0));
+		Assertions.assertArrayEquals(bytes(8, 32), ringBuffer.read(32));
+	}
+	
+	
+	@Test
+	public void patternFoundAcrossWrapBoundary() {
+		RingBuffer ringBuffer = new RingBuffer(16);
+		ringBuffer.write(new byte[14], 0, 14);
+		ringBuffer.skip(14);
+		ringBuffer.write(new byte[] {1, 2, '\r', '\n', 3}, 0, 5);
+		
+		Assertions.assertEquals(2, ringBuffer.indexOf(new byte[] {'\r', '\n'}, 0));
+		Assertions.assertEquals(-1, ringBuffer.indexOf(new byte[] {'\r', '\n'}, 3));
+		Assertions.assertEquals(0x0102, ringBuffer.getUnsigned(0, 2));
+	}
+	
+	
+	private byte[] bytes(int start, int length) {
+		byte[] bytes = new byte[length];
+		for (int i=0; i<length; i++) {
+			bytes[i] = (byte) (start + i);
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,95 @@
+package ch.wenkst.sw_utils.communication.tcp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class NioTcpTest extends BaseTest {
+	private String testHost = "127.0.0.1";
+	private int testPort = 7781;
+	private int eventLoopCount = 2;
+	private NioTcpTestServer tcpServer;
+	private List<TcpTestClient> tcpClients = new ArrayList<>();
+	
+	
+	@BeforeAll
+	public void createServer() {
+		tcpServer = new NioTcpTestServer();
+		tcpServer.init(testPort, "nio-tcp-test-server", eventLoopCount);
+		tcpServer.start();
+	}
+	
+	
+	private TcpTestClient connectClient() {
+		TcpTestClient tcpClient = new TcpTestClient();
+		tcpClient.init(testHost, testPort, "nio-tcp-test-client");
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> tcpClient.connect());
+		tcpClient.startClient();
+		tcpClients.add(tcpClient);
+		return tcpClient;
+	}
+	
+	
+	private TcpTestSession awaitSession(int index) {
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> tcpServer.getTestSessions().size() > index);
+		return tcpServer.getTestSessions().get(index);
+	}
+	
+	
+	@Test
+	public void messagesInBothDirections() throws InterruptedException, ExecutionException, TimeoutException {
+		int sessionIndex = tcpServer.getTestSessions().size();
+		TcpTestClient tcpClient = connectClient();
+		TcpTestSession session = awaitSession(sessionIndex);
+		
+		String clientMessage = "Hello Server!";
+		tcpClient.sendTestMessage(clientMessage);
+		Assertions.assertEquals(clientMessage, session.getMessageFuture().get(1, TimeUnit.SECONDS));
+		
+		String serverMessage = "Hello Client!";
+		session.sendTestMessage(serverMessage);
+		Assertions.assertEquals(serverMessage, tcpClient.getMessageFuture().get(1, TimeUnit.SECONDS));
+	}
+	
+	
+	@Test
+	public void sessionsDoNotOwnThreads() throws InterruptedException, ExecutionException, TimeoutException {
+		int sessionCount = 20;
+		int firstIndex = tcpServer.getTestSessions().size();
+		for (int i=0; i<sessionCount; i++) {
+			connectClient();
+		}
+		
+		for (int i=firstIndex; i<firstIndex+sessionCount; i++) {
+			TcpTestSession session = awaitSession(i);
+			Assertions.assertTrue(session.isEventLoopSession());
+			Assertions.assertFalse(session.isWorkerAlive());
+		}
+	}
+	
+	
+	@AfterAll
+	public void tearDownClientsAndServer() throws InterruptedException {
+		for (TcpTestClient tcpClient : tcpClients) {
+			tcpClient.disconnect();
+			tcpClient.stopClient();
+			tcpClient.joinWorker();
+		}
+		
+		tcpServer.stopServer();
+		tcpServer.joinWorker();
+		tcpServer.joinEventLoops();
+	}
+}
@@ -0,0 +1,26 @@
+package ch.wenkst.sw_utils.communication.tcp;
+
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.tcp.server.NioTcpServer;
+import ch.wenkst.sw_utils.communication.tcp.server.TcpServer;
+
+public class NioTcpTestServer extends NioTcpServer {
+	private List<TcpTestSession> testSessions = new CopyOnWriteArrayList<>();
+
+	@Override
+	protected ISession onNewConnection(TcpServer owner, Socket socket) {
+		TcpTestSession testSession = new TcpTestSession();
+		testSession.init(owner, socket, "nio-tcp-test-session-" + testSessions.size());
+		testSession.start();
+		testSessions.add(testSession);
+		return testSession;
+	}
+
+	public List<TcpTestSession> getTestSessions() {
+		return testSessions;
+	}
+}
@@ -69,8 +69,8 @@ public class TcpTest extends BaseTest {
 		tcpClient.stopClient();
 		tcpServer.stopServer();
 		
-		tcpServer.getTestSession().join();
-		tcpClient.join();
-		tcpServer.join();
+		tcpServer.getTestSession().joinWorker();
+		tcpClient.joinWorker();
+		tcpServer.joinWorker();
 	}
 }
@@ -0,0 +1,217 @@
+package ch.wenkst.sw_utils.communication.tls;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.crypto.CryptoProvider;
+import ch.wenkst.sw_utils.crypto.SecurityConstants;
+import ch.wenkst.sw_utils.crypto.SecurityUtils;
+import ch.wenkst.sw_utils.crypto.tls.SSLContextGenerator;
+import ch.wenkst.sw_utils.file.FileUtils;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class NioTlsTest extends BaseTest {
+	private String certDir = Utils.getWorkDir() + File.separator + "resource" + File.separator + "tls_comm" + File.separator;
+	
+	private String tlsProtocol = SecurityConstants.TLS_1_3;
+	private String testHost = "127.0.0.1";
+	private int testPort = 7798;
+	private NioTlsTestServer tlsServer;
+	private SSLContext clientSslContext;
+	private List<TlsTestClient> tlsClients = new ArrayList<>();
+	
+	
+	@BeforeAll
+	public void createServer() throws Exception {
+		CryptoProvider.registerBCJSSE();
+		clientSslContext = sslContext(certDir + "client");
+		
+		tlsServer = new NioTlsTestServer();
+		tlsServer.init(testPort, sslContext(certDir + "server"), true, "nio-tls-test-server", 2);
+		tlsServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	private SSLContext sslContext(String keyDir) throws Exception {
+		String keyPath = FileUtils.findFileByPattern(keyDir, "", "pem");
+		String certPath = FileUtils.findFileByPattern(keyDir, "", "cer");
+		String caCertPath = FileUtils.findFileByPattern(certDir + "ca", "", "cer");
+		
+		PrivateKey privateKey = SecurityUtils.keyFromFile(keyPath);
+		Certificate cert = SecurityUtils.certFromFile(certPath);
+		Certificate caCert = SecurityUtils.certFromFile(caCertPath);
+		List<Certificate> trustedCerts = Arrays.asList(new Certificate[] {caCert});
+		
+		return SSLContextGenerator.createSSLContext("test-pw", privateKey, cert, caCert, trustedCerts, tlsProtocol);
+	}
+	
+	
+	private TlsTestClient connectClient() {
+		TlsTestClient tlsClient = new TlsTestClient();
+		tlsClient.init(testHost, testPort, clientSslContext, "nio-tls-test-client");
+		Assertions.assertTrue(tlsClient.connect(2000));
+		tlsClient.startClient();
+		tlsClients.add(tlsClient);
+		return tlsClient;
+	}
+	
+	
+	private TlsTestSession awaitSession(int index) {
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> tlsServer.getTestSessions().size() > index);
+		return tlsServer.getTestSessions().get(index);
+	}
+	
+	
+	@Test
+	public void messagesInBothDirections() throws InterruptedException, ExecutionException, TimeoutException, SSLPeerUnverifiedException {
+		int sessionIndex = tlsServer.getTestSessions().size();
+		TlsTestClient tlsClient = connectClient();
+		TlsTestSession session = awaitSession(sessionIndex);
+		
+		String clientMessage = "Hello Server!";
+		tlsClient.sendTestMessage(clientMessage);
+		Assertions.assertEquals(clientMessage, session.getMessageFuture().get(1, TimeUnit.SECONDS));
+		
+		String serverMessage = "Hello Client!";
+		session.sendTestMessage(serverMessage);
+		Assertions.assertEquals(serverMessage, tlsClient.getMessageFuture().get(1, TimeUnit.SECONDS));
+		
+		// the client was authenticated with its certificate
+		Assertions.assertTrue(session.getSslSession().getPeerCertificates().length > 0);
+	}
+	
+	
+	@Test
+	public void sessionsDoNotOwnThreads() throws InterruptedException, ExecutionException, TimeoutException {
+		int clientCount = 20;
+		int firstIndex = tlsServer.getTestSessions().size();
+		for (int i=0; i<clientCount; i++) {
+			connectClient();
+		}
+		
+		for (int i=firstIndex; i<firstIndex+clientCount; i++) {
+			TlsTestSession session = awaitSession(i);
+			Assertions.assertTrue(session.isEventLoopSession());
+			Assertions.assertFalse(session.isWorkerAlive());
+			
+			String message = "message " + i;
+			tlsClients.get(tlsClients.size() - clientCount + i - firstIndex).sendTestMessage(message);
+			Assertions.assertEquals(message, session.getMessageFuture().get(1, TimeUnit.SECONDS));
+		}
+	}
+	
+	
+	@Test
+	public void largeMessage() throws IOException {
+		int sessionIndex = tlsServer.getTestSessions().size();
+		try (Socket socket = clientSslContext.getSocketFactory().createSocket(testHost, testPort)) {
+			((SSLSocket) socket).startHandshake();
+			TlsTestSession session = awaitSession(sessionIndex);
+			
+			// the message is split into multiple tls records
+			StringBuilder message = new StringBuilder();
+			while (message.length() < 100000) {
+				message.append("large message ");
+			}
+			session.sendTestMessage(message.toString());
+			
+			byte[] received = new byte[message.length()];
+			InputStream in = socket.getInputStream();
+			int offset = 0;
+			while (offset < received.length) {
+				int len = in.read(received, offset, received.length - offset);
+				Assertions.assertTrue(len > 0);
+				offset += len;
+			}
+			Assertions.assertEquals(message.toString(), new String(received, StandardCharsets.UTF_8));
+		}
+	}
+	
+	
+	@Test
+	public void pendingDataIsSentBeforeClose() throws IOException {
+		int sessionIndex = tlsServer.getTestSessions().size();
+		try (Socket socket = clientSslContext.getSocketFactory().createSocket(testHost, testPort)) {
+			((SSLSocket) socket).startHandshake();
+			TlsTestSession session = awaitSession(sessionIndex);
+			
+			// the message does not fit into the socket buffers and is still queued when the session is closed
+			StringBuilder message = new StringBuilder();
+			while (message.length() < 16000000) {
+				message.append("queued message ");
+			}
+			session.sendTestMessage(message.toString());
+			session.stopSession();
+			
+			ByteArrayOutputStream received = new ByteArrayOutputStream();
+			InputStream in = socket.getInputStream();
+			byte[] buffer = new byte[16384];
+			int len;
+			while ((len = in.read(buffer)) > 0) {
+				received.write(buffer, 0, len);
+			}
+			Assertions.assertEquals(message.toString(), new String(received.toByteArray(), StandardCharsets.UTF_8));
+		}
+	}
+	
+	
+	@Test
+	public void closeIsBoundedIfClientDoesNotRead() throws IOException {
+		int sessionIndex = tlsServer.getTestSessions().size();
+		try (Socket socket = clientSslContext.getSocketFactory().createSocket(testHost, testPort)) {
+			((SSLSocket) socket).startHandshake();
+			TlsTestSession session = awaitSession(sessionIndex);
+			int sessionCount = tlsServer.getSessionCount();
+			
+			// the client never reads, the queued data is dropped after the close timeout of the connection
+			StringBuilder message = new StringBuilder();
+			while (message.length() < 16000000) {
+				message.append("unread message ");
+			}
+			session.sendTestMessage(message.toString());
+			session.stopSession();
+			Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> tlsServer.getSessionCount() == sessionCount - 1);
+		}
+	}
+	
+	
+	@AfterAll
+	public void tearDownClientsAndServer() throws InterruptedException {
+		for (TlsTestClient tlsClient : tlsClients) {
+			tlsClient.disconnect();
+			tlsClient.stopClient();
+			tlsClient.joinWorker();
+		}
+		
+		tlsServer.stopServer();
+		tlsServer.joinWorker();
+		tlsServer.joinEventLoops();
+		CryptoProvider.unregisterBCJSSE();
+	}
+}
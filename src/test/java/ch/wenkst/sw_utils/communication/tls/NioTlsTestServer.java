@@ -0,0 +1,27 @@
+package ch.wenkst.sw_utils.communication.tls;
+
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.net.ssl.SSLEngine;
+
+import ch.wenkst.sw_utils.communication.ISession;
+import ch.wenkst.sw_utils.communication.tls.server.NioTlsServer;
+
+public class NioTlsTestServer extends NioTlsServer {
+	private List<TlsTestSession> testSessions = new CopyOnWriteArrayList<>();
+
+	@Override
+	protected ISession onNewConnection(NioTlsServer owner, SocketChannel channel, SSLEngine engine) {
+		TlsTestSession testSession = new TlsTestSession();
+		testSession.init(owner, channel, engine, "nio-tls-test-session-" + testSessions.size());
+		testSession.start();
+		testSessions.add(testSession);
+		return testSession;
+	}
+
+	public List<TlsTestSession> getTestSessions() {
+		return testSessions;
+	}
+}
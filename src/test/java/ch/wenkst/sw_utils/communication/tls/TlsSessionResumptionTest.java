@@ -0,0 +1,175 @@
+package ch.wenkst.sw_utils.communication.tls;
+
+import java.io.File;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.net.ssl.SSLContext;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.communication.tls.server.BaseTlsServer;
+import ch.wenkst.sw_utils.crypto.SecurityConstants;
+import ch.wenkst.sw_utils.crypto.SecurityUtils;
+import ch.wenkst.sw_utils.crypto.tls.SSLContextGenerator;
+import ch.wenkst.sw_utils.file.FileUtils;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TlsSessionResumptionTest extends BaseTest {
+	private String certDir = Utils.getWorkDir() + File.separator + "resource" + File.separator + "tls_comm" + File.separator;
+	
+	private String tlsProtocol = SecurityConstants.TLS_1_3;
+	private String testHost = "127.0.0.1";
+	private int testPort = 7799;
+	private int nioTestPort = 7800;
+	private TlsTestServer tlsServer;
+	private NioTlsTestServer nioTlsServer;
+	private List<TlsTestClient> tlsClients = new ArrayList<>();
+	
+	
+	@BeforeAll
+	public void createServers() throws Exception {
+		SSLContextGenerator.enableSessionResumption(true);
+		
+		tlsServer = new TlsTestServer();
+		tlsServer.init(testPort, sslContext(certDir + "server"), true, "resumption-test-server");
+		tlsServer.setSessionCache(100, 3600);
+		tlsServer.start();
+		
+		nioTlsServer = new NioTlsTestServer();
+		nioTlsServer.init(nioTestPort, sslContext(certDir + "server"), true, "nio-resumption-test-server", 2);
+		nioTlsServer.setSessionCache(100, 3600);
+		nioTlsServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	private SSLContext sslContext(String keyDir) throws Exception {
+		String keyPath = FileUtils.findFileByPattern(keyDir, "", "pem");
+		String certPath = FileUtils.findFileByPattern(keyDir, "", "cer");
+		String caCertPath = FileUtils.findFileByPattern(certDir + "ca", "", "cer");
+		
+		PrivateKey privateKey = SecurityUtils.keyFromFile(keyPath);
+		Certificate cert = SecurityUtils.certFromFile(certPath);
+		Certificate caCert = SecurityUtils.certFromFile(caCertPath);
+		List<Certificate> trustedCerts = Arrays.asList(new Certificate[] {caCert});
+		
+		return SSLContextGenerator.createSSLContext("test-pw", privateKey, cert, caCert, trustedCerts, tlsProtocol);
+	}
+	
+	
+	private TlsTestClient connectClient(SSLContext sslContext, int port, boolean sessionReuse) {
+		TlsTestClient tlsClient = new TlsTestClient();
+		tlsClient.init(testHost, port, sslContext, "resumption-test-client");
+		tlsClient.setSessionReuse(sessionReuse);
+		Assertions.assertTrue(tlsClient.connect(2000));
+		tlsClient.startClient();
+		tlsClients.add(tlsClient);
+		return tlsClient;
+	}
+	
+	
+	private void awaitHandshakes(BaseTlsServer server, long handshakeCount) {
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> 
+				server.getFullHandshakeCount() + server.getResumedHandshakeCount() >= handshakeCount);
+	}
+	
+	
+	/**
+	 * the client needs to read from the connection to receive the session ticket of the server
+	 */
+	private void receiveMessage(TlsTestClient tlsClient, TlsTestSession session) throws InterruptedException, ExecutionException, TimeoutException {
+		String serverMessage = "Hello Client!";
+		session.sendTestMessage(serverMessage);
+		Assertions.assertEquals(serverMessage, tlsClient.getMessageFuture().get(1, TimeUnit.SECONDS));
+		tlsClient.disconnect();
+	}
+	
+	
+	@Test
+	public void resumedHandshake() throws Exception {
+		SSLContext clientSslContext = sslContext(certDir + "client");
+		long fullCount = tlsServer.getFullHandshakeCount();
+		long resumedCount = tlsServer.getResumedHandshakeCount();
+		
+		TlsTestClient firstClient = connectClient(clientSslContext, testPort, true);
+		awaitHandshakes(tlsServer, fullCount + resumedCount + 1);
+		receiveMessage(firstClient, tlsServer.getTestSession());
+		Assertions.assertFalse(firstClient.isSessionResumed());
+		Assertions.assertEquals(1, firstClient.getFullHandshakeCount());
+		
+		TlsTestClient secondClient = connectClient(clientSslContext, testPort, true);
+		awaitHandshakes(tlsServer, fullCount + resumedCount + 2);
+		Assertions.assertTrue(secondClient.isSessionResumed());
+		Assertions.assertEquals(1, secondClient.getResumedHandshakeCount());
+		Assertions.assertEquals(fullCount + 1, tlsServer.getFullHandshakeCount());
+		Assertions.assertEquals(resumedCount + 1, tlsServer.getResumedHandshakeCount());
+	}
+	
+	
+	@Test
+	public void resumedHandshakeNio() throws Exception {
+		SSLContext clientSslContext = sslContext(certDir + "client");
+		long fullCount = nioTlsServer.getFullHandshakeCount();
+		long resumedCount = nioTlsServer.getResumedHandshakeCount();
+		
+		int sessionIndex = nioTlsServer.getTestSessions().size();
+		TlsTestClient firstClient = connectClient(clientSslContext, nioTestPort, true);
+		awaitHandshakes(nioTlsServer, fullCount + resumedCount + 1);
+		receiveMessage(firstClient, nioTlsServer.getTestSessions().get(sessionIndex));
+		Assertions.assertFalse(firstClient.isSessionResumed());
+		
+		TlsTestClient secondClient = connectClient(clientSslContext, nioTestPort, true);
+		awaitHandshakes(nioTlsServer, fullCount + resumedCount + 2);
+		Assertions.assertTrue(secondClient.isSessionResumed());
+		Assertions.assertEquals(fullCount + 1, nioTlsServer.getFullHandshakeCount());
+		Assertions.assertEquals(resumedCount + 1, nioTlsServer.getResumedHandshakeCount());
+	}
+	
+	
+	@Test
+	public void noSessionReuse() throws Exception {
+		SSLContext clientSslContext = sslContext(certDir + "client");
+		long fullCount = tlsServer.getFullHandshakeCount();
+		long resumedCount = tlsServer.getResumedHandshakeCount();
+		
+		TlsTestClient firstClient = connectClient(clientSslContext, testPort, false);
+		awaitHandshakes(tlsServer, fullCount + resumedCount + 1);
+		receiveMessage(firstClient, tlsServer.getTestSession());
+		
+		TlsTestClient secondClient = connectClient(clientSslContext, testPort, false);
+		awaitHandshakes(tlsServer, fullCount + resumedCount + 2);
+		Assertions.assertFalse(secondClient.isSessionResumed());
+		Assertions.assertEquals(fullCount + 2, tlsServer.getFullHandshakeCount());
+		Assertions.assertEquals(resumedCount, tlsServer.getResumedHandshakeCount());
+	}
+	
+	
+	@AfterAll
+	public void tearDownClientsAndServers() throws InterruptedException {
+		for (TlsTestClient tlsClient : tlsClients) {
+			tlsClient.disconnect();
+			tlsClient.stopClient();
+			tlsClient.joinWorker();
+		}
+		
+		tlsServer.stopServer();
+		tlsServer.joinWorker();
+		nioTlsServer.stopServer();
+		nioTlsServer.joinWorker();
+		nioTlsServer.joinEventLoops();
+	}
+}
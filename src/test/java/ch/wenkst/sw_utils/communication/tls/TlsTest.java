@@ -127,9 +127,9 @@ public class TlsTest extends BaseTest {
 		tlsClient.stopClient();
 		tlsServer.stopServer();
 		
-		tlsServer.getTestSession().join();
-		tlsClient.join();
-		tlsServer.join();
+		tlsServer.getTestSession().joinWorker();
+		tlsClient.joinWorker();
+		tlsServer.joinWorker();
 		
 		CryptoProvider.unregisterBCJSSE();
 	}
@@ -0,0 +1,94 @@
+package ch.wenkst.sw_utils.communication.udp;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+
+public class NioUdpLoadTest extends BaseTest {
+	private static final Logger logger = LoggerFactory.getLogger(NioUdpLoadTest.class);
+	
+	private String testHost = "127.0.0.1";
+	private int testPort = 7796;
+	private int clientCount = 8;
+	private int measureTime = 1000;
+	
+	
+	/**
+	 * floods the server from multiple client sockets on the loopback and logs the processed packets per
+	 * second for an increasing number of SO_REUSEPORT shards, disabled in the unit tests, run it manually 
+	 * to measure the udp server
+	 */
+	@Test
+	@Disabled
+	public void shardScaling() throws InterruptedException {
+		int[] shardCounts = NioUdpTestServer.isReusePortSupported() ? new int[] {1, 2, 4} : new int[] {1};
+		for (int shardCount : shardCounts) {
+			long packetsPerSecond = measureThroughput(shardCount);
+			logger.info("udp load test: " + shardCount + " shards, " + packetsPerSecond + " packets/s");
+			Assertions.assertTrue(packetsPerSecond > 0);
+		}
+	}
+	
+	
+	private long measureThroughput(int shardCount) throws InterruptedException {
+		NioUdpTestServer udpServer = new NioUdpTestServer();
+		udpServer.init(testPort, "nio-udp-load-test-server", shardCount, 4096, NioUdpTestServer.DEFAULT_MAX_DATAGRAM_SIZE);
+		udpServer.setShardCount(shardCount);
+		udpServer.startServer();
+		Utils.sleep(200);
+		
+		List<Thread> clients = new ArrayList<>();
+		for (int i=0; i<clientCount; i++) {
+			clients.add(new Thread(() -> runClient(measureTime)));
+		}
+		for (Thread client : clients) {
+			client.start();
+		}
+		
+		// skip the warm-up and count the packets that were processed in the measure interval
+		Utils.sleep(measureTime / 4);
+		long startCount = udpServer.getProcessedCount();
+		long startTime = System.nanoTime();
+		Utils.sleep(measureTime / 2);
+		long processedCount = udpServer.getProcessedCount() - startCount;
+		long duration = System.nanoTime() - startTime;
+		
+		for (Thread client : clients) {
+			client.join();
+		}
+		udpServer.stopServer();
+		udpServer.joinWorker();
+		udpServer.joinWorkers();
+		
+		return (long) (processedCount / (duration / 1e9));
+	}
+	
+	
+	private void runClient(int sendTime) {
+		try (DatagramChannel client = DatagramChannel.open()) {
+			client.connect(new InetSocketAddress(testHost, testPort));
+			ByteBuffer datagram = ByteBuffer.allocate(64);
+			long endTime = System.currentTimeMillis() + sendTime;
+			while (System.currentTimeMillis() < endTime) {
+				for (int i=0; i<100; i++) {
+					datagram.clear();
+					client.write(datagram);
+				}
+			}
+			
+		} catch (Exception e) {
+			logger.error("error in the udp load test client: ", e);
+		}
+	}
+}
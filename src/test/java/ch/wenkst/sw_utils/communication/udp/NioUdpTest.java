@@ -0,0 +1,137 @@
+package ch.wenkst.sw_utils.communication.udp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+
+public class NioUdpTest extends BaseTest {
+	private String testHost = "127.0.0.1";
+	private int testPort = 7795;
+	private NioUdpTestServer udpServer;
+	
+	
+	private void startServer(int workerCount, int ringCapacity) {
+		udpServer = new NioUdpTestServer();
+		udpServer.init(testPort, "nio-udp-test-server", workerCount, ringCapacity, NioUdpTestServer.DEFAULT_MAX_DATAGRAM_SIZE);
+		udpServer.startServer();
+		Utils.sleep(200);
+	}
+	
+	
+	@Test
+	public void receiveAndEcho() throws IOException {
+		startServer(4, 1024);
+		
+		try (DatagramChannel client = DatagramChannel.open()) {
+			client.connect(new InetSocketAddress(testHost, testPort));
+			client.write(ByteBuffer.wrap("echo".getBytes(StandardCharsets.US_ASCII)));
+			
+			ByteBuffer response = ByteBuffer.allocate(100);
+			client.read(response);
+			response.flip();
+			Assertions.assertEquals("echo", StandardCharsets.US_ASCII.decode(response).toString());
+		}
+	}
+	
+	
+	@Test
+	public void batchedReceive() throws IOException {
+		startServer(4, 1024);
+		
+		int datagramCount = 500;
+		try (DatagramChannel client = DatagramChannel.open()) {
+			client.connect(new InetSocketAddress(testHost, testPort));
+			ByteBuffer datagram = ByteBuffer.allocate(100);
+			for (int i=0; i<datagramCount; i++) {
+				datagram.clear();
+				client.write(datagram);
+				
+				// pace the client a little as udp on the loopback drops datagrams if the socket buffer is full
+				if (i % 50 == 0) {
+					Utils.sleep(5);
+				}
+			}
+		}
+		
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> udpServer.getProcessedCount() == datagramCount);
+		Assertions.assertEquals(datagramCount, udpServer.getReceivedCount());
+		Assertions.assertEquals(100L * datagramCount, udpServer.getProcessedBytes());
+		Assertions.assertEquals(0, udpServer.getDroppedCount());
+	}
+	
+	
+	@Test
+	public void fullRingDropsDatagrams() throws IOException {
+		startServer(1, 4);
+		udpServer.setProcessingTime(50);
+		
+		int datagramCount = 100;
+		try (DatagramChannel client = DatagramChannel.open()) {
+			client.connect(new InetSocketAddress(testHost, testPort));
+			ByteBuffer datagram = ByteBuffer.allocate(10);
+			for (int i=0; i<datagramCount; i++) {
+				datagram.clear();
+				client.write(datagram);
+			}
+		}
+		
+		// every received datagram is either processed or counted as dropped
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> udpServer.getReceivedCount() > 0 && udpServer.getPendingCount() == 0 
+				&& udpServer.getProcessedCount() + udpServer.getDroppedCount() == udpServer.getReceivedCount());
+		Assertions.assertTrue(udpServer.getDroppedCount() > 0);
+		Assertions.assertTrue(udpServer.getQueueFullCount() > 0);
+	}
+	
+	
+	@Test
+	public void shardedReceive() throws IOException {
+		Assumptions.assumeTrue(NioUdpTestServer.isReusePortSupported());
+		udpServer = new NioUdpTestServer();
+		udpServer.init(testPort, "nio-udp-test-server", 4, 1024, NioUdpTestServer.DEFAULT_MAX_DATAGRAM_SIZE);
+		udpServer.setShardCount(2);
+		udpServer.startServer();
+		Utils.sleep(200);
+		Assertions.assertEquals(2, udpServer.getOpenShardCount());
+		
+		// the kernel spreads the flows of the clients over the sockets
+		int clientCount = 8;
+		int datagramsPerClient = 50;
+		for (int i=0; i<clientCount; i++) {
+			try (DatagramChannel client = DatagramChannel.open()) {
+				client.connect(new InetSocketAddress(testHost, testPort));
+				for (int j=0; j<datagramsPerClient; j++) {
+					client.write(ByteBuffer.allocate(10));
+					
+					// pace the clients like in batchedReceive so that the loopback does not drop datagrams
+					if (j % 10 == 0) {
+						Utils.sleep(5);
+					}
+				}
+			}
+		}
+		
+		int datagramCount = clientCount * datagramsPerClient;
+		Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> udpServer.getProcessedCount() == datagramCount);
+		Assertions.assertEquals(datagramCount, udpServer.getReceivedCount());
+	}
+	
+	
+	@AfterEach
+	public void stopServer() throws InterruptedException {
+		udpServer.stopServer();
+		udpServer.joinWorker();
+		udpServer.joinWorkers();
+	}
+}
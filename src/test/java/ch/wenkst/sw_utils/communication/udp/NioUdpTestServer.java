@@ -0,0 +1,51 @@
+package ch.wenkst.sw_utils.communication.udp;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.communication.udp.server.NioUdpServer;
+
+public class NioUdpTestServer extends NioUdpServer {
+	private AtomicLong processedCount = new AtomicLong(0);
+	private AtomicLong processedBytes = new AtomicLong(0);
+	private volatile int processingTime = 0;
+	
+	
+	@Override
+	protected void processMessage(byte[] message, InetAddress address, int remotePort) {
+		
+	}
+	
+	
+	@Override
+	protected void processMessage(ByteBuffer message, int len, InetAddress address, int remotePort) {
+		if (processingTime > 0) {
+			Utils.sleep(processingTime);
+		}
+		
+		// echo the message back to the sender
+		if (message.get(message.position()) == 'e') {
+			sendMessage(message.duplicate(), new InetSocketAddress(address, remotePort));
+		}
+		processedBytes.addAndGet(len);
+		processedCount.incrementAndGet();
+	}
+	
+	
+	public long getProcessedCount() {
+		return processedCount.get();
+	}
+	
+	
+	public long getProcessedBytes() {
+		return processedBytes.get();
+	}
+	
+	
+	public void setProcessingTime(int processingTime) {
+		this.processingTime = processingTime;
+	}
+}
@@ -0,0 +1,59 @@
+package ch.wenkst.sw_utils.communication.udp;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class UdpEndpointTest extends BaseTest {
+	
+	@Test
+	public void resolveOnce() throws UnknownHostException {
+		UdpEndpoint endpoint = new UdpEndpoint("localhost", 7797);
+		InetSocketAddress address = endpoint.getAddress();
+		Assertions.assertTrue(address.getAddress().isLoopbackAddress());
+		Assertions.assertEquals(7797, address.getPort());
+		
+		// the cached address is returned until the ttl expires
+		Assertions.assertSame(address, endpoint.getAddress());
+	}
+	
+	
+	@Test
+	public void refreshAfterTtl() throws UnknownHostException {
+		UdpEndpoint endpoint = new UdpEndpoint("localhost", 7797, 0);
+		InetSocketAddress address = endpoint.getAddress();
+		
+		// the host is resolved again but the address is only replaced if it changed
+		Assertions.assertSame(address, endpoint.getAddress());
+	}
+	
+	
+	@Test
+	public void resolvedAddress() {
+		InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 7797);
+		UdpEndpoint endpoint = new UdpEndpoint(address);
+		Assertions.assertSame(address, endpoint.getAddress());
+		Assertions.assertEquals(7797, endpoint.getPort());
+	}
+	
+	
+	@Test
+	public void unknownHost() {
+		Assertions.assertThrows(UnknownHostException.class, () -> new UdpEndpoint("unknown.host.invalid", 7797));
+	}
+	
+	
+	@Test
+	public void serverEndpointCache() throws UnknownHostException {
+		UdpTestServer udpServer = new UdpTestServer();
+		udpServer.init(7797, "udp-endpoint-test-server");
+		UdpEndpoint endpoint = udpServer.endpoint("127.0.0.1", 7797);
+		Assertions.assertSame(endpoint, udpServer.endpoint("127.0.0.1", 7797));
+		Assertions.assertNotSame(endpoint, udpServer.endpoint("127.0.0.1", 7798));
+	}
+}
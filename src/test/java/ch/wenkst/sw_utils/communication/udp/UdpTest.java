@@ -67,7 +67,7 @@ public class UdpTest extends BaseTest {
 		udpClient.stopClient();
 		udpServer.stopServer();
 		
-		udpClient.join();
-		udpServer.join();
+		udpClient.joinWorker();
+		udpServer.joinWorker();
 	}
 }
@@ -1,17 +1,21 @@
 package ch.wenkst.sw_utils.event.board;
 
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.event.EventBoard;
+import ch.wenkst.sw_utils.event.EventListener;
 import ch.wenkst.sw_utils.event.TestEventListener;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -123,6 +127,92 @@ public class EventBoardTest {
 	}
 	
 	
+	@Test
+	public void concurrentRegistrationChurn() throws InterruptedException {
+		EventBoard eventBoard = new EventBoard();
+		int threadCount = 8;
+		AtomicInteger sharedCount = new AtomicInteger(0);
+		runRegistrationChurn(eventBoard, threadCount, 500, sharedCount);
+		
+		// no registration was lost
+		eventBoard.fireEvent("shared", null);
+		Assertions.assertEquals(threadCount, sharedCount.get());
+		
+		// a listener registered after the churn is informed
+		AtomicInteger churnCount = new AtomicInteger(0);
+		eventBoard.registerListener("churn-0", (eventName, params) -> churnCount.incrementAndGet());
+		eventBoard.fireEvent("churn-0", null);
+		Assertions.assertEquals(1, churnCount.get());
+	}
+	
+	
+	/**
+	 * registers, fires and removes listeners from many threads and logs the operations per second, 
+	 * disabled in the unit tests, run it manually to measure the event board
+	 */
+	@Test
+	@Disabled
+	public void registrationChurnBenchmark() throws InterruptedException {
+		int iterations = 20000;
+		for (int threadCount : new int[] {1, 4, 16, 32}) {
+			AtomicInteger sharedCount = new AtomicInteger(0);
+			long duration = runRegistrationChurn(new EventBoard(), threadCount, iterations, sharedCount);
+			logger.info(threadCount + " threads: " + (threadCount * iterations * 3L * 1_000_000_000L / duration) + " register/fire/remove operations per second");
+			Assertions.assertEquals(threadCount, sharedCount.get());
+		}
+	}
+	
+	
+	/**
+	 * starts the passed number of threads that all register a listener for the shared event and then
+	 * register, fire and remove a listener of a churn event in a loop
+	 * @param eventBoard 		the event board to test
+	 * @param threadCount 		the number of threads
+	 * @param iterations 		the number of register/fire/remove loops per thread
+	 * @param sharedCount 		counter that is incremented by the listeners of the shared event
+	 * @return 					the duration of the churn in nanoseconds
+	 * @throws InterruptedException
+	 */
+	private long runRegistrationChurn(EventBoard eventBoard, int threadCount, int iterations, AtomicInteger sharedCount) throws InterruptedException {
+		CountDownLatch startLatch = new CountDownLatch(1);
+		
+		Thread[] threads = new Thread[threadCount];
+		for (int i=0; i<threadCount; i++) {
+			String churnEvent = "churn-" + (i % 4);
+			threads[i] = new Thread(() -> {
+				awaitLatch(startLatch);
+				
+				// all threads register the first listener of the shared event at the same time
+				eventBoard.registerListener("shared", (eventName, params) -> sharedCount.incrementAndGet());
+				
+				EventListener listener = (eventName, params) -> { };
+				for (int j=0; j<iterations; j++) {
+					eventBoard.registerListener(churnEvent, listener);
+					eventBoard.fireEvent(churnEvent, null);
+					eventBoard.removeListener(listener, churnEvent);
+				}
+			});
+			threads[i].start();
+		}
+		
+		long startTime = System.nanoTime();
+		startLatch.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return System.nanoTime() - startTime;
+	}
+	
+	
+	private void awaitLatch(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
 	@AfterAll
 	public void stopExecutor() {
 		eventSender.shutdown();
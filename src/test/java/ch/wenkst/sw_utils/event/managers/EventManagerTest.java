@@ -1,6 +1,16 @@
 package ch.wenkst.sw_utils.event.managers;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
 import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -11,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.event.BackpressurePolicy;
 import ch.wenkst.sw_utils.event.TestEventListener;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -120,6 +132,126 @@ public class EventManagerTest extends BaseTest {
 	}
 	
 	
+	@Test
+	public void concurrentRegisterAndFire() throws InterruptedException {
+		SyncEventManager eventManager = new SyncEventManager("concurrent");
+		AtomicInteger receivedCount = new AtomicInteger(0);
+		int threadCount = 8;
+		int listenersPerThread = 100;
+		
+		Thread[] threads = new Thread[threadCount];
+		for (int i=0; i<threadCount; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j=0; j<listenersPerThread; j++) {
+					eventManager.register((eventName, params) -> receivedCount.incrementAndGet());
+					eventManager.fire(null);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		receivedCount.set(0);
+		eventManager.fire(null);
+		Assertions.assertEquals(threadCount * listenersPerThread, receivedCount.get());
+	}
+	
+	
+	@Test
+	public void listenerListView() {
+		SyncEventManager eventManager = new SyncEventManager("list-view");
+		TestEventListener listener1 = new TestEventListener("listener1", 0);
+		TestEventListener listener2 = new TestEventListener("listener2", 0);
+		
+		eventManager.register(listener1);
+		Assertions.assertTrue(eventManager.listeners.add(listener2));
+		Assertions.assertFalse(eventManager.listeners.add(listener2));
+		Assertions.assertEquals(Arrays.asList(listener1, listener2), eventManager.listeners);
+		Assertions.assertEquals(2, eventManager.getListeners().length);
+		
+		Assertions.assertTrue(eventManager.listeners.remove(listener1));
+		Assertions.assertEquals(1, eventManager.listeners.size());
+		Assertions.assertSame(listener2, eventManager.getListeners()[0]);
+	}
+	
+	
+	@Test
+	public void mailboxPreservesOrderWithoutBlockingThreads() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			MailboxEventManager eventManager = new MailboxEventManager("mailbox", executor, 1000, BackpressurePolicy.BLOCK);
+			List<Object> slowReceived = Collections.synchronizedList(new ArrayList<>());
+			List<Object> fastReceived = Collections.synchronizedList(new ArrayList<>());
+			eventManager.register((eventName, params) -> {
+				Utils.sleep(1);
+				slowReceived.add(params);
+			});
+			eventManager.register((eventName, params) -> fastReceived.add(params));
+			
+			for (int i=0; i<200; i++) {
+				eventManager.fire(i);
+			}
+			
+			// the slow listener only occupies one of the two threads
+			Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> fastReceived.size() == 200);
+			Assertions.assertTrue(slowReceived.size() < 200);
+			
+			Awaitility.await().atMost(5, TimeUnit.SECONDS).until(() -> slowReceived.size() == 200);
+			for (int i=0; i<200; i++) {
+				Assertions.assertEquals(i, slowReceived.get(i));
+				Assertions.assertEquals(i, fastReceived.get(i));
+			}
+			
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	
+	@Test
+	public void mailboxBackpressure() {
+		CountDownLatch blocker = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			// the executor is blocked, the mailboxes are not drained
+			executor.execute(() -> awaitLatch(blocker));
+			MailboxEventManager dropManager = new MailboxEventManager("drop", executor, 4, BackpressurePolicy.DROP_OLDEST);
+			MailboxEventManager rejectManager = new MailboxEventManager("reject", executor, 4, BackpressurePolicy.REJECT);
+			List<Object> dropReceived = Collections.synchronizedList(new ArrayList<>());
+			List<Object> rejectReceived = Collections.synchronizedList(new ArrayList<>());
+			dropManager.register((eventName, params) -> dropReceived.add(params));
+			rejectManager.register((eventName, params) -> rejectReceived.add(params));
+			
+			for (int i=0; i<10; i++) {
+				dropManager.fire(i);
+				rejectManager.fire(i);
+			}
+			Assertions.assertEquals(6, dropManager.getDroppedCount());
+			Assertions.assertEquals(6, rejectManager.getRejectedCount());
+			
+			blocker.countDown();
+			Awaitility.await().atMost(1, TimeUnit.SECONDS).until(() -> dropReceived.size() == 4 && rejectReceived.size() == 4);
+			Assertions.assertEquals(Arrays.asList(6, 7, 8, 9), dropReceived);
+			Assertions.assertEquals(Arrays.asList(0, 1, 2, 3), rejectReceived);
+			
+		} finally {
+			blocker.countDown();
+			executor.shutdown();
+		}
+	}
+	
+	
+	private void awaitLatch(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
 	@AfterAll
 	public void stopExecutor() {
 		eventSender.shutdown();
@@ -0,0 +1,102 @@
+package ch.wenkst.sw_utils.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.http.parser.BodyInputStream;
+import ch.wenkst.sw_utils.http.parser.BodySink;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+
+public class HttpBodyStreamingTest extends BaseTest {
+
+	@Test
+	public void chunkedBodyToSink() {
+		CollectingSink sink = new CollectingSink();
+		HttpRequestParser reqParser = new HttpRequestParser();
+		reqParser.setBodySink(sink);
+		reqParser.addData(HttpTestRequests.chunkedRequest().getBytes(StandardCharsets.UTF_8));
+
+		Assertions.assertTrue(reqParser.isComplete());
+		Assertions.assertTrue(sink.ended);
+		Assertions.assertEquals("interesting text", new String(sink.bytes.toByteArray(), StandardCharsets.UTF_8));
+		Assertions.assertEquals(16, reqParser.getBodyLength());
+		Assertions.assertEquals(0, reqParser.getBodyBytes().length);
+	}
+
+
+	@Test
+	public void sinkSelectedFromHeader() {
+		CollectingSink sink = new CollectingSink();
+		HttpRequestParser reqParser = new HttpRequestParser();
+		reqParser.setBodySinkProvider(parser -> "/stream".equals(((HttpRequestParser) parser).getRequestURI()) ? sink : null);
+
+		reqParser.addData(HttpTestRequests.nonChunkedRequest().getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals("Some Body", reqParser.getBodyStr());
+		Assertions.assertEquals(0, sink.bytes.size());
+	}
+
+
+	@Test
+	public void largeBodyAsInputStream() throws Exception {
+		byte[] body = new byte[1024 * 1024];
+		new Random(7).nextBytes(body);
+		byte[] header = ("POST /upload HTTP/1.1" + HttpConstants.CRLF + 
+				"Content-Length: " + body.length + HttpConstants.CRLF + 
+				HttpConstants.CRLF).getBytes(StandardCharsets.US_ASCII);
+
+		// the stream only buffers 4 kB, the parsing thread is blocked until the reader consumed the bytes
+		BodyInputStream bodyStream = new BodyInputStream(4096);
+		HttpRequestParser reqParser = new HttpRequestParser();
+		reqParser.setBodySink(bodyStream);
+
+		CompletableFuture<Void> parsing = CompletableFuture.runAsync(() -> {
+			reqParser.addData(header);
+			for (int offset=0; offset<body.length; offset+=10000) {
+				reqParser.addData(body, offset, Math.min(10000, body.length - offset));
+			}
+		});
+
+		byte[] received = readAll(bodyStream);
+		parsing.get(5, TimeUnit.SECONDS);
+
+		Assertions.assertTrue(reqParser.isComplete());
+		Assertions.assertTrue(bodyStream.isBodyComplete());
+		Assertions.assertArrayEquals(body, received);
+	}
+
+
+	private byte[] readAll(InputStream inputStream) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1000];
+		int count;
+		while ((count = inputStream.read(buffer)) >= 0) {
+			outputStream.write(buffer, 0, count);
+		}
+		return outputStream.toByteArray();
+	}
+
+
+	private static class CollectingSink implements BodySink {
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private boolean ended = false;
+
+		@Override
+		public void onBodyData(byte[] data, int offset, int length) {
+			bytes.write(data, offset, length);
+		}
+
+		@Override
+		public void onBodyEnd() {
+			ended = true;
+		}
+	}
+}
@@ -1,6 +1,13 @@
 package ch.wenkst.sw_utils.http;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -41,4 +48,90 @@ public class HttpBuilderTest {
 		Assertions.assertTrue(response.contains("authorization"));
 		Assertions.assertTrue(response.contains("you have no access to this page"));
 	}
+	
+	
+	@Test
+	public void writeToBuffer() {
+		HttpResponseBuilder respBuilder = new HttpResponseBuilder();
+		respBuilder.status(200)
+		.headerProperty("X-Custom-Header", "some value")
+		.body("Some Body");
+		
+		byte[] expected = respBuilder.toByteArr();
+		Assertions.assertEquals(respBuilder.length(), expected.length);
+		Assertions.assertTrue(new String(expected, StandardCharsets.US_ASCII).startsWith("HTTP/1.1 200 OK\r\n"));
+		Assertions.assertTrue(new String(expected, StandardCharsets.US_ASCII).contains("x-custom-header: some value\r\n"));
+		
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+		respBuilder.writeTo(buffer);
+		buffer.flip();
+		byte[] written = new byte[buffer.remaining()];
+		buffer.get(written);
+		Assertions.assertArrayEquals(expected, written);
+	}
+	
+	
+	@Test
+	public void writeToStreamAndChannel() throws IOException {
+		HttpRequestBuilder reqBuilder = new HttpRequestBuilder();
+		reqBuilder.preparePost("http://localhost:8080/v1/").body("Some Body");
+		byte[] expected = reqBuilder.toByteArr();
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		reqBuilder.writeTo(out);
+		Assertions.assertArrayEquals(expected, out.toByteArray());
+		
+		Pipe pipe = Pipe.open();
+		Assertions.assertEquals(expected.length, reqBuilder.writeTo(pipe.sink()));
+		ByteBuffer received = ByteBuffer.allocate(expected.length);
+		while (received.hasRemaining()) {
+			pipe.source().read(received);
+		}
+		Assertions.assertArrayEquals(expected, received.array());
+	}
+	
+	
+	@Test
+	public void cachedStatusLine() {
+		byte[] statusLine = HttpStatus.statusLineBytes(404);
+		Assertions.assertEquals("HTTP/1.1 404 Not Found\r\n", new String(statusLine, StandardCharsets.US_ASCII));
+		Assertions.assertSame(statusLine, HttpStatus.statusLineBytes(404));
+		Assertions.assertNull(HttpStatus.statusLineBytes(999));
+	}
+	
+	
+	@Test
+	public void fileBodyWithRange() throws IOException {
+		Path file = Files.createTempFile("http-builder-test", ".txt");
+		try {
+			Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+			
+			String fullResponse = new HttpResponseBuilder().status(200).fileBody(file).toString();
+			Assertions.assertTrue(fullResponse.startsWith("HTTP/1.1 200 OK"));
+			Assertions.assertTrue(fullResponse.contains("content-length: 10\r\n"));
+			Assertions.assertTrue(fullResponse.endsWith("\r\n\r\n0123456789"));
+			
+			String rangeResponse = new HttpResponseBuilder().status(200).fileBody(file, "bytes=2-4").toString();
+			Assertions.assertTrue(rangeResponse.startsWith("HTTP/1.1 206 Partial Content"));
+			Assertions.assertTrue(rangeResponse.contains("content-range: bytes 2-4/10\r\n"));
+			Assertions.assertTrue(rangeResponse.endsWith("\r\n\r\n234"));
+			
+			String suffixResponse = new HttpResponseBuilder().status(200).fileBody(file, "bytes=-3").toString();
+			Assertions.assertTrue(suffixResponse.endsWith("\r\n\r\n789"));
+			
+			String openEndResponse = new HttpResponseBuilder().status(200).fileBody(file, "bytes=8-").toString();
+			Assertions.assertTrue(openEndResponse.endsWith("\r\n\r\n89"));
+			
+			HttpResponseBuilder unsatisfiable = new HttpResponseBuilder().status(200).fileBody(file, "bytes=20-");
+			Assertions.assertTrue(unsatisfiable.toString().startsWith("HTTP/1.1 416"));
+			Assertions.assertEquals("bytes */10", unsatisfiable.getHeaderProperty("content-range"));
+			Assertions.assertFalse(unsatisfiable.hasFileBody());
+			
+			String multiRange = new HttpResponseBuilder().status(200).fileBody(file, "bytes=0-1,4-5").toString();
+			Assertions.assertTrue(multiRange.startsWith("HTTP/1.1 200 OK"));
+			
+		} finally {
+			Files.delete(file);
+		}
+	}
 }
@@ -0,0 +1,245 @@
+package ch.wenkst.sw_utils.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.http.builder.HttpRequestBuilder;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.client.HttpClient;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
+import ch.wenkst.sw_utils.http.compression.ContentEncoder;
+import ch.wenkst.sw_utils.http.parser.HttpParsingException;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.http.server.HttpServer;
+
+public class HttpCompressionTest extends BaseTest {
+	
+	private static String jsonBody() {
+		StringBuilder body = new StringBuilder("[");
+		for (int i=0; i<200; i++) {
+			body.append("{\"id\": ").append(i).append(", \"name\": \"entry\", \"active\": true},");
+		}
+		return body.append("{}]").toString();
+	}
+	
+	
+	@Test
+	public void negotiateCoding() {
+		Assertions.assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, deflate, br"));
+		Assertions.assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("deflate"));
+		Assertions.assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("gzip;q=0.5, deflate;q=0.8"));
+		Assertions.assertEquals(ContentCoding.DEFLATE, ContentCoding.negotiate("gzip;q=0, *"));
+		Assertions.assertNull(ContentCoding.negotiate("br, identity"));
+		Assertions.assertNull(ContentCoding.negotiate(null));
+	}
+	
+	
+	@Test
+	public void gzipBodyIsStandardGzip() throws IOException {
+		byte[] body = jsonBody().getBytes(StandardCharsets.US_ASCII);
+		byte[] encoded = ContentEncoder.encode(body, ContentCoding.GZIP);
+		Assertions.assertTrue(encoded.length < body.length / 4);
+		
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+			Assertions.assertArrayEquals(body, in.readAllBytes());
+		}
+	}
+	
+	
+	@Test
+	public void deflatersArePooled() throws InterruptedException, IOException {
+		byte[] body = jsonBody().getBytes(StandardCharsets.US_ASCII);
+		Thread[] threads = new Thread[2 * ContentEncoder.MAX_POOLED_DEFLATERS];
+		for (int i=0; i<threads.length; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j=0; j<20; j++) {
+					ContentEncoder.encode(body, ContentCoding.GZIP);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		// the pool is bounded and the deflaters are ended on shutdown
+		Assertions.assertTrue(ContentEncoder.getPooledCount() <= 2 * ContentEncoder.MAX_POOLED_DEFLATERS);
+		ContentEncoder.shutdown();
+		Assertions.assertEquals(0, ContentEncoder.getPooledCount());
+		
+		// the encoder creates new deflaters after the shutdown
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(ContentEncoder.encode(body, ContentCoding.GZIP)))) {
+			Assertions.assertArrayEquals(body, in.readAllBytes());
+		}
+	}
+	
+	
+	@Test
+	public void compressedResponseRoundTrip() {
+		for (ContentCoding coding : ContentCoding.values()) {
+			HttpResponseBuilder builder = new HttpResponseBuilder().status(200);
+			builder.body(jsonBody());
+			builder.compressBody(coding.getToken());
+			Assertions.assertEquals(coding.getToken(), builder.getHeaderProperty("content-encoding"));
+			Assertions.assertEquals("accept-encoding", builder.getHeaderProperty("vary"));
+			
+			// pass the response byte by byte to test the streaming decoding
+			byte[] response = builder.toByteArr();
+			HttpResponseParser parser = new HttpResponseParser();
+			parser.setContentDecoding(true);
+			for (int i=0; i<response.length; i++) {
+				parser.addData(response, i, 1);
+			}
+			Assertions.assertTrue(parser.isComplete());
+			Assertions.assertEquals(jsonBody(), parser.getBodyStr());
+		}
+	}
+	
+	
+	@Test
+	public void smallBodyIsNotCompressed() {
+		HttpResponseBuilder builder = new HttpResponseBuilder().status(200);
+		builder.body("short body");
+		builder.compressBody("gzip");
+		Assertions.assertNull(builder.getHeaderProperty("content-encoding"));
+		Assertions.assertTrue(builder.toString().endsWith("short body"));
+	}
+	
+	
+	@Test
+	public void chunkedRawDeflateBody() {
+		byte[] body = jsonBody().getBytes(StandardCharsets.US_ASCII);
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		deflater.setInput(body);
+		deflater.finish();
+		byte[] encoded = new byte[body.length];
+		int encodedLength = deflater.deflate(encoded);
+		deflater.end();
+		
+		String header = "HTTP/1.1 200 OK\r\ncontent-encoding: deflate\r\ntransfer-encoding: chunked\r\n\r\n";
+		int firstChunk = encodedLength / 2;
+		String chunks = Integer.toHexString(firstChunk) + "\r\n" + 
+				new String(encoded, 0, firstChunk, StandardCharsets.ISO_8859_1) + "\r\n" + 
+				Integer.toHexString(encodedLength - firstChunk) + "\r\n" + 
+				new String(encoded, firstChunk, encodedLength - firstChunk, StandardCharsets.ISO_8859_1) + "\r\n0\r\n\r\n";
+		
+		HttpResponseParser parser = new HttpResponseParser();
+		parser.setContentDecoding(true);
+		parser.addData((header + chunks).getBytes(StandardCharsets.ISO_8859_1));
+		Assertions.assertTrue(parser.isComplete());
+		Assertions.assertArrayEquals(body, parser.getBodyBytes());
+	}
+	
+	
+	@Test
+	public void gzipTransferCoding() {
+		byte[] body = jsonBody().getBytes(StandardCharsets.US_ASCII);
+		byte[] encoded = ContentEncoder.encode(body, ContentCoding.GZIP);
+		
+		// the transfer coding is decoded even if the content decoding is disabled
+		String header = "POST / HTTP/1.1\r\ntransfer-encoding: gzip\r\ntransfer-encoding: chunked\r\n\r\n";
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.addData(header.getBytes(StandardCharsets.US_ASCII));
+		parser.addData(chunk(encoded));
+		parser.addData("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+		Assertions.assertTrue(parser.isComplete());
+		Assertions.assertEquals("gzip, chunked", parser.getHeaderField("transfer-encoding"));
+		Assertions.assertArrayEquals(body, parser.getBodyBytes());
+	}
+	
+	
+	@Test
+	public void corruptedGzipBody() {
+		byte[] encoded = ContentEncoder.encode(jsonBody().getBytes(StandardCharsets.US_ASCII), ContentCoding.GZIP);
+		encoded[encoded.length - 5] ^= 0x01;
+		
+		String header = "HTTP/1.1 200 OK\r\ncontent-encoding: gzip\r\ncontent-length: " + encoded.length + "\r\n\r\n";
+		HttpResponseParser parser = new HttpResponseParser();
+		parser.setContentDecoding(true);
+		parser.addData(header.getBytes(StandardCharsets.US_ASCII));
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(encoded));
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	@Test
+	public void unterminatedGzipHeader() {
+		byte[] gzipHeader = new byte[] {0x1f, (byte) 0x8b, 8, 8, 0, 0, 0, 0, 0, 0};
+		byte[] fileName = new byte[20000];
+		Arrays.fill(fileName, (byte) 'a');
+		
+		String header = "HTTP/1.1 200 OK\r\ncontent-encoding: gzip\r\ntransfer-encoding: chunked\r\n\r\n";
+		HttpResponseParser parser = new HttpResponseParser();
+		parser.setContentDecoding(true);
+		parser.addData(header.getBytes(StandardCharsets.US_ASCII));
+		parser.addData(chunk(gzipHeader));
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(chunk(fileName)));
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	@Test
+	public void dataAfterGzipTrailer() {
+		byte[] encoded = ContentEncoder.encode(jsonBody().getBytes(StandardCharsets.US_ASCII), ContentCoding.GZIP);
+		byte[] body = Arrays.copyOf(encoded, encoded.length + 100);
+		
+		String header = "HTTP/1.1 200 OK\r\ncontent-encoding: gzip\r\ncontent-length: " + body.length + "\r\n\r\n";
+		HttpResponseParser parser = new HttpResponseParser();
+		parser.setContentDecoding(true);
+		parser.addData(header.getBytes(StandardCharsets.US_ASCII));
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(body));
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	private static byte[] chunk(byte[] data) {
+		String chunk = Integer.toHexString(data.length) + "\r\n" + new String(data, StandardCharsets.ISO_8859_1) + "\r\n";
+		return chunk.getBytes(StandardCharsets.ISO_8859_1);
+	}
+	
+	
+	@Test
+	public void serverAndClientCompression() throws MalformedURLException, InterruptedException, ExecutionException, TimeoutException {
+		int testPort = 7794;
+		HttpServer httpServer = new HttpServer();
+		httpServer.init(testPort, "http-compression-test-server", null);
+		httpServer.setCompression(ContentEncoder.DEFAULT_THRESHOLD);
+		httpServer.get("/json", request -> {
+			HttpResponseBuilder response = new HttpResponseBuilder().status(200);
+			response.headerProperty("content-type", "application/json");
+			response.body(jsonBody());
+			return response;
+		});
+		httpServer.start();
+		Utils.sleep(200);
+		
+		HttpClient client = new HttpClient();
+		client.init(1, 10000, null);
+		client.setContentDecoding(true);
+		try {
+			String url = "http://localhost:" + testPort + "/json";
+			HttpResponseParser response = client.send(url, new HttpRequestBuilder().prepareGet(url)).get(2, TimeUnit.SECONDS);
+			Assertions.assertEquals("gzip", response.getHeaderField("content-encoding"));
+			Assertions.assertTrue(Long.parseLong(response.getHeaderField("content-length")) < jsonBody().length());
+			Assertions.assertEquals(jsonBody(), response.getBodyStr());
+			
+		} finally {
+			client.close();
+			httpServer.stopServer();
+		}
+	}
+}
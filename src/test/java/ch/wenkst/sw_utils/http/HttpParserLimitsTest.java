@@ -0,0 +1,234 @@
+package ch.wenkst.sw_utils.http;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.http.compression.ContentCoding;
+import ch.wenkst.sw_utils.http.compression.ContentEncoder;
+import ch.wenkst.sw_utils.http.parser.BodySink;
+import ch.wenkst.sw_utils.http.parser.HttpParserLimits;
+import ch.wenkst.sw_utils.http.parser.HttpParsingException;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.http.parser.ParsingState;
+
+public class HttpParserLimitsTest extends BaseTest {
+	
+	private static HttpParsingException parseError(HttpParserLimits limits, String message) {
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.setLimits(limits);
+		return Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(message.getBytes(StandardCharsets.US_ASCII)));
+	}
+	
+	
+	private static String repeat(char c, int count) {
+		StringBuilder str = new StringBuilder();
+		for (int i=0; i<count; i++) {
+			str.append(c);
+		}
+		return str.toString();
+	}
+	
+	
+	@Test
+	public void lineLength() {
+		HttpParserLimits limits = new HttpParserLimits(64, 10, 1024, 1024);
+		
+		// the first line is rejected before its line feed is received
+		HttpParsingException e = parseError(limits, "GET /" + repeat('a', 100));
+		Assertions.assertEquals(414, e.getStatus());
+		
+		e = parseError(limits, "GET / HTTP/1.1\r\nx-long: " + repeat('a', 100) + "\r\n\r\n");
+		Assertions.assertEquals(431, e.getStatus());
+		
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\n5;" + repeat('a', 100) + "\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	@Test
+	public void headerSize() {
+		HttpParserLimits limits = new HttpParserLimits(1024, 3, 128, 1024);
+		HttpParsingException e = parseError(limits, "GET / HTTP/1.1\r\na: 1\r\nb: 2\r\nc: 3\r\nd: 4\r\n\r\n");
+		Assertions.assertEquals(431, e.getStatus());
+		
+		e = parseError(limits, "GET / HTTP/1.1\r\na: " + repeat('a', 60) + "\r\nb: " + repeat('b', 60) + "\r\n\r\n");
+		Assertions.assertEquals(431, e.getStatus());
+		
+		e = parseError(limits, "GET / HTTP/1.1\r\ninvalid header line\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	@Test
+	public void bodySize() {
+		HttpParserLimits limits = HttpParserLimits.defaults().withMaxBodySize(100);
+		
+		// the declared length is rejected before any body byte is received
+		HttpParsingException e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: 1000000000000\r\n\r\n");
+		Assertions.assertEquals(413, e.getStatus());
+		
+		e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: -5\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\n40\r\n" + repeat('a', 64) + "\r\n40\r\n");
+		Assertions.assertEquals(413, e.getStatus());
+		
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\nffffffffffffffff\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\n-1\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+	}
+	
+	
+	@Test
+	public void decodedBodySize() {
+		// a highly compressible body that is small on the wire but large once decoded
+		byte[] encoded = ContentEncoder.encode(new byte[100000], ContentCoding.GZIP);
+		String header = "POST / HTTP/1.1\r\ncontent-encoding: gzip\r\ncontent-length: " + encoded.length + "\r\n\r\n";
+		
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.setContentDecoding(true);
+		parser.setLimits(HttpParserLimits.defaults().withMaxBodySize(10000));
+		parser.addData(header.getBytes(StandardCharsets.US_ASCII));
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(encoded));
+		Assertions.assertEquals(413, e.getStatus());
+	}
+	
+	
+	@Test
+	public void sinkBodySize() {
+		byte[] encoded = ContentEncoder.encode(new byte[100000], ContentCoding.GZIP);
+		String message = "POST / HTTP/1.1\r\ncontent-encoding: gzip\r\ntransfer-encoding: chunked\r\n\r\n" + 
+				Integer.toHexString(encoded.length) + "\r\n" + new String(encoded, StandardCharsets.ISO_8859_1) + "\r\n0\r\n\r\n";
+		byte[] messageBytes = message.getBytes(StandardCharsets.ISO_8859_1);
+		
+		// the body of a sink is limited like a buffered body
+		CollectingSink sink = new CollectingSink(false);
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.setContentDecoding(true);
+		parser.setLimits(HttpParserLimits.defaults().withMaxBodySize(10000));
+		parser.setBodySink(sink);
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(messageBytes));
+		Assertions.assertEquals(413, e.getStatus());
+		Assertions.assertSame(e, sink.error);
+		
+		// a sink can opt out of the limit
+		CollectingSink unboundedSink = new CollectingSink(true);
+		HttpRequestParser unboundedParser = new HttpRequestParser();
+		unboundedParser.setContentDecoding(true);
+		unboundedParser.setLimits(HttpParserLimits.defaults().withMaxBodySize(10000));
+		unboundedParser.setBodySink(unboundedSink);
+		unboundedParser.addData(messageBytes);
+		Assertions.assertTrue(unboundedParser.isComplete());
+		Assertions.assertEquals(100000, unboundedSink.bytes.size());
+	}
+	
+	
+	@Test
+	public void errorState() {
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.setLimits(new HttpParserLimits(1024, 1, 1024, 1024));
+		byte[] request = "GET / HTTP/1.1\r\na: 1\r\nb: 2\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+		Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(request));
+		Assertions.assertEquals(ParsingState.ERROR, parser.getState());
+		
+		// all further data is rejected with the same error
+		HttpParsingException e = Assertions.assertThrows(HttpParsingException.class, () -> parser.addData("\r\n".getBytes(StandardCharsets.US_ASCII)));
+		Assertions.assertEquals(431, e.getStatus());
+	}
+	
+	
+	@Test
+	public void ambiguousBodyLength() {
+		HttpParserLimits limits = HttpParserLimits.defaults();
+		
+		// a repeated or malformed content length
+		HttpParsingException e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: 5\r\ncontent-length: 6\r\n\r\nhello");
+		Assertions.assertEquals(400, e.getStatus());
+		e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: 5\r\nContent-Length: 5\r\n\r\nhello");
+		Assertions.assertEquals(400, e.getStatus());
+		e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: +5\r\n\r\nhello");
+		Assertions.assertEquals(400, e.getStatus());
+		
+		// a content length and a transfer encoding in any order
+		e = parseError(limits, "POST / HTTP/1.1\r\ncontent-length: 5\r\ntransfer-encoding: chunked\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked\r\ncontent-length: 5\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		
+		// a request is only chunked if chunked is the last transfer coding
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: chunked, gzip\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		e = parseError(limits, "POST / HTTP/1.1\r\ntransfer-encoding: br, chunked\r\n\r\n");
+		Assertions.assertEquals(501, e.getStatus());
+	}
+	
+	
+	@Test
+	public void repeatedFieldsAreCounted() {
+		HttpParserLimits limits = new HttpParserLimits(1024, 3, 1024, 1024);
+		HttpParsingException e = parseError(limits, "GET / HTTP/1.1\r\na: 1\r\na: 2\r\na: 3\r\na: 4\r\n\r\n");
+		Assertions.assertEquals(431, e.getStatus());
+	}
+	
+	
+	@Test
+	public void invalidStartLine() {
+		HttpParsingException e = parseError(HttpParserLimits.defaults(), "GET HTTP/1.1\r\n\r\n");
+		Assertions.assertEquals(400, e.getStatus());
+		
+		for (String statusLine : new String[] {"HTTP/1.1 abc OK", "HTTP/1.1", "HTTP/1.1 2000 OK", "xHTTP/1.1 200 OK"}) {
+			HttpResponseParser parser = new HttpResponseParser();
+			byte[] response = (statusLine + "\r\ncontent-length: 0\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+			Assertions.assertThrows(HttpParsingException.class, () -> parser.addData(response));
+			Assertions.assertEquals(ParsingState.ERROR, parser.getState());
+		}
+	}
+	
+	
+	@Test
+	public void withinLimits() {
+		HttpRequestParser parser = new HttpRequestParser();
+		parser.setLimits(new HttpParserLimits(64, 2, 128, 10));
+		parser.addData("POST / HTTP/1.1\r\ncontent-length: 10\r\n\r\n0123456789".getBytes(StandardCharsets.US_ASCII));
+		Assertions.assertTrue(parser.isComplete());
+		Assertions.assertEquals("0123456789", parser.getBodyStr());
+	}
+	
+	
+	private static class CollectingSink implements BodySink {
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private boolean unbounded;
+		private HttpParsingException error = null;
+		
+		private CollectingSink(boolean unbounded) {
+			this.unbounded = unbounded;
+		}
+		
+		@Override
+		public void onBodyData(byte[] data, int offset, int length) {
+			bytes.write(data, offset, length);
+		}
+		
+		@Override
+		public void onBodyEnd() {
+			
+		}
+		
+		@Override
+		public void onBodyError(HttpParsingException error) {
+			this.error = error;
+		}
+		
+		@Override
+		public boolean isUnbounded() {
+			return unbounded;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package ch.wenkst.sw_utils.http;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -88,6 +90,67 @@ public class HttpParserTest extends BaseTest {
 	
 	
 	
+	@Test
+	public void headerValueWithColon() {
+		HttpRequestParser reqParser = new HttpRequestParser();
+		reqParser.addData(HttpTestRequests.nonChunkedRequest().getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals("localhost:8001", reqParser.getHeaderField("Host"));
+	}
+	
+	
+	@Test
+	public void parseLargeBodyInSmallPackets() {
+		byte[] body = new byte[1024 * 1024];
+		new Random(42).nextBytes(body);
+		byte[] header = ("POST /upload HTTP/1.1" + HttpConstants.CRLF + 
+				"Content-Length: " + body.length + HttpConstants.CRLF + 
+				HttpConstants.CRLF).getBytes(StandardCharsets.US_ASCII);
+		byte[] request = new byte[header.length + body.length];
+		System.arraycopy(header, 0, request, 0, header.length);
+		System.arraycopy(body, 0, request, header.length, body.length);
+		
+		HttpRequestParser reqParser = new HttpRequestParser();
+		int packetSize = 1000;
+		for (int offset=0; offset<request.length; offset+=packetSize) {
+			reqParser.addData(request, offset, Math.min(packetSize, request.length - offset));
+		}
+		
+		Assertions.assertTrue(reqParser.isComplete());
+		Assertions.assertEquals("/upload", reqParser.getRequestURI());
+		Assertions.assertArrayEquals(body, reqParser.getBodyBytes());
+	}
+	
+	
+	@Test
+	public void parseChunkedRequestByteWise() {
+		HttpRequestParser reqParser = new HttpRequestParser();
+		byte[] request = HttpTestRequests.chunkedRequest().getBytes(StandardCharsets.UTF_8);
+		for (int i=0; i<request.length; i++) {
+			reqParser.addData(request, i, 1);
+		}
+		
+		Assertions.assertTrue(reqParser.isComplete());
+		Assertions.assertEquals(reqParser.getBodyStr(), "interesting text");
+	}
+	
+	
+	@Test
+	public void chunkExtensionsAreIgnored() {
+		HttpRequestParser reqParser = new HttpRequestParser();
+		String request = "PUT /test HTTP/1.1" + HttpConstants.CRLF + 
+				"Transfer-Encoding: chunked" + HttpConstants.CRLF + 
+				HttpConstants.CRLF + 
+				"4;name=value" + HttpConstants.CRLF + 
+				"text" + HttpConstants.CRLF + 
+				"0" + HttpConstants.CRLF + HttpConstants.CRLF;
+		reqParser.addData(request.getBytes(StandardCharsets.US_ASCII));
+		
+		Assertions.assertTrue(reqParser.isComplete());
+		Assertions.assertEquals(reqParser.getBodyStr(), "text");
+	}
+	
+	
+	
 	/////////////////////////////////////////////////////////////////////////////////////////
 	// 									http response 									   //
 	/////////////////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,92 @@
+package ch.wenkst.sw_utils.http;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.http.parser.HttpRequestParser;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.http.parser.PipelinedHttpParser;
+
+public class PipelinedHttpParserTest extends BaseTest {
+
+	@Test
+	public void pipelinedRequestsInOneRead() {
+		String requests = HttpTestRequests.nonChunkedRequest() + 
+				HttpTestRequests.chunkedRequest() + 
+				getRequest("/third");
+
+		PipelinedHttpParser<HttpRequestParser> parser = PipelinedHttpParser.forRequests();
+		parser.addData(requests.getBytes(StandardCharsets.UTF_8));
+		Assertions.assertEquals(3, parser.getMessageCount());
+
+		HttpRequestParser first = parser.pollMessage();
+		Assertions.assertEquals("POST", first.getHttpMethod());
+		Assertions.assertEquals("Some Body", first.getBodyStr());
+
+		HttpRequestParser second = parser.pollMessage();
+		Assertions.assertEquals("PUT", second.getHttpMethod());
+		Assertions.assertEquals("interesting text", second.getBodyStr());
+
+		HttpRequestParser third = parser.pollMessage();
+		Assertions.assertEquals("GET", third.getHttpMethod());
+		Assertions.assertEquals("/third", third.getRequestURI());
+		Assertions.assertEquals(0, third.getBodyBytes().length);
+
+		Assertions.assertNull(parser.pollMessage());
+	}
+
+
+	@Test
+	public void messagesSplitAcrossReads() {
+		byte[] requests = (getRequest("/a") + HttpTestRequests.nonChunkedRequest() + getRequest("/b")).getBytes(StandardCharsets.UTF_8);
+
+		PipelinedHttpParser<HttpRequestParser> parser = PipelinedHttpParser.forRequests();
+		int packetSize = 7;
+		for (int offset=0; offset<requests.length; offset+=packetSize) {
+			parser.addData(requests, offset, Math.min(packetSize, requests.length - offset));
+		}
+
+		Assertions.assertEquals(3, parser.getMessageCount());
+		Assertions.assertEquals("/a", parser.pollMessage().getRequestURI());
+		Assertions.assertEquals("Some Body", parser.pollMessage().getBodyStr());
+		Assertions.assertEquals("/b", parser.pollMessage().getRequestURI());
+	}
+
+
+	@Test
+	public void responsesInOneRead() {
+		String responses = HttpTestResponses.nonChunkedResponse() + HttpTestResponses.chunkedResponse();
+
+		PipelinedHttpParser<HttpResponseParser> parser = PipelinedHttpParser.forResponses();
+		parser.addData(responses.getBytes(StandardCharsets.UTF_8));
+
+		Assertions.assertEquals(2, parser.getMessageCount());
+		Assertions.assertEquals(404, parser.pollMessage().getStatus());
+		HttpResponseParser second = parser.pollMessage();
+		Assertions.assertEquals(200, second.getStatus());
+		Assertions.assertEquals("interesting text", second.getBodyStr());
+	}
+
+
+	@Test
+	public void responseEndedByConnectionClose() {
+		PipelinedHttpParser<HttpResponseParser> parser = PipelinedHttpParser.forResponses();
+		Assertions.assertFalse(parser.fullMessageReceived());
+
+		parser.addData(HttpTestResponses.nonChunkedNoLengthRequest().getBytes(StandardCharsets.UTF_8));
+		Assertions.assertFalse(parser.hasMessages());
+
+		Assertions.assertTrue(parser.fullMessageReceived());
+		Assertions.assertEquals("Some Body", parser.pollMessage().getBodyStr());
+	}
+
+
+	private String getRequest(String uri) {
+		return "GET " + uri + " HTTP/1.1" + HttpConstants.CRLF + 
+				"Host: localhost" + HttpConstants.CRLF + 
+				HttpConstants.CRLF;
+	}
+}
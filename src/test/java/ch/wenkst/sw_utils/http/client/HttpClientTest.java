@@ -0,0 +1,243 @@
+package ch.wenkst.sw_utils.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.http.builder.HttpRequestBuilder;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.http.server.HttpServer;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HttpClientTest extends BaseTest {
+	private int testPort = 7792;
+	private String baseUrl = "http://localhost:" + testPort;
+	private HttpServer httpServer;
+	private ExecutorService executor;
+	private AtomicInteger activeSlowRequests = new AtomicInteger(0);
+	private AtomicInteger maxActiveSlowRequests = new AtomicInteger(0);
+	
+	
+	@BeforeAll
+	public void createServer() {
+		executor = Executors.newFixedThreadPool(8);
+		httpServer = new HttpServer();
+		httpServer.init(testPort, "http-client-test-server", executor);
+		httpServer.get("/hello", request -> textResponse("hello"));
+		httpServer.get("/slow", request -> {
+			int active = activeSlowRequests.incrementAndGet();
+			maxActiveSlowRequests.accumulateAndGet(active, Math::max);
+			Utils.sleep(100);
+			activeSlowRequests.decrementAndGet();
+			return textResponse("slow");
+		});
+		httpServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	private static HttpResponseBuilder textResponse(String text) {
+		HttpResponseBuilder response = new HttpResponseBuilder().status(200);
+		response.body(text);
+		return response;
+	}
+	
+	
+	private HttpRequestBuilder getRequest(String path) throws MalformedURLException {
+		return new HttpRequestBuilder().prepareGet(baseUrl + path);
+	}
+	
+	
+	@Test
+	public void connectionIsReused() throws Exception {
+		HttpClient client = new HttpClient();
+		client.init(4, 10000, executor);
+		
+		for (int i=0; i<5; i++) {
+			HttpResponseParser response = client.send(baseUrl, getRequest("/hello")).get(2, TimeUnit.SECONDS);
+			Assertions.assertEquals(200, response.getStatus());
+			Assertions.assertEquals("hello", response.getBodyStr());
+		}
+		
+		Assertions.assertEquals(1, client.getOpenConnectionCount());
+		Assertions.assertEquals(1, client.getIdleConnectionCount());
+		client.close();
+		Assertions.assertEquals(0, client.getOpenConnectionCount());
+	}
+	
+	
+	@Test
+	public void maxConnectionsPerHost() throws Exception {
+		HttpClient client = new HttpClient();
+		client.init(2, 10000, executor);
+		maxActiveSlowRequests.set(0);
+		
+		List<CompletableFuture<HttpResponseParser>> responses = new ArrayList<>();
+		for (int i=0; i<6; i++) {
+			responses.add(client.send(baseUrl, getRequest("/slow")));
+		}
+		for (CompletableFuture<HttpResponseParser> response : responses) {
+			Assertions.assertEquals("slow", response.get(3, TimeUnit.SECONDS).getBodyStr());
+		}
+		
+		Assertions.assertEquals(2, maxActiveSlowRequests.get());
+		Assertions.assertEquals(2, client.getOpenConnectionCount());
+		client.close();
+	}
+	
+	
+	@Test
+	public void idleConnectionsAreEvicted() throws Exception {
+		HttpClient client = new HttpClient();
+		client.init(4, 100, null);
+		
+		client.send(baseUrl, getRequest("/hello")).get(2, TimeUnit.SECONDS);
+		Assertions.assertEquals(1, client.getIdleConnectionCount());
+		
+		Utils.sleep(150);
+		client.evictIdleConnections();
+		Assertions.assertEquals(0, client.getOpenConnectionCount());
+		client.close();
+	}
+	
+	
+	@Test
+	public void connectionClosedByServer() throws Exception {
+		HttpClient client = new HttpClient();
+		client.init(4, 10000, executor);
+		
+		HttpRequestBuilder closeRequest = getRequest("/hello");
+		closeRequest.headerProperty("connection", "close");
+		Assertions.assertEquals("hello", client.send(baseUrl, closeRequest).get(2, TimeUnit.SECONDS).getBodyStr());
+		Assertions.assertEquals(0, client.getOpenConnectionCount());
+		
+		Assertions.assertEquals("hello", client.send(baseUrl, getRequest("/hello")).get(2, TimeUnit.SECONDS).getBodyStr());
+		client.close();
+	}
+	
+	
+	@Test
+	public void unreachableHost() throws MalformedURLException, InterruptedException, TimeoutException {
+		HttpClient client = new HttpClient();
+		client.init(1, 10000, executor);
+		String url = "http://localhost:7793";
+		
+		CompletableFuture<HttpResponseParser> response = client.send(url, new HttpRequestBuilder().prepareGet(url + "/hello"));
+		Assertions.assertThrows(ExecutionException.class, () -> response.get(2, TimeUnit.SECONDS));
+		Assertions.assertEquals(0, client.getOpenConnectionCount());
+		client.close();
+	}
+	
+	
+	@Test
+	public void bodylessResponsesOnKeepAlive() throws Exception {
+		try (ServerSocket serverSocket = startScriptedServer(
+				"HTTP/1.1 204 No Content\r\n\r\n", 
+				"HTTP/1.1 200 OK\r\ncontent-length: 5\r\n\r\n", 
+				"HTTP/1.1 200 OK\r\ncontent-length: 5\r\n\r\nhello")) {
+			String url = "http://localhost:" + serverSocket.getLocalPort();
+			HttpClient client = new HttpClient();
+			client.init(1, 10000, null);
+			client.setTimeouts(2000, 1000);
+			
+			HttpResponseParser response = client.send(url, new HttpRequestBuilder().prepareGet(url + "/empty")).get(2, TimeUnit.SECONDS);
+			Assertions.assertEquals(204, response.getStatus());
+			
+			response = client.send(url, new HttpRequestBuilder().prepareHead(url + "/hello")).get(2, TimeUnit.SECONDS);
+			Assertions.assertEquals(200, response.getStatus());
+			Assertions.assertEquals(0, response.getBodyBytes().length);
+			
+			response = client.send(url, new HttpRequestBuilder().prepareGet(url + "/hello")).get(2, TimeUnit.SECONDS);
+			Assertions.assertEquals("hello", response.getBodyStr());
+			Assertions.assertEquals(1, client.getOpenConnectionCount());
+			client.close();
+		}
+	}
+	
+	
+	@Test
+	public void invalidResponseFreesConnection() throws Exception {
+		try (ServerSocket serverSocket = startScriptedServer("HTTP/1.1 200 OK\r\ninvalid header\r\n\r\n")) {
+			String url = "http://localhost:" + serverSocket.getLocalPort();
+			HttpClient client = new HttpClient();
+			client.init(1, 10000, executor);
+			
+			for (int i=0; i<3; i++) {
+				CompletableFuture<HttpResponseParser> response = client.send(url, new HttpRequestBuilder().prepareGet(url + "/invalid"));
+				Assertions.assertThrows(ExecutionException.class, () -> response.get(2, TimeUnit.SECONDS));
+			}
+			Assertions.assertEquals(0, client.getOpenConnectionCount());
+			client.close();
+		}
+	}
+	
+	
+	/**
+	 * starts a server that answers the requests of its connections one after the other with the passed 
+	 * responses, the responses are repeated if more requests are received
+	 * @param responses 	the raw responses
+	 * @return 				the server socket, close it to stop the server
+	 * @throws IOException
+	 */
+	private ServerSocket startScriptedServer(String... responses) throws IOException {
+		ServerSocket serverSocket = new ServerSocket(0);
+		Thread serverThread = new Thread(() -> {
+			int responseIndex = 0;
+			while (!serverSocket.isClosed()) {
+				try (Socket socket = serverSocket.accept()) {
+					InputStream in = socket.getInputStream();
+					while (readRequestHeader(in)) {
+						String response = responses[responseIndex++ % responses.length];
+						socket.getOutputStream().write(response.getBytes(StandardCharsets.US_ASCII));
+					}
+				} catch (IOException e) {
+					
+				}
+			}
+		});
+		serverThread.setDaemon(true);
+		serverThread.start();
+		return serverSocket;
+	}
+	
+	
+	private static boolean readRequestHeader(InputStream in) throws IOException {
+		int matched = 0;
+		while (matched < 4) {
+			int b = in.read();
+			if (b < 0) {
+				return false;
+			}
+			matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+		}
+		return true;
+	}
+	
+	
+	@AfterAll
+	public void stopServer() {
+		httpServer.stopServer();
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,97 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HttpServerConcurrencyTest extends BaseTest {
+	private static final Logger logger = LoggerFactory.getLogger(HttpServerConcurrencyTest.class);
+	
+	private int testPort = 7791;
+	private int clientCount = 4;
+	private int requestsPerClient = 20;
+	private HttpServer httpServer;
+	private ExecutorService workerExecutor;
+	
+	
+	@BeforeAll
+	public void createServer() {
+		workerExecutor = Executors.newFixedThreadPool(4);
+		httpServer = new HttpServer();
+		httpServer.init(testPort, "http-concurrency-test-server", workerExecutor);
+		httpServer.get("/echo", request -> {
+			HttpResponseBuilder response = new HttpResponseBuilder().status(200);
+			response.body(request.getRequestURI());
+			return response;
+		});
+		
+		httpServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	/**
+	 * every client sends its requests one after the other on its own keep-alive connection, every client
+	 * receives the responses to its own requests
+	 */
+	@Test
+	public void concurrentKeepAliveClients() throws InterruptedException {
+		AtomicInteger okCount = new AtomicInteger(0);
+		
+		List<Thread> clients = new ArrayList<>();
+		for (int i=0; i<clientCount; i++) {
+			int clientIndex = i;
+			clients.add(new Thread(() -> runClient(clientIndex, okCount)));
+		}
+		
+		for (Thread client : clients) {
+			client.start();
+		}
+		for (Thread client : clients) {
+			client.join();
+		}
+		
+		Assertions.assertEquals(clientCount * requestsPerClient, okCount.get());
+	}
+	
+	
+	private void runClient(int clientIndex, AtomicInteger okCount) {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			for (int i=0; i<requestsPerClient; i++) {
+				String uri = "/echo?client=" + clientIndex + "&request=" + i;
+				client.send(HttpTestClient.getRequest(uri));
+				HttpResponseParser response = client.readResponse();
+				
+				if (response != null && response.getStatus() == 200 && uri.equals(response.getBodyStr())) {
+					okCount.incrementAndGet();
+				}
+			}
+			
+		} catch (Exception e) {
+			logger.error("error in the http concurrency test client: ", e);
+		}
+	}
+	
+	
+	@AfterAll
+	public void stopServer() {
+		httpServer.stopServer();
+		workerExecutor.shutdown();
+	}
+}
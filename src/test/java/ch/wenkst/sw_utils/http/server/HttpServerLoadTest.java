@@ -0,0 +1,114 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.metrics.LatencyHistogram;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HttpServerLoadTest extends BaseTest {
+	private static final Logger logger = LoggerFactory.getLogger(HttpServerLoadTest.class);
+	
+	private int testPort = 7801;
+	private int clientCount = 8;
+	private int requestsPerClient = 500;
+	private HttpServer httpServer;
+	private ExecutorService workerExecutor;
+	
+	
+	@BeforeAll
+	public void createServer() {
+		workerExecutor = Executors.newFixedThreadPool(4);
+		httpServer = new HttpServer();
+		httpServer.init(testPort, "http-load-test-server", workerExecutor);
+		httpServer.get("/ping", request -> {
+			HttpResponseBuilder response = new HttpResponseBuilder().status(200);
+			response.body("pong");
+			return response;
+		});
+		
+		httpServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	/**
+	 * every client sends its requests one after the other on a keep-alive connection, the latency of
+	 * every request and the overall throughput are logged, disabled in the unit tests, run it manually to 
+	 * measure the http server
+	 */
+	@Test
+	@Disabled
+	public void keepAliveLoad() throws InterruptedException {
+		LatencyHistogram latencies = new LatencyHistogram();
+		AtomicInteger okCount = new AtomicInteger(0);
+		
+		List<Thread> clients = new ArrayList<>();
+		for (int i=0; i<clientCount; i++) {
+			clients.add(new Thread(() -> runClient(latencies, okCount)));
+		}
+		
+		long startTime = System.nanoTime();
+		for (Thread client : clients) {
+			client.start();
+		}
+		for (Thread client : clients) {
+			client.join();
+		}
+		long duration = System.nanoTime() - startTime;
+		
+		int totalRequests = clientCount * requestsPerClient;
+		double requestsPerSecond = totalRequests / (duration / 1e9);
+		logger.info("http load test: " + totalRequests + " requests, " + (int) requestsPerSecond + " req/s, " + 
+				"mean " + TimeUnit.NANOSECONDS.toMicros((long) latencies.getMean()) + " us, " + 
+				"p99 " + TimeUnit.NANOSECONDS.toMicros(latencies.getPercentile(99)) + " us, " + 
+				"max " + TimeUnit.NANOSECONDS.toMicros(latencies.getMax()) + " us");
+		
+		Assertions.assertEquals(totalRequests, okCount.get());
+		Assertions.assertEquals(totalRequests, latencies.getCount());
+	}
+	
+	
+	private void runClient(LatencyHistogram latencies, AtomicInteger okCount) {
+		String request = HttpTestClient.getRequest("/ping");
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			for (int i=0; i<requestsPerClient; i++) {
+				long startTime = System.nanoTime();
+				client.send(request);
+				HttpResponseParser response = client.readResponse();
+				latencies.record(System.nanoTime() - startTime);
+				
+				if (response != null && response.getStatus() == 200) {
+					okCount.incrementAndGet();
+				}
+			}
+			
+		} catch (Exception e) {
+			logger.error("error in the http load test client: ", e);
+		}
+	}
+	
+	
+	@AfterAll
+	public void stopServer() {
+		httpServer.stopServer();
+		workerExecutor.shutdown();
+	}
+}
@@ -0,0 +1,209 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import ch.wenkst.sw_utils.BaseTest;
+import ch.wenkst.sw_utils.Utils;
+import ch.wenkst.sw_utils.http.builder.HttpResponseBuilder;
+import ch.wenkst.sw_utils.http.parser.HttpParserLimits;
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class HttpServerTest extends BaseTest {
+	private int testPort = 7790;
+	private HttpServer httpServer;
+	private ExecutorService workerExecutor;
+	private Path testFile;
+	
+	
+	@BeforeAll
+	public void createServer() throws IOException {
+		testFile = Files.createTempFile("http-server-test", ".bin");
+		byte[] fileContent = new byte[100000];
+		for (int i=0; i<fileContent.length; i++) {
+			fileContent[i] = (byte) ('a' + i % 26);
+		}
+		Files.write(testFile, fileContent);
+		
+		workerExecutor = Executors.newFixedThreadPool(4);
+		httpServer = new HttpServer();
+		httpServer.init(testPort, "http-test-server", workerExecutor);
+		
+		httpServer.get("/hello", request -> textResponse("hello"));
+		httpServer.post("/echo", request -> textResponse(request.getBodyStr()));
+		httpServer.get("/files/*", request -> textResponse("file " + request.getRequestURI()));
+		httpServer.get("/slow", request -> {
+			Utils.sleep(200);
+			return textResponse("slow");
+		});
+		httpServer.get("/file", request -> {
+			return new HttpResponseBuilder().status(200).fileBody(testFile, request.getHeaderField("range"));
+		});
+		httpServer.get("/error", request -> {
+			throw new IllegalStateException("handler failed");
+		});
+		httpServer.get("/fatal", request -> {
+			throw new AssertionError("handler failed fatally");
+		});
+		
+		httpServer.start();
+		Utils.sleep(200);
+	}
+	
+	
+	private static HttpResponseBuilder textResponse(String text) {
+		HttpResponseBuilder response = new HttpResponseBuilder().status(200);
+		response.headerProperty("content-type", "text/plain");
+		response.body(text);
+		return response;
+	}
+	
+	
+	@Test
+	public void routing() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/hello?name=test"));
+			HttpResponseParser response = client.readResponse();
+			Assertions.assertEquals(200, response.getStatus());
+			Assertions.assertEquals("hello", response.getBodyStr());
+			
+			client.send(HttpTestClient.postRequest("/echo", "some body"));
+			Assertions.assertEquals("some body", client.readResponse().getBodyStr());
+			
+			client.send(HttpTestClient.getRequest("/files/a/b.txt"));
+			Assertions.assertEquals("file /files/a/b.txt", client.readResponse().getBodyStr());
+		}
+	}
+	
+	
+	@Test
+	public void errorStatus() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/unknown"));
+			Assertions.assertEquals(404, client.readResponse().getStatus());
+			
+			client.send(HttpTestClient.postRequest("/hello", "body"));
+			Assertions.assertEquals(405, client.readResponse().getStatus());
+			
+			client.send(HttpTestClient.getRequest("/error"));
+			Assertions.assertEquals(500, client.readResponse().getStatus());
+			
+			// the connection is still usable after the errors
+			client.send(HttpTestClient.getRequest("/hello"));
+			Assertions.assertEquals(200, client.readResponse().getStatus());
+		}
+	}
+	
+	
+	@Test
+	public void pipelinedRequestsKeepOrder() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/slow") + 
+					HttpTestClient.postRequest("/echo", "second") + 
+					HttpTestClient.getRequest("/hello"));
+			
+			Assertions.assertEquals("slow", client.readResponse().getBodyStr());
+			Assertions.assertEquals("second", client.readResponse().getBodyStr());
+			Assertions.assertEquals("hello", client.readResponse().getBodyStr());
+		}
+	}
+	
+	
+	@Test
+	public void failedResponseDoesNotBlockPipeline() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/fatal") + HttpTestClient.getRequest("/hello"));
+			
+			Assertions.assertEquals(500, client.readResponse().getStatus());
+			Assertions.assertEquals("hello", client.readResponse().getBodyStr());
+		}
+	}
+	
+	
+	@Test
+	public void connectionClose() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send("GET /hello HTTP/1.1\r\nhost: localhost\r\nconnection: close\r\n\r\n");
+			HttpResponseParser response = client.readResponse();
+			Assertions.assertEquals("hello", response.getBodyStr());
+			Assertions.assertEquals("close", response.getHeaderField("connection"));
+			Assertions.assertTrue(client.isClosedByServer());
+		}
+	}
+	
+	
+	@Test
+	public void invalidRequest() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send("POST /echo HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\nzz\r\n");
+			Assertions.assertEquals(400, client.readResponse().getStatus());
+			Assertions.assertTrue(client.isClosedByServer());
+		}
+	}
+	
+	
+	@Test
+	public void invalidRequestAfterPipelinedRequests() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/slow") + 
+					HttpTestClient.getRequest("/hello") + 
+					"POST /echo HTTP/1.1\r\ntransfer-encoding: chunked\r\n\r\nzz\r\n");
+			
+			Assertions.assertEquals("slow", client.readResponse().getBodyStr());
+			Assertions.assertEquals("hello", client.readResponse().getBodyStr());
+			Assertions.assertEquals(400, client.readResponse().getStatus());
+			Assertions.assertTrue(client.isClosedByServer());
+		}
+	}
+	
+	
+	@Test
+	public void requestLimits() throws IOException {
+		StringBuilder longPath = new StringBuilder("/hello?");
+		while (longPath.length() <= HttpParserLimits.DEFAULT_MAX_LINE_LENGTH) {
+			longPath.append("name=test&");
+		}
+		
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest(longPath.toString()));
+			Assertions.assertEquals(414, client.readResponse().getStatus());
+			Assertions.assertTrue(client.isClosedByServer());
+		}
+	}
+	
+	
+	@Test
+	public void fileResponse() throws IOException {
+		try (HttpTestClient client = new HttpTestClient(testPort)) {
+			client.send(HttpTestClient.getRequest("/file"));
+			HttpResponseParser response = client.readResponse();
+			Assertions.assertEquals(200, response.getStatus());
+			Assertions.assertArrayEquals(Files.readAllBytes(testFile), response.getBodyBytes());
+			
+			client.send("GET /file HTTP/1.1\r\nhost: localhost\r\nrange: bytes=26-30\r\n\r\n");
+			response = client.readResponse();
+			Assertions.assertEquals(206, response.getStatus());
+			Assertions.assertEquals("bytes 26-30/100000", response.getHeaderField("content-range"));
+			Assertions.assertEquals("abcde", new String(response.getBodyBytes(), StandardCharsets.US_ASCII));
+		}
+	}
+	
+	
+	@AfterAll
+	public void stopServer() throws IOException {
+		httpServer.stopServer();
+		workerExecutor.shutdown();
+		Files.delete(testFile);
+	}
+}
@@ -0,0 +1,75 @@
+package ch.wenkst.sw_utils.http.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import ch.wenkst.sw_utils.http.parser.HttpResponseParser;
+import ch.wenkst.sw_utils.http.parser.PipelinedHttpParser;
+
+public class HttpTestClient implements AutoCloseable {
+	private Socket socket;
+	private InputStream in;
+	private OutputStream out;
+	private PipelinedHttpParser<HttpResponseParser> parser = PipelinedHttpParser.forResponses();
+	private byte[] readBuffer = new byte[8192];
+	
+	
+	/**
+	 * blocking keep-alive client on a raw socket to test the http server
+	 * @param port 		port of the http server on localhost
+	 * @throws IOException
+	 */
+	public HttpTestClient(int port) throws IOException {
+		socket = new Socket("localhost", port);
+		socket.setSoTimeout(5000);
+		in = socket.getInputStream();
+		out = socket.getOutputStream();
+	}
+	
+	
+	public void send(String requests) throws IOException {
+		out.write(requests.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+	
+	
+	/**
+	 * blocks until the next response is received
+	 * @return 		the next response, null if the server closed the connection
+	 * @throws IOException
+	 */
+	public HttpResponseParser readResponse() throws IOException {
+		while (!parser.hasMessages()) {
+			int len = in.read(readBuffer);
+			if (len < 0) {
+				return null;
+			}
+			parser.addData(readBuffer, 0, len);
+		}
+		return parser.pollMessage();
+	}
+	
+	
+	public boolean isClosedByServer() throws IOException {
+		return in.read() < 0;
+	}
+	
+	
+	public static String getRequest(String path) {
+		return "GET " + path + " HTTP/1.1\r\nhost: localhost\r\n\r\n";
+	}
+	
+	
+	public static String postRequest(String path, String body) {
+		return "POST " + path + " HTTP/1.1\r\nhost: localhost\r\ncontent-length: " + body.length() + "\r\n\r\n" + body;
+	}
+	
+	
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
@@ -0,0 +1,57 @@
+package ch.wenkst.sw_utils.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class LatencyHistogramTest extends BaseTest {
+
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i=1; i<=1000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		Assertions.assertEquals(1000, histogram.getCount());
+		Assertions.assertEquals(1_000_000, histogram.getMax());
+		Assertions.assertEquals(500_500, histogram.getMean(), 1);
+
+		// the relative error of the logarithmic buckets is below 12.5%
+		assertWithin(500_000, histogram.getPercentile(50), 0.125);
+		assertWithin(990_000, histogram.getPercentile(99), 0.125);
+		Assertions.assertEquals(1_000_000, histogram.getPercentile(100));
+	}
+
+
+	@Test
+	public void smallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(3);
+		histogram.record(5);
+		histogram.record(-1);
+
+		Assertions.assertEquals(0, histogram.getPercentile(10));
+		Assertions.assertEquals(3, histogram.getPercentile(50));
+		Assertions.assertEquals(5, histogram.getPercentile(100));
+	}
+
+
+	@Test
+	public void reset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		histogram.reset();
+
+		Assertions.assertEquals(0, histogram.getCount());
+		Assertions.assertEquals(0, histogram.getPercentile(99));
+		Assertions.assertEquals(0, histogram.getMax());
+	}
+
+
+	private void assertWithin(long expected, long actual, double relativeError) {
+		Assertions.assertTrue(Math.abs(actual - expected) <= expected * relativeError, 
+				"expected " + expected + " but was " + actual);
+	}
+}
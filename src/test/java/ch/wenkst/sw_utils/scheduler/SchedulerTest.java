@@ -1,10 +1,14 @@
 package ch.wenkst.sw_utils.scheduler;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterAll;
@@ -149,6 +153,124 @@ public class SchedulerTest {
 	}
 
 
+	@Test
+	public void earlierTaskWakesScheduler() {
+		initConcurrentScheduler();
+		OneTimeTestTask lateTask = scheduleOneTimeTask(60000, 0);
+		long now = Instant.now().toEpochMilli();
+		OneTimeTestTask earlyTask = scheduleOneTimeTask(20, 0);
+
+		Awaitility.await().atMost(200, TimeUnit.MILLISECONDS).until(earlyTask::isExecuted);
+		Assertions.assertTrue(earlyTask.getTaskFinishedTime() >= now + 20);
+		Assertions.assertFalse(lateTask.isExecuted());
+		Assertions.assertEquals(1, scheduler.getScheduledTaskCount());
+	}
+
+
+	@Test
+	public void manyPendingTasks() {
+		initConcurrentScheduler();
+		int taskCount = 100000;
+		List<OneTimeTestTask> tasks = new ArrayList<>();
+		for (int i=0; i<taskCount; i++) {
+			tasks.add(scheduleOneTimeTask(60000 + i, 0));
+		}
+		Assertions.assertEquals(taskCount, scheduler.getScheduledTaskCount());
+
+		for (int i=0; i<taskCount; i+=2) {
+			scheduler.removeFromTasks(tasks.get(i));
+		}
+		Assertions.assertEquals(taskCount / 2, scheduler.getScheduledTaskCount());
+
+		OneTimeTestTask dueTask = scheduleOneTimeTask(0, 0);
+		Awaitility.await().atMost(200, TimeUnit.MILLISECONDS).until(dueTask::isExecuted);
+		Assertions.assertEquals(taskCount / 2, scheduler.getScheduledTaskCount());
+	}
+
+
+	@Test
+	public void overlapPolicyAllow() {
+		SlowIntervalTestTask task = runSlowIntervalTask(OverlapPolicy.ALLOW);
+		Assertions.assertTrue(task.getMaxConcurrentRuns() > 1);
+		Assertions.assertEquals(0, task.getMetrics().getSkippedCount());
+	}
+
+
+	@Test
+	public void overlapPolicySkip() {
+		SlowIntervalTestTask task = runSlowIntervalTask(OverlapPolicy.SKIP);
+		Assertions.assertEquals(1, task.getMaxConcurrentRuns());
+		Assertions.assertTrue(task.getMetrics().getSkippedCount() > 0);
+		Assertions.assertEquals(0, task.getMetrics().getQueuedCount());
+	}
+
+
+	@Test
+	public void overlapPolicyQueue() {
+		SlowIntervalTestTask task = runSlowIntervalTask(OverlapPolicy.QUEUE);
+		Assertions.assertEquals(1, task.getMaxConcurrentRuns());
+		Assertions.assertTrue(task.getMetrics().getQueuedCount() > 0);
+
+		// the queued runs start late
+		Assertions.assertTrue(task.getMetrics().getLateness().getMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+	}
+
+
+	@Test
+	public void rejectedRunDoesNotBlockTask() {
+		AtomicInteger rejectedCount = new AtomicInteger(0);
+		scheduler = new Scheduler();
+		scheduler.init(50, runnable -> {
+			if (rejectedCount.incrementAndGet() <= 2) {
+				throw new RejectedExecutionException("test rejection");
+			}
+			executor.execute(runnable);
+		});
+		scheduler.start();
+
+		SlowIntervalTestTask task = new SlowIntervalTestTask(Instant.now().toEpochMilli(), 20, 0);
+		task.setOverlapPolicy(OverlapPolicy.SKIP);
+		scheduler.addToTasks(task);
+
+		Awaitility.await().atMost(2000, TimeUnit.MILLISECONDS).until(() -> task.getMetrics().getRunCount() >= 2);
+		scheduler.removeFromTasks(task);
+		Assertions.assertTrue(task.getMetrics().getSkippedCount() >= 2);
+	}
+
+
+	@Test
+	public void failingFinishDoesNotBlockTask() {
+		initSynchronizedScheduler();
+		SlowIntervalTestTask task = new SlowIntervalTestTask(Instant.now().toEpochMilli(), 20, 0) {
+			@Override
+			protected void onTaskFinished(Scheduler scheduler) {
+				throw new IllegalStateException("test failure");
+			}
+		};
+		task.setOverlapPolicy(OverlapPolicy.SKIP);
+		scheduler.addToTasks(task);
+
+		Awaitility.await().atMost(2000, TimeUnit.MILLISECONDS).until(() -> task.getMetrics().getRunCount() >= 3);
+		scheduler.removeFromTasks(task);
+		Assertions.assertEquals(0, task.getActiveRuns());
+	}
+
+
+	private SlowIntervalTestTask runSlowIntervalTask(OverlapPolicy overlapPolicy) {
+		initConcurrentScheduler();
+		SlowIntervalTestTask task = new SlowIntervalTestTask(Instant.now().toEpochMilli(), 20, 60);
+		task.setOverlapPolicy(overlapPolicy);
+		scheduler.addToTasks(task);
+
+		Awaitility.await().atMost(2000, TimeUnit.MILLISECONDS).until(() -> task.getMetrics().getRunCount() >= 3);
+		scheduler.removeFromTasks(task);
+		Awaitility.await().atMost(2000, TimeUnit.MILLISECONDS).until(() -> task.getActiveRuns() == 0);
+
+		Assertions.assertTrue(task.getMetrics().getExecutionTime().getPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(50));
+		return task;
+	}
+
+
 	@AfterEach
 	public void stopScheduler() {
 		scheduler.stopScheduler();
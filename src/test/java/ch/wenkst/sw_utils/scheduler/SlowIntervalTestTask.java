@@ -0,0 +1,31 @@
+package ch.wenkst.sw_utils.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.wenkst.sw_utils.Utils;
+
+public class SlowIntervalTestTask extends IntervalTask {
+	private int processTimeInMs;
+	private AtomicInteger concurrentRuns = new AtomicInteger(0);
+	private AtomicInteger maxConcurrentRuns = new AtomicInteger(0);
+
+
+	public SlowIntervalTestTask(long startTime, long interval, int processTimeInMs) {
+		super(startTime, interval);
+		this.processTimeInMs = processTimeInMs;
+	}
+
+
+	@Override
+	public void onExecuteTask() {
+		int runs = concurrentRuns.incrementAndGet();
+		maxConcurrentRuns.accumulateAndGet(runs, Math::max);
+		Utils.sleep(processTimeInMs);
+		concurrentRuns.decrementAndGet();
+	}
+
+
+	public int getMaxConcurrentRuns() {
+		return maxConcurrentRuns.get();
+	}
+}
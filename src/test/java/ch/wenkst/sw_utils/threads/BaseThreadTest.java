@@ -0,0 +1,103 @@
+package ch.wenkst.sw_utils.threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class BaseThreadTest extends BaseTest {
+
+	@Test
+	public void platformExecution() throws InterruptedException {
+		CountingThread thread = new CountingThread(5);
+		thread.setExecutionMode(ExecutionMode.PLATFORM);
+		thread.start();
+		thread.joinWorker(5000);
+
+		Assertions.assertFalse(thread.isVirtual());
+		Assertions.assertFalse(thread.isWorkerAlive());
+		Assertions.assertEquals(5, thread.workCount.get());
+		Assertions.assertTrue(thread.terminated);
+	}
+
+
+	@Test
+	public void virtualExecution() throws InterruptedException {
+		CountingThread thread = new CountingThread(5);
+		thread.setExecutionMode(ExecutionMode.VIRTUAL);
+		thread.start();
+		thread.joinWorker(5000);
+
+		// the loop falls back to a platform thread on runtimes without virtual threads
+		Assertions.assertEquals(BaseThread.isVirtualThreadSupported(), thread.isVirtual());
+		Assertions.assertFalse(thread.isWorkerAlive());
+		Assertions.assertEquals(5, thread.workCount.get());
+		Assertions.assertTrue(thread.terminated);
+	}
+
+
+	@Test
+	public void platformIsTheDefaultMode() throws InterruptedException {
+		CountingThread thread = new CountingThread(1);
+		Assertions.assertEquals(ExecutionMode.PLATFORM, thread.getExecutionMode());
+		
+		// join() and isAlive() track the loop of a platform thread
+		thread.start();
+		thread.join(5000);
+		Assertions.assertFalse(thread.isAlive());
+		Assertions.assertTrue(thread.terminated);
+	}
+
+
+	@Test
+	public void stopWakesTheThread() throws InterruptedException {
+		CountingThread thread = new CountingThread(Integer.MAX_VALUE, 60000);
+		thread.start();
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> thread.workCount.get() == 1);
+
+		thread.wakeup();
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> thread.workCount.get() == 2);
+
+		thread.stopWorker();
+		thread.joinWorker(2000);
+		Assertions.assertFalse(thread.isWorkerAlive());
+		Assertions.assertEquals(2, thread.getWakeupLatency().getCount());
+	}
+
+
+	private static class CountingThread extends BaseThread {
+		private int maxCount;
+		private AtomicInteger workCount = new AtomicInteger(0);
+		private volatile boolean terminated = false;
+
+		public CountingThread(int maxCount) {
+			this(maxCount, 1);
+		}
+
+		public CountingThread(int maxCount, int pollInterval) {
+			super(pollInterval);
+			this.maxCount = maxCount;
+		}
+
+		@Override
+		public void startWork() {
+
+		}
+
+		@Override
+		public void doWork() {
+			if (workCount.incrementAndGet() >= maxCount) {
+				stopWorker();
+			}
+		}
+
+		@Override
+		public void terminateWork() {
+			terminated = true;
+		}
+	}
+}
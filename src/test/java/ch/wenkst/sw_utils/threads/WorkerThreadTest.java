@@ -0,0 +1,80 @@
+package ch.wenkst.sw_utils.threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import ch.wenkst.sw_utils.BaseTest;
+
+public class WorkerThreadTest extends BaseTest {
+	private static final int POLL_INTERVAL = 60000;
+
+
+	@Test
+	public void stateChangesWakeTheThread() throws InterruptedException {
+		TestWorker worker = new TestWorker();
+		worker.start();
+		waitForState(worker, WorkerThreadState.WORKING);
+
+		worker.suspendThread();
+		waitForState(worker, WorkerThreadState.SUSPENDED);
+
+		worker.resumeThread();
+		waitForState(worker, WorkerThreadState.WORKING);
+
+		worker.terminateThread();
+		worker.join(2000);
+		Assertions.assertFalse(worker.isAlive());
+		Assertions.assertEquals(WorkerThreadState.TERMINATED, worker.getThreadState());
+		Assertions.assertTrue(worker.getWakeupLatency().getCount() >= 3);
+	}
+
+
+	@Test
+	public void wakeupExecutesWork() {
+		TestWorker worker = new TestWorker();
+		worker.start();
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> worker.workCount.get() == 1);
+
+		worker.wakeup();
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> worker.workCount.get() == 2);
+		worker.terminateThread();
+	}
+
+
+	private void waitForState(TestWorker worker, WorkerThreadState state) {
+		Awaitility.await().atMost(2, TimeUnit.SECONDS).until(() -> worker.getThreadState() == state);
+	}
+
+
+	private static class TestWorker extends WorkerThread {
+		private AtomicInteger workCount = new AtomicInteger(0);
+
+		public TestWorker() {
+			super("test-worker", POLL_INTERVAL);
+		}
+
+		@Override
+		protected void doStartWork() { }
+
+		@Override
+		protected void doWork() {
+			workCount.incrementAndGet();
+		}
+
+		@Override
+		protected void doSuspendingWork() { }
+
+		@Override
+		protected void doSuspendedWork() { }
+
+		@Override
+		protected void doResumeWork() { }
+
+		@Override
+		protected void doTerminateWork() { }
+	}
+}